@@ -0,0 +1,72 @@
+package online.demo.api.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves the ID sequences past the highest ID already stored, so tables filled while the database generated their IDs
+// keep working once Hibernate hands them out in blocks. MySQL has no sequences, there each one is a single row table
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class IdGeneratorAlignment implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorAlignment.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Runs once the schema is updated but before the web server starts, so nothing is saved with a taken ID meanwhile
+    @Override
+    public void afterSingletonsInstantiated() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator) {
+                String sequence = sessionFactory.getSqlStringGenerationContext()
+                        .format(generator.getDatabaseStructure().getPhysicalName());
+                align(dialect, generator.getDatabaseStructure(), sequence, persister);
+            }
+        });
+    }
+
+    // Private method to move a sequence, or the table emulating it, past the highest ID of the entity it generates
+    private void align(Dialect dialect, DatabaseStructure structure, String sequence, EntityPersister persister) {
+        AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + entityPersister.getIdentifierColumnNames()[0] + ") FROM "
+                + entityPersister.getIdentifierTableName(), Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long nextId = maxId + 1;
+        if (structure.isPhysicalSequence()) {
+            // Reading the sequence skips one block of IDs, which only happens at startup
+            Long current = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+            if (current == null || current >= nextId) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + nextId);
+        } else {
+            String column = SequenceStyleGenerator.DEF_VALUE_COLUMN;
+            int updated = jdbcTemplate.update("UPDATE " + sequence + " SET " + column + " = ? WHERE " + column + " < ?", nextId, nextId);
+            if (updated == 0) {
+                Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + sequence, Long.class);
+                if (rows == null || rows > 0) {
+                    return;
+                }
+                jdbcTemplate.update("INSERT INTO " + sequence + " (" + column + ") VALUES (?)", nextId);
+            }
+        }
+        logger.info("Moved {} past the highest stored ID {}", sequence, maxId);
+    }
+}
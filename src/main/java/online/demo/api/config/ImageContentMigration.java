@@ -0,0 +1,26 @@
+package online.demo.api.config;
+
+import online.demo.api.services.ImageContentMigrationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ImageContentMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageContentMigration.class);
+
+    // Move image content still held in the database into the configured store, enabled with app.images.migrate-content
+    @Bean
+    @ConditionalOnProperty(name = "app.images.migrate-content", havingValue = "true")
+    ApplicationRunner migrateImageContent(ImageContentMigrationService imageContentMigrationService) {
+        return args -> {
+            int images = imageContentMigrationService.migrateLegacyContent();
+            int blobs = imageContentMigrationService.migrateBlobContent();
+            logger.info("Moved the content of {} images and {} shared blobs into the image store", images, blobs);
+        };
+    }
+}
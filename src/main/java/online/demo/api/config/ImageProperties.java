@@ -0,0 +1,82 @@
+package online.demo.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.images")
+public class ImageProperties {
+
+    // Directory where chunked and multipart uploads are staged until they are committed
+    private Path uploadDir = Path.of(System.getProperty("java.io.tmpdir"), "image-uploads");
+
+    // Time an upload may take from its start to its commit, uploads left unfinished longer are discarded with their
+    // staged content
+    private Duration uploadExpiry = Duration.ofHours(24);
+
+    // Interval at which abandoned uploads are looked for. Zero disables the cleanup
+    private Duration uploadCleanupInterval = Duration.ofHours(1);
+
+    // Largest image accepted, a MEDIUMBLOB column holds up to 16 MB minus one byte
+    private DataSize maxSize = DataSize.ofBytes(16_777_215);
+
+    // Where image content is kept, either in the image_blob table or as files under the store directory
+    private Store store = Store.DATABASE;
+
+    // Directory holding image content when the filesystem store is used
+    private Path storeDir = Path.of("images");
+
+    // Whether content still held in the database is moved into the configured store on startup
+    private boolean migrateContent = false;
+
+    // Number of images moved per batch by the content migration
+    private int migrationBatchSize = 100;
+
+    // Widths thumbnails are generated at, requested widths are rounded up to the nearest of these
+    private List<Integer> thumbnailWidths = List.of(100, 200, 400, 800);
+
+    // Memory kept for recently served thumbnails, older ones are read back from the store
+    private DataSize thumbnailCacheSize = DataSize.ofMegabytes(32);
+
+    // Number of thumbnails generated at the same time, each holds its decoded source image in memory
+    private int thumbnailThreads = 2;
+
+    // Longest a request waits for its turn to generate a thumbnail, the original is served once it is over
+    private Duration thumbnailWait = Duration.ofSeconds(10);
+
+    // Largest image in pixels that is decoded to generate a thumbnail or re-encode it, larger images are served as uploaded.
+    // 40 million pixels take about 160 MB once decoded
+    private long maxPixels = 40_000_000;
+
+    // Whether uploaded JPEG and PNG images are re-encoded in the background
+    private boolean optimize = false;
+
+    // JPEG quality between 0 and 1 used when re-encoding
+    private float optimizeQuality = 0.85f;
+
+    // Longest side in pixels of a re-encoded image, larger images are scaled down
+    private int optimizeMaxDimension = 2560;
+
+    // Whether the content as uploaded is kept after it is replaced by the optimized content
+    private boolean keepOriginals = false;
+
+    // Number of images re-encoded at the same time
+    private int optimizeThreads = 2;
+
+    // Number of images waiting to be re-encoded, images arriving while it is full keep their content as uploaded
+    private int optimizeQueueCapacity = 100;
+
+    public enum Store {
+        DATABASE,
+        FILESYSTEM
+    }
+}
@@ -0,0 +1,44 @@
+package online.demo.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.inventory")
+public class InventoryProperties {
+
+    // Lower bounds of the price buckets counted by the faceted search, in ascending order. Items priced below the first
+    // one fall in a bucket of their own, so there is one bucket more than bounds. Read once on startup
+    private List<BigDecimal> facetPriceBounds = List.of(
+            BigDecimal.valueOf(25), BigDecimal.valueOf(50), BigDecimal.valueOf(100), BigDecimal.valueOf(250), BigDecimal.valueOf(500));
+
+    // Interval at which the in-memory inventory index is reloaded from the database, the longest an item saved by another
+    // instance or outside the application can be missing from it. Zero disables the reloads
+    private Duration indexRefreshInterval = Duration.ofMinutes(15);
+
+    // Whether a criteria search that finds nothing through the in-memory index searches the database directly, which
+    // finds items the index has not seen yet at the cost of scanning the table for every search that matches nothing
+    private boolean criteriaSearchDatabaseFallback = false;
+
+    // Most items returned by a criteria search resolved through the in-memory index, lowest IDs first. Also the most
+    // IDs sent in each query loading them
+    private int criteriaSearchMaxResults = 1000;
+
+    // Rows validated and inserted in each transaction of a bulk import, the only rows of the file held in memory at once
+    private int importChunkSize = 500;
+
+    // Most row errors listed in the result of a bulk import, further errors are only counted
+    private int importMaxErrors = 100;
+
+    // Longest row of a bulk import in characters, a longer row is skipped up to its next line break and reported as
+    // failed, so a file without line breaks or with an unterminated quote is never read into memory whole
+    private int importMaxRowLength = 64 * 1024;
+}
@@ -0,0 +1,61 @@
+package online.demo.api.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@Validated
+@ConfigurationProperties(prefix = "app.orders")
+public class OrderProperties {
+
+    // How long an order looked up by reference code is served from memory, also the longest it can be stale
+    // after a change that does not go through the order itself, such as a renamed client
+    private Duration referenceCacheTtl = Duration.ofSeconds(30);
+
+    // Number of orders kept in the reference code cache, the least recently used ones are evicted first
+    private int referenceCacheSize = 1000;
+
+    // How long an order event subscription stays open, clients reconnect once it ends
+    private Duration eventsTimeout = Duration.ofMinutes(30);
+
+    // Interval of the keep-alive comments sent to order event subscribers
+    private Duration eventsHeartbeat = Duration.ofSeconds(30);
+
+    // Most subscriptions open at the same time to the events of a single order, further ones are refused
+    @Min(1)
+    private int eventsMaxSubscribersPerOrder = 20;
+
+    // Most subscriptions open at the same time to order events, the staff feed and single orders together,
+    // further ones are refused. Each one holds an open connection and a queue of pending events
+    @Min(1)
+    private int eventsMaxSubscribers = 1000;
+
+    // Events waiting to be sent to a single subscriber, a subscriber falling further behind is closed and has to reconnect.
+    // Bulk status updates publish a change per order at once, so this is kept well above the status batch chunk size
+    @Min(1)
+    private int eventsQueueCapacity = 1000;
+
+    // Threads sending events, each subscriber is sent to by one of them at a time so a stalled client only holds up itself
+    @Min(1)
+    private int eventsSendThreads = 4;
+
+    // Most status changes accepted in a single bulk status update
+    @Min(1)
+    private int statusBatchMaxSize = 500;
+
+    // Status changes applied in each transaction of a bulk status update, so the orders are not all locked at once
+    @Min(1)
+    private int statusBatchChunkSize = 100;
+
+    // Interval at which the order status counts are recounted from the database, the longest a change made by another
+    // instance or outside the application can be missing from them. Zero disables the recounts
+    private Duration statusCountRefreshInterval = Duration.ofMinutes(15);
+}
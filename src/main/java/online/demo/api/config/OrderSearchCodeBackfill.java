@@ -0,0 +1,25 @@
+package online.demo.api.config;
+
+import online.demo.api.services.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OrderSearchCodeBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchCodeBackfill.class);
+
+    // Fill the search code of orders saved before it existed, so partial ID searches find them too
+    @Bean
+    ApplicationRunner fillOrderSearchCodes(OrderService orderService) {
+        return args -> {
+            int orders = orderService.fillMissingSearchCodes();
+            if (orders > 0) {
+                logger.info("Filled the search code of {} orders", orders);
+            }
+        };
+    }
+}
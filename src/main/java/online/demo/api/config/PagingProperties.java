@@ -0,0 +1,20 @@
+package online.demo.api.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Component
+@Validated
+@ConfigurationProperties(prefix = "app.paging")
+public class PagingProperties {
+
+    // Largest page served by the paged endpoints, larger requested sizes are reduced to it
+    @Min(1)
+    private int maxPageSize = 1000;
+}
@@ -1,5 +1,6 @@
 package online.demo.api.config;
 
+import jakarta.servlet.DispatcherType;
 import online.demo.api.user.Role;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,12 +34,15 @@ public class SecurityConfig {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authRequest -> authRequest
+                        // Streaming responses complete on an async dispatch of an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/verify-role","/api/auth/logout")
                         .hasAnyAuthority(adminRole,userRole,imageEditorRole)
                         .requestMatchers("/api/auth/**","/api/orders/reference/**").permitAll()
                         .requestMatchers("/api/users/**").hasAuthority(adminRole)
                         .requestMatchers(HttpMethod.GET
-                                , "/api/images", "/api/repair-costs", "/api/order-history", "/api/client-payments")
+                                , "/api/images", "/api/images/catalog", "/api/images/optimization"
+                                , "/api/repair-costs", "/api/order-history", "/api/client-payments")
                         .hasAuthority(adminRole)
                         .requestMatchers(HttpMethod.PUT
                                 , "/api/repair-costs/**", "/api/order-history/**", "/api/historic-appliances/**","/api/client-payments/**")
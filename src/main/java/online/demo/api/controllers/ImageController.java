@@ -2,16 +2,31 @@ package online.demo.api.controllers;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import online.demo.api.dto.ImageOptimizationStatsDTO;
+import online.demo.api.dto.ImageSummaryDTO;
+import online.demo.api.dto.ImageThumbnailDTO;
 import online.demo.api.entities.Image;
+import online.demo.api.services.ImageOptimizationService;
 import online.demo.api.services.ImageService;
+import online.demo.api.services.ImageVariantService;
 import online.demo.api.util.ApiResponse;
+import online.demo.api.util.ImageCacheUtil;
+import online.demo.api.util.ImageRangeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/images")
@@ -20,12 +35,34 @@ import java.util.List;
 public class ImageController {
 
     private final ImageService imageService;
+    private final ImageVariantService imageVariantService;
+    private final ImageOptimizationService imageOptimizationService;
 
-    // Get all images
+    // Get the metadata of all images, without content
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Image>>> getAllImages() {
-        List<Image> images = imageService.getAllImages();
-        ApiResponse<List<Image>> response = new ApiResponse<>(HttpStatus.OK.value(), "Images retrieved", images);
+    public ResponseEntity<ApiResponse<List<ImageSummaryDTO>>> getAllImages() {
+        List<ImageSummaryDTO> images = imageService.getAllImages();
+        ApiResponse<List<ImageSummaryDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Images retrieved", images);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Get a page of image metadata, without content
+    @GetMapping("/catalog")
+    public ResponseEntity<ApiResponse<Page<ImageSummaryDTO>>> getImageCatalog(
+            @RequestParam Integer page,
+            @RequestParam Integer size,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortDirection) {
+        Page<ImageSummaryDTO> images = imageService.getImageCatalog(page, size, sortBy, sortDirection);
+        ApiResponse<Page<ImageSummaryDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Images retrieved", images);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Get the counters of the background image optimization, including the bytes saved
+    @GetMapping("/optimization")
+    public ResponseEntity<ApiResponse<ImageOptimizationStatsDTO>> getOptimizationStats() {
+        ImageOptimizationStatsDTO stats = imageOptimizationService.getStats();
+        ApiResponse<ImageOptimizationStatsDTO> response = new ApiResponse<>(HttpStatus.OK.value(), "Image optimization stats retrieved", stats);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -37,12 +74,73 @@ public class ImageController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    // Stream the raw content of an image using its stored MIME type, or a thumbnail of it when a width is given.
+    // Conditional requests are answered from the image metadata alone, the ETag and Last-Modified headers are set by
+    // checkNotModified, and ?v=<checksum> marks the response as immutable.
+    // A single byte range of the original content can be requested to resume an interrupted download
+    @GetMapping("/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getImageContent(@PathVariable Integer id,
+                                                                 @RequestParam(required = false) Integer w,
+                                                                 @RequestParam(required = false) String v,
+                                                                 WebRequest webRequest) {
+        ImageSummaryDTO image = imageService.getImageSummary(id);
+        CacheControl cacheControl = ImageCacheUtil.cacheControl(image.getChecksum(), v, false);
+        String eTag = ImageCacheUtil.eTag(image.getChecksum(), w);
+        long lastModified = ImageCacheUtil.lastModified(image.getUpdatedAt());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        Optional<ImageThumbnailDTO> thumbnail = w == null ? Optional.empty() : imageVariantService.getThumbnail(id, w);
+        if (thumbnail.isPresent()) {
+            byte[] content = thumbnail.get().getContent();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(thumbnail.get().getMime()))
+                    .contentLength(content.length)
+                    .cacheControl(cacheControl)
+                    .body(outputStream -> outputStream.write(content));
+        }
+        MediaType mediaType = MediaType.parseMediaType(image.getMime());
+        Long size = image.getSize();
+        if (size == null) {
+            // Images stored before their size was recorded cannot be served in ranges
+            StreamingResponseBody body = outputStream -> imageService.writeImageContent(id, outputStream);
+            return ResponseEntity.ok().contentType(mediaType).cacheControl(cacheControl).body(body);
+        }
+        HttpRange range = ImageRangeUtil.requestedRange(webRequest.getHeader(HttpHeaders.RANGE),
+                webRequest.getHeader(HttpHeaders.IF_RANGE), eTag, lastModified);
+        if (range == null) {
+            StreamingResponseBody body = outputStream -> imageService.writeImageContent(id, outputStream);
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .contentLength(size)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .cacheControl(cacheControl)
+                    .body(body);
+        }
+        if (!ImageRangeUtil.isSatisfiable(range, size)) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+        long start = range.getRangeStart(size);
+        long end = range.getRangeEnd(size);
+        StreamingResponseBody body = outputStream -> imageService.writeImageContent(id, start, end - start + 1, outputStream);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .contentType(mediaType)
+                .contentLength(end - start + 1)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                .cacheControl(cacheControl)
+                .body(body);
+    }
+
     // Save a new image
     @PostMapping
     public ResponseEntity<ApiResponse<Image>> saveImage(@Valid @RequestBody Image image) {
         image.setId(null);
+        byte[] content = image.getContent();
         Image savedImage = imageService.saveImage(image);
-        ApiResponse<Image> response = new ApiResponse<>(HttpStatus.CREATED.value(), "Image saved", savedImage);
+        ApiResponse<Image> response = new ApiResponse<>(HttpStatus.CREATED.value(), "Image saved", withContent(savedImage, content));
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
@@ -52,8 +150,9 @@ public class ImageController {
         if (!id.equals(image.getId())) {
             throw new IllegalArgumentException("ID in path does not match the one in the request body");
         }
+        byte[] content = image.getContent();
         Image updatedImage = imageService.updateImage(image);
-        ApiResponse<Image> response = new ApiResponse<>(HttpStatus.OK.value(), "Image updated", updatedImage);
+        ApiResponse<Image> response = new ApiResponse<>(HttpStatus.OK.value(), "Image updated", withContent(updatedImage, content));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -64,4 +163,19 @@ public class ImageController {
         ApiResponse<Void> response = new ApiResponse<>(HttpStatus.NO_CONTENT.value(), "Image deleted", null);
         return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
     }
+
+    // Private method to answer a save with the content that was sent, as before content was stored apart from the image.
+    // A copy is returned so the saved entity never holds the content again
+    private Image withContent(Image image, byte[] content) {
+        Image response = new Image();
+        response.setId(image.getId());
+        response.setMime(image.getMime());
+        response.setName(image.getName());
+        response.setSize(image.getSize());
+        response.setChecksum(image.getChecksum());
+        response.setOriginalChecksum(image.getOriginalChecksum());
+        response.setUpdatedAt(image.getUpdatedAt());
+        response.setContent(content);
+        return response;
+    }
 }
@@ -0,0 +1,74 @@
+package online.demo.api.controllers;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.ImageUpload;
+import online.demo.api.services.ImageUploadService;
+import online.demo.api.util.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/images/uploads")
+@Validated
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImageUploadController {
+
+    private final ImageUploadService imageUploadService;
+
+    // Start a chunked upload
+    @PostMapping
+    public ResponseEntity<ApiResponse<ImageUpload>> startUpload(@Valid @RequestBody ImageUpload upload) {
+        ImageUpload startedUpload = imageUploadService.startUpload(upload);
+        ApiResponse<ImageUpload> response = new ApiResponse<>(HttpStatus.CREATED.value(), "Image upload started", startedUpload);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    // Get a chunked upload, including the offset to resume from
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ImageUpload>> getUpload(@PathVariable String id) {
+        ImageUpload upload = imageUploadService.getUpload(id);
+        ApiResponse<ImageUpload> response = new ApiResponse<>(HttpStatus.OK.value(), "Image upload retrieved", upload);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Append the raw request body as the next chunk of an upload
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse<ImageUpload>> appendChunk(@PathVariable String id, @RequestParam long offset, InputStream chunk) {
+        ImageUpload upload = imageUploadService.appendChunk(id, offset, chunk);
+        ApiResponse<ImageUpload> response = new ApiResponse<>(HttpStatus.OK.value(), "Image chunk received", upload);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Commit an upload as a new image
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<ApiResponse<Image>> commitUpload(@PathVariable String id) {
+        Image savedImage = imageUploadService.commitUpload(id);
+        ApiResponse<Image> response = new ApiResponse<>(HttpStatus.CREATED.value(), "Image saved", savedImage);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    // Abort an upload
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> abortUpload(@PathVariable String id) {
+        imageUploadService.abortUpload(id);
+        ApiResponse<Void> response = new ApiResponse<>(HttpStatus.NO_CONTENT.value(), "Image upload aborted", null);
+        return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
+    }
+
+    // Save an image sent as a multipart file in a single request
+    @PostMapping(value = "/multipart", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<Image>> saveMultipartImage(@RequestParam MultipartFile file, @RequestParam(required = false) String name) {
+        Image savedImage = imageUploadService.saveMultipartImage(file, name);
+        ApiResponse<Image> response = new ApiResponse<>(HttpStatus.CREATED.value(), "Image saved", savedImage);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+}
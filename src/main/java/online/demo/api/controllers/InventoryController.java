@@ -2,17 +2,26 @@ package online.demo.api.controllers;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import online.demo.api.dto.InventoryFacetsDTO;
+import online.demo.api.dto.InventoryImportResultDTO;
 import online.demo.api.entities.ApplianceModel;
 import online.demo.api.entities.Inventory;
 import online.demo.api.enums.Brand;
 import online.demo.api.enums.Component;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.services.InventoryImportService;
+import online.demo.api.services.InventoryIndexService;
 import online.demo.api.services.InventoryService;
 import online.demo.api.util.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -22,6 +31,8 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventoryIndexService inventoryIndexService;
+    private final InventoryImportService inventoryImportService;
 
     // Get all inventory items
     @GetMapping
@@ -53,7 +64,7 @@ public class InventoryController {
             @RequestParam(required = false) String serial,
             @RequestParam(required = false) String location,
             @RequestParam(required = false) BigDecimal lastPrice,
-            @RequestParam(required = false) String modelName,
+            @RequestParam(required = false) List<String> modelName,
             @RequestParam(required = false) Component component,
             @RequestParam(required = false) Brand brand,
             @RequestParam(required = false) String name) {
@@ -63,9 +74,11 @@ public class InventoryController {
         inventory.setLocation(location);
         inventory.setLastPrice(lastPrice);
         if (modelName != null) {
-            ApplianceModel model = new ApplianceModel();
-            model.setModel(modelName);
-            inventory.setCompatibleApplianceModels(List.of(model));
+            inventory.setCompatibleApplianceModels(modelName.stream().map(requestedModel -> {
+                ApplianceModel model = new ApplianceModel();
+                model.setModel(requestedModel);
+                return model;
+            }).toList());
         }
         inventory.setComponent(component);
         inventory.setBrand(brand);
@@ -76,6 +89,48 @@ public class InventoryController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    // Get a page of the inventory items whose serial or name contains the given text, serial matches first.
+    // With fuzzy, items whose serial or name is close to the text follow, so a typo still finds the part
+    @GetMapping("/search/text")
+    public ResponseEntity<ApiResponse<Page<Inventory>>> searchInventory(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        Page<Inventory> inventoryItems = inventoryIndexService.searchInventory(q, fuzzy, page, size);
+        ApiResponse<Page<Inventory>> response = new ApiResponse<>(HttpStatus.OK.value(), "Inventory items found", inventoryItems);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Get a page of the inventory items compatible with the given appliance models, match chooses whether an item
+    // must fit a model matching every name or just one of them
+    @GetMapping("/compatible")
+    public ResponseEntity<ApiResponse<Page<Inventory>>> getCompatibleInventory(
+            @RequestParam List<String> model,
+            @RequestParam(defaultValue = "ALL") ModelMatchMode match,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        Page<Inventory> inventoryItems = inventoryIndexService.getCompatibleInventory(model, match, page, size);
+        ApiResponse<Page<Inventory>> response = new ApiResponse<>(HttpStatus.OK.value(), "Inventory items found", inventoryItems);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Get a page of the inventory items with any of the given values of each facet, along with the number of items
+    // per component, brand, location and price bucket, each counted with the filters of the other facets only
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<InventoryFacetsDTO>> getInventoryFacets(
+            @RequestParam(required = false) List<Component> component,
+            @RequestParam(required = false) List<Brand> brand,
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) List<Integer> priceBucket,
+            @RequestParam(required = false) List<String> model,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        InventoryFacetsDTO facets = inventoryIndexService.getInventoryFacets(component, brand, location, priceBucket, model, page, size);
+        ApiResponse<InventoryFacetsDTO> response = new ApiResponse<>(HttpStatus.OK.value(), "Inventory facets retrieved", facets);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     // Save a new inventory item
     @PostMapping
     public ResponseEntity<ApiResponse<Inventory>> saveInventoryItem(@Valid @RequestBody Inventory inventoryItem) {
@@ -85,6 +140,16 @@ public class InventoryController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // Import inventory items from a CSV or NDJSON file sent as the request body, read as it arrives.
+    // Rows that cannot be imported are reported in the result while the others are saved
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<InventoryImportResultDTO>> importInventory(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                                               InputStream body) throws IOException {
+        InventoryImportResultDTO result = inventoryImportService.importInventory(format, body);
+        ApiResponse<InventoryImportResultDTO> response = new ApiResponse<>(HttpStatus.OK.value(), "Inventory import finished", result);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     // Update an existing inventory item
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Inventory>> updateInventoryItem(@PathVariable Long id, @Valid @RequestBody Inventory inventoryItem) {
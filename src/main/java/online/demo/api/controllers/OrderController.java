@@ -2,24 +2,47 @@ package online.demo.api.controllers;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import online.demo.api.dto.CursorPageDTO;
+import online.demo.api.dto.ImageSummaryDTO;
 import online.demo.api.dto.OrderDTO;
-import online.demo.api.converters.ClientConverter;
-import online.demo.api.converters.OrderConverter;
+import online.demo.api.dto.OrderFullDTO;
+import online.demo.api.dto.OrderStatusChangeDTO;
+import online.demo.api.dto.OrderStatusChangeResultDTO;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.dto.OrderSummaryDTO;
 import online.demo.api.entities.Client;
 import online.demo.api.entities.HistoricAppliance;
 import online.demo.api.entities.Order;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.enums.IdMatchMode;
 import online.demo.api.enums.OrderStatus;
+import online.demo.api.services.ImageService;
+import online.demo.api.services.OrderAggregateService;
+import online.demo.api.services.OrderEventHubService;
+import online.demo.api.services.OrderExportService;
+import online.demo.api.services.OrderReferenceCacheService;
 import online.demo.api.services.OrderService;
+import online.demo.api.services.OrderStatusBatchService;
+import online.demo.api.services.OrderStatusCounterService;
 import online.demo.api.util.ApiResponse;
+import online.demo.api.util.ImageCacheUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -27,34 +50,77 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
-    private final OrderConverter orderConverter;
-    private final ClientConverter clientConverter;
+    private final ImageService imageService;
+    private final OrderExportService orderExportService;
+    private final OrderReferenceCacheService orderReferenceCacheService;
+    private final OrderEventHubService orderEventHubService;
+    private final OrderStatusCounterService orderStatusCounterService;
+    private final OrderAggregateService orderAggregateService;
+    private final OrderStatusBatchService orderStatusBatchService;
 
     // Get all orders
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Order>>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        ApiResponse<List<Order>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
+    public ResponseEntity<ApiResponse<List<OrderSummaryDTO>>> getAllOrders() {
+        List<OrderSummaryDTO> orders = orderService.getAllOrders();
+        ApiResponse<List<OrderSummaryDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     // Get order list by pageable
     @GetMapping("/pageable")
-    public ResponseEntity<ApiResponse<Page<Order>>> getOrders(
+    public ResponseEntity<ApiResponse<Page<OrderSummaryDTO>>> getOrders(
             @RequestParam Integer page,
             @RequestParam Integer size,
             @RequestParam(required = false) String sortBy,
             @RequestParam(required = false) String sortDirection) {
-        Page<Order> orders = orderService.getOrdersByPageable(page, size, sortBy, sortDirection);
-        ApiResponse<Page<Order>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
+        Page<OrderSummaryDTO> orders = orderService.getOrdersByPageable(page, size, sortBy, sortDirection);
+        ApiResponse<Page<OrderSummaryDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Get order list by cursor, pass the nextCursor of a page to get the one following it
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPageDTO<OrderSummaryDTO>>> getOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam Integer size,
+            @RequestParam(required = false) String sortDirection) {
+        CursorPageDTO<OrderSummaryDTO> orders = orderService.getOrdersByCursor(cursor, size, sortDirection);
+        ApiResponse<CursorPageDTO<OrderSummaryDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     // Get order list for the last five orders
     @GetMapping("/last")
-    public ResponseEntity<ApiResponse<List<Order>>> getLastOrders() {
-        List<Order> orders = orderService.getLastFiveOrders();
-        ApiResponse<List<Order>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
+    public ResponseEntity<ApiResponse<List<OrderSummaryDTO>>> getLastOrders() {
+        List<OrderSummaryDTO> orders = orderService.getLastFiveOrders();
+        ApiResponse<List<OrderSummaryDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders retrieved successfully", orders);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Export the summaries of all orders as NDJSON or CSV, written to the response while they are read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = outputStream -> orderExportService.exportOrders(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    // Subscribe to the status changes of every order as Server-Sent Events
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToOrders() {
+        return orderEventHubService.subscribeAll();
+    }
+
+    // Get the number of orders in each status, kept in memory so it costs the same however many orders there are
+    @GetMapping("/status-counts")
+    public ResponseEntity<ApiResponse<Map<OrderStatus, Long>>> getOrderStatusCounts() {
+        Map<OrderStatus, Long> counts = orderStatusCounterService.getCounts();
+        ApiResponse<Map<OrderStatus, Long>> response = new ApiResponse<>(HttpStatus.OK.value(), "Order status counts retrieved successfully", counts);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -66,20 +132,52 @@ public class OrderController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    // Get order by reference code
+    // Get order by ID together with its payments, repair costs, history and balance due
+    @GetMapping("/{id}/full")
+    public ResponseEntity<ApiResponse<OrderFullDTO>> getOrderFull(@PathVariable Integer id) {
+        OrderFullDTO order = orderAggregateService.getOrderFull(id);
+        ApiResponse<OrderFullDTO> response = new ApiResponse<>(HttpStatus.OK.value(), "Order retrieved successfully", order);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Get order by reference code, served from memory for a short while since customers check it repeatedly
     @GetMapping("/reference/{referenceCode}")
     public ResponseEntity<ApiResponse<OrderDTO>> getOrderByReferenceCode(@PathVariable String referenceCode) {
-        Order order = orderService.getOrderByReferenceCode(referenceCode);
-        OrderDTO orderDTO = orderConverter.toDto(order);
-        orderDTO.setClient(clientConverter.toDto(order.getClient()));
+        OrderDTO orderDTO = orderReferenceCacheService.getOrderByReferenceCode(referenceCode);
         ApiResponse<OrderDTO> response = new ApiResponse<>(HttpStatus.OK.value(), "Order retrieved successfully", orderDTO);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    // Get orders by criteria
+    // Subscribe to the status changes of the order with the given reference code as Server-Sent Events,
+    // the current status is sent first so clients do not need to look it up separately
+    @GetMapping(value = "/reference/{referenceCode}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToOrderByReferenceCode(@PathVariable String referenceCode) {
+        OrderDTO order = orderReferenceCacheService.getOrderByReferenceCode(referenceCode);
+        return orderEventHubService.subscribe(new OrderStatusEventDTO(order.getId(), referenceCode, order.getStatus()));
+    }
+
+    // Stream the content of an image attached to the order with the given reference code,
+    // it is served without authentication so shared caches may store it too
+    @GetMapping("/reference/{referenceCode}/images/{imageId}/content")
+    public ResponseEntity<StreamingResponseBody> getOrderImageContent(@PathVariable String referenceCode,
+                                                                      @PathVariable Integer imageId,
+                                                                      @RequestParam(required = false) String v,
+                                                                      WebRequest webRequest) {
+        orderService.verifyOrderImage(referenceCode, imageId);
+        ImageSummaryDTO image = imageService.getImageSummary(imageId);
+        CacheControl cacheControl = ImageCacheUtil.cacheControl(image.getChecksum(), v, true);
+        if (webRequest.checkNotModified(ImageCacheUtil.eTag(image.getChecksum(), null), ImageCacheUtil.lastModified(image.getUpdatedAt()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        StreamingResponseBody body = outputStream -> imageService.writeImageContent(imageId, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(image.getMime())).cacheControl(cacheControl).body(body);
+    }
+
+    // Get orders by criteria, idMatch chooses whether the ID is matched exactly, as a prefix or anywhere in it
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<Order>>> getOrdersByCriteria(
             @RequestParam(required = false) Integer id,
+            @RequestParam(defaultValue = "CONTAINS") IdMatchMode idMatch,
             @RequestParam(required = false) Long clientIdentityCard,
             @RequestParam(required = false) String historicApplianceSerial,
             @RequestParam(required = false) OrderStatus status,
@@ -102,7 +200,7 @@ public class OrderController {
         order.setCreatedDate(createdDate);
         order.setWarranty(warranty);
 
-        List<Order> orders = orderService.getOrdersByCriteria(order);
+        List<Order> orders = orderService.getOrdersByCriteria(order, idMatch);
         ApiResponse<List<Order>> response = new ApiResponse<>(HttpStatus.OK.value(), "Orders found", orders);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -127,4 +225,12 @@ public class OrderController {
         ApiResponse<Order> response = new ApiResponse<>(HttpStatus.OK.value(), "Order status updated successfully", updatedOrder);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
+    // Update the status of many orders at once, the result of each change is returned in the same order as requested
+    @PatchMapping("/status")
+    public ResponseEntity<ApiResponse<List<OrderStatusChangeResultDTO>>> updateOrderStatuses(@RequestBody List<OrderStatusChangeDTO> changes) {
+        List<OrderStatusChangeResultDTO> results = orderStatusBatchService.updateOrderStatuses(changes);
+        ApiResponse<List<OrderStatusChangeResultDTO>> response = new ApiResponse<>(HttpStatus.OK.value(), "Order statuses updated successfully", results);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
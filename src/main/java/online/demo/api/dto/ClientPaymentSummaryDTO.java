@@ -0,0 +1,27 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a payment listed within its order.
+ * It includes the attributes id, date and amount, but not the order the payment belongs to.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientPaymentSummaryDTO {
+
+    // Primary key for the ClientPayment table
+    private Integer id;
+
+    // Date when the payment was made
+    private LocalDate date;
+
+    // Amount of the payment
+    private BigDecimal amount;
+}
@@ -0,0 +1,29 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a page of results read with keyset pagination.
+ * It includes the content of the page and the cursor to pass back for the next one, but no total count.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    // Rows of the page
+    private List<T> content;
+
+    // Requested page size
+    private Integer size;
+
+    // Opaque token to request the page following this one, null on the last page
+    private String nextCursor;
+
+    // Whether another page follows this one
+    private boolean hasNext;
+}
@@ -0,0 +1,28 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the counters of the background image optimization.
+ * It includes the number of optimized, skipped and failed images and the bytes saved since startup.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageOptimizationStatsDTO {
+
+    // Number of images whose content was replaced by optimized content
+    private long optimizedImages;
+
+    // Number of images left as uploaded, because re-encoding saved too little, the format is not supported,
+    // the image changed in the meantime or the queue was full
+    private long skippedImages;
+
+    // Number of images that could not be optimized because of an error
+    private long failedImages;
+
+    // Bytes saved by replacing content with optimized content
+    private long bytesSaved;
+}
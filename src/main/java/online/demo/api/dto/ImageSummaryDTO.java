@@ -0,0 +1,35 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the metadata of the Image entity.
+ * It includes attributes such as id, name, mime, size, checksum and updatedAt, but never the content.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageSummaryDTO {
+
+    // Primary key for the Image table
+    private Integer id;
+
+    // Name or description of the image
+    private String name;
+
+    // MIME type of the image
+    private String mime;
+
+    // Size of the content in bytes
+    private Long size;
+
+    // SHA-256 checksum of the content, hex encoded
+    private String checksum;
+
+    // Time the image was last saved
+    private Instant updatedAt;
+}
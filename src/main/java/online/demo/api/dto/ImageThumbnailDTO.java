@@ -0,0 +1,21 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a scaled down copy of an image.
+ * It includes the MIME type and the content of the scaled copy.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageThumbnailDTO {
+
+    // MIME type of the scaled content
+    private String mime;
+
+    // Scaled content of the image
+    private byte[] content;
+}
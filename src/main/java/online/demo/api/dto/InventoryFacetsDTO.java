@@ -0,0 +1,39 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.entities.Inventory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a page of the inventory faceted search.
+ * It includes the items on the page and, for each facet, the number of items per value.
+ * The counts of a facet apply every filter except the one on that facet, so they tell how many items
+ * selecting another value would add.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryFacetsDTO {
+
+    // The page of inventory items matching every filter
+    private Page<Inventory> items;
+
+    // Number of items per component, values without items are left out
+    private Map<Component, Long> components;
+
+    // Number of items per brand, values without items are left out
+    private Map<Brand, Long> brands;
+
+    // Number of items per location, in alphabetical order, values without items are left out
+    private Map<String, Long> locations;
+
+    // Number of items per price bucket, items without a price are in none of them
+    private List<PriceBucketCountDTO> priceBuckets;
+}
@@ -0,0 +1,24 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a row of a bulk inventory import that was not imported.
+ * It includes the attributes row, serial and message.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportErrorDTO {
+
+    // Number of the row in the file, starting at 1 with the CSV header
+    private Long row;
+
+    // Serial number given in the row, null if the row could not be read
+    private String serial;
+
+    // Why the row was not imported
+    private String message;
+}
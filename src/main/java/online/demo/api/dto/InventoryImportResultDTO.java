@@ -0,0 +1,37 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the outcome of a bulk inventory import.
+ * It includes the number of rows read, imported and failed, the errors of the failed rows up to a limit,
+ * and how long the import took.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportResultDTO {
+
+    // Number of rows read, blank lines and the CSV header excluded
+    private long rows;
+
+    // Number of rows imported as new inventory items
+    private long imported;
+
+    // Number of rows not imported
+    private long failed;
+
+    // Errors of the failed rows, in file order, only the first ones are listed when there are many
+    private List<InventoryImportErrorDTO> errors = new ArrayList<>();
+
+    // Time the import took, in milliseconds
+    private long elapsedMillis;
+
+    // Rows read per second
+    private double rowsPerSecond;
+}
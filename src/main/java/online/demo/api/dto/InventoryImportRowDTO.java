@@ -0,0 +1,54 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a row of a bulk inventory import.
+ * It includes the attributes of an inventory item, with its compatible appliance models and images given by ID.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportRowDTO {
+
+    // Serial number of the inventory item
+    private String serial;
+
+    // Name or description of the inventory item
+    private String name;
+
+    // Quantity of new inventory items available
+    private Integer quantityNew;
+
+    // Quantity of used inventory items available
+    private Integer quantityUsed;
+
+    // Location where the inventory item is stored
+    private String location;
+
+    // Last known price of the inventory item
+    private BigDecimal lastPrice;
+
+    // Date when the last price was updated
+    private Date dateLastPrice;
+
+    // Component type of the inventory item
+    private Component component;
+
+    // Brand of the inventory item
+    private Brand brand;
+
+    // IDs of the appliance models the inventory item is compatible with
+    private List<Integer> compatibleApplianceModelIds;
+
+    // IDs of the images of the inventory item
+    private List<Integer> imageIds;
+}
@@ -0,0 +1,40 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the values of an inventory item kept by the in-memory inventory index.
+ * It includes the attributes id, serial, name, component, brand, location and lastPrice.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryIndexEntryDTO {
+
+    // Primary key of the inventory item
+    private Long id;
+
+    // Serial number of the inventory item
+    private String serial;
+
+    // Name or description of the inventory item
+    private String name;
+
+    // Component type of the inventory item
+    private Component component;
+
+    // Brand of the inventory item
+    private Brand brand;
+
+    // Location where the inventory item is stored
+    private String location;
+
+    // Last known price of the inventory item
+    private BigDecimal lastPrice;
+}
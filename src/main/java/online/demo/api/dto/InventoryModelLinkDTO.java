@@ -0,0 +1,21 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a link between an inventory item and an appliance model
+ * it is compatible with. It includes the attributes inventoryId and modelId.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryModelLinkDTO {
+
+    // Primary key of the inventory item
+    private Long inventoryId;
+
+    // Primary key of the appliance model
+    private Integer modelId;
+}
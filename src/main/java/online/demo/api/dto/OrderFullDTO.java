@@ -0,0 +1,41 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.entities.Order;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for everything shown on the page of a single order.
+ * It includes the order with its client, appliance and images, its payments, repair costs and history,
+ * and the totals and balance due computed from them.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFullDTO {
+
+    // The order with its client, appliance and images
+    private Order order;
+
+    // Payments made towards the order, oldest first
+    private List<ClientPaymentSummaryDTO> payments;
+
+    // Repair costs charged for the order
+    private List<RepairCostSummaryDTO> repairCosts;
+
+    // History of the order, oldest first
+    private List<OrderHistorySummaryDTO> history;
+
+    // Sum of the repair costs
+    private BigDecimal totalCost;
+
+    // Sum of the payments
+    private BigDecimal totalPaid;
+
+    // Amount still owed by the client, negative if the client paid more than the costs
+    private BigDecimal balanceDue;
+}
@@ -0,0 +1,26 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for an order history entry listed within its order.
+ * It includes the attributes id, eventDate and text, but not the order the entry belongs to.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistorySummaryDTO {
+
+    // Primary key for the OrderHistory table
+    private Integer id;
+
+    // Date of the event recorded in the order history
+    private LocalDate eventDate;
+
+    // Text describing the event or action in the order history
+    private String text;
+}
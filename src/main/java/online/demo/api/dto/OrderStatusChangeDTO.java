@@ -0,0 +1,22 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.OrderStatus;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a status change requested in a bulk status update.
+ * It includes the attributes id and status.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangeDTO {
+
+    // Primary key of the order to change
+    private Integer id;
+
+    // Status the order is moved to
+    private OrderStatus status;
+}
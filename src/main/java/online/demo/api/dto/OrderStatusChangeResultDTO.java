@@ -0,0 +1,29 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.enums.StatusChangeOutcome;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the result of a status change in a bulk status update.
+ * It includes attributes such as id, previousStatus, status and outcome.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangeResultDTO {
+
+    // Primary key of the order
+    private Integer id;
+
+    // Status of the order before the update, null if the order was not found or its chunk failed
+    private OrderStatus previousStatus;
+
+    // Status the order was asked to move to
+    private OrderStatus status;
+
+    // Whether the order was moved, and why not otherwise
+    private StatusChangeOutcome outcome;
+}
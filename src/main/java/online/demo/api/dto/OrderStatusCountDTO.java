@@ -0,0 +1,22 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.OrderStatus;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the number of orders in a status.
+ * It includes attributes such as status and count.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusCountDTO {
+
+    // Status of the orders
+    private OrderStatus status;
+
+    // Number of orders in the status
+    private Long count;
+}
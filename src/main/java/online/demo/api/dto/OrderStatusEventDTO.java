@@ -0,0 +1,25 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.OrderStatus;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for an order status event sent to subscribers.
+ * It includes attributes such as orderId, referenceCode and status.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDTO {
+
+    // Primary key for the Order table
+    private Integer orderId;
+
+    // Unique reference code (access key)
+    private String referenceCode;
+
+    // Status of the order
+    private OrderStatus status;
+}
@@ -0,0 +1,49 @@
+package online.demo.api.dto;
+
+import lombok.*;
+import online.demo.api.enums.OrderStatus;
+
+import java.time.LocalDate;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the fields of the Order entity shown in order lists.
+ * It includes attributes such as id, referenceCode, status, createdDate and warranty, the client name and the
+ * appliance serial and model, but neither the images nor the full client and appliance.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    // Primary key for the Order table
+    private Integer id;
+
+    // Unique reference code (access key)
+    private String referenceCode;
+
+    // Current status of the order
+    private OrderStatus status;
+
+    // Date when the order was created
+    private LocalDate createdDate;
+
+    // Indicates if the order is under warranty
+    private Boolean warranty;
+
+    // Issue reported by the client
+    private String issue;
+
+    // Identity card of the client
+    private Long clientIdentityCard;
+
+    // Name of the client
+    private String clientName;
+
+    // Serial number of the appliance
+    private String historicApplianceSerial;
+
+    // Model name of the appliance
+    private String applianceModel;
+}
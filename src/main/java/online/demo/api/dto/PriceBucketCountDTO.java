@@ -0,0 +1,29 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for the number of inventory items in a price bucket.
+ * It includes the attributes bucket, from, to and count.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketCountDTO {
+
+    // Index of the bucket, used to filter the faceted search by it
+    private Integer bucket;
+
+    // Lowest price in the bucket, inclusive
+    private BigDecimal from;
+
+    // Highest price in the bucket, exclusive, null for the last bucket
+    private BigDecimal to;
+
+    // Number of inventory items in the bucket
+    private Long count;
+}
@@ -0,0 +1,26 @@
+package online.demo.api.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a repair cost listed within its order.
+ * It includes the attributes id, description and amount, but not the order the cost belongs to.
+ */
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepairCostSummaryDTO {
+
+    // Primary key for the RepairCost table
+    private Integer id;
+
+    // Description of the repair cost
+    private String description;
+
+    // Amount of the repair cost
+    private BigDecimal amount;
+}
@@ -21,7 +21,8 @@ public class ApplianceModel {
 
     // Primary key for the ApplianceModel table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appliance_model_seq")
+    @SequenceGenerator(name = "appliance_model_seq", sequenceName = "appliance_model_seq", allocationSize = 50)
     private Integer id;
 
     // Model name of the appliance
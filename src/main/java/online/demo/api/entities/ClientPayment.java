@@ -18,7 +18,8 @@ public class ClientPayment {
 
     // Primary key for the ClientPayment table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_payment_seq")
+    @SequenceGenerator(name = "client_payment_seq", sequenceName = "client_payment_seq", allocationSize = 50)
     private Integer id;
 
     // Many-to-One relationship with Order to link the payment to an order
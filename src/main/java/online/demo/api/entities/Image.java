@@ -1,10 +1,15 @@
 package online.demo.api.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Getter
@@ -14,7 +19,8 @@ public class Image {
 
     // Primary key for the Image table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_seq")
+    @SequenceGenerator(name = "image_seq", sequenceName = "image_seq", allocationSize = 50)
     private Integer id;
 
     // MIME type of the image
@@ -25,11 +31,36 @@ public class Image {
     @NotEmpty(message = "Name cannot be empty")
     private String name;
 
-    // Content of the image stored as a byte array
+    // Size of the content in bytes
+    private Long size;
+
+    // SHA-256 checksum of the content, hex encoded, also the key of the ImageBlob holding it
+    @Column(length = 64)
+    private String checksum;
+
+    // Checksum of the content as uploaded, only kept when the optimized content replaced it and originals are kept
+    @Column(length = 64)
+    private String originalChecksum;
+
+    // Time the image was last saved, sent as Last-Modified when its content is served
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    // Content of the image as a byte array. Content is kept in ImageBlob, so this column is only filled for images
+    // stored before that, while in requests and responses it carries the content inline
     @Lob
     @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "MEDIUMBLOB")
-    @NotEmpty(message = "Content cannot be empty")
     private byte[] content;
+
+    // Content is either sent inline or streamed separately, in which case only its size is known here
+    @JsonIgnore
+    @AssertTrue(message = "Content cannot be empty")
+    public boolean isContentProvided() {
+        if (content != null) {
+            return content.length > 0;
+        }
+        return size != null && size > 0;
+    }
 }
 
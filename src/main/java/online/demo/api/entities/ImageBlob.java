@@ -0,0 +1,32 @@
+package online.demo.api.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImageBlob {
+
+    // Primary key for the ImageBlob table, the SHA-256 checksum of the content
+    @Id
+    @Column(length = 64)
+    private String checksum;
+
+    // Size of the content in bytes
+    @Column(nullable = false)
+    private Long size;
+
+    // Number of images pointing to this content, it is deleted once no image does
+    @Column(nullable = false)
+    private Integer referenceCount;
+
+    // Content shared by every image with this checksum when the database store is used, only ever read and written as a stream
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] content;
+}
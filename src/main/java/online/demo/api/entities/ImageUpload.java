@@ -0,0 +1,38 @@
+package online.demo.api.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImageUpload {
+
+    // Primary key for the ImageUpload table, also the name of the staging file
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    // Name or description of the image being uploaded
+    @NotEmpty(message = "Name cannot be empty")
+    private String name;
+
+    // MIME type of the image being uploaded
+    @NotEmpty(message = "MIME type cannot be empty")
+    private String mime;
+
+    // Date and time when the upload was started
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    // Bytes received so far, which is the offset expected for the next chunk
+    @Transient
+    private Long receivedBytes;
+}
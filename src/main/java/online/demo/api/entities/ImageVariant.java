@@ -0,0 +1,39 @@
+package online.demo.api.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"source_checksum", "width"}))
+public class ImageVariant {
+
+    // Primary key for the ImageVariant table
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_variant_seq")
+    @SequenceGenerator(name = "image_variant_seq", sequenceName = "image_variant_seq", allocationSize = 50)
+    private Integer id;
+
+    // Checksum of the ImageBlob this variant was derived from, the variant is deleted along with it
+    @Column(length = 64, nullable = false)
+    private String sourceChecksum;
+
+    // Width in pixels the source was scaled down to
+    @Column(nullable = false)
+    private Integer width;
+
+    // Checksum of the ImageBlob holding the scaled content, null when the source is served as is
+    // because it is already narrow enough or could not be decoded
+    @Column(length = 64)
+    private String checksum;
+
+    // MIME type of the scaled content
+    private String mime;
+
+    // Size of the scaled content in bytes
+    private Long size;
+}
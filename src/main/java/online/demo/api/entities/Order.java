@@ -1,5 +1,6 @@
 package online.demo.api.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -8,22 +9,44 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import online.demo.api.enums.OrderStatus;
+import online.demo.api.entities.generators.IdSearchCode;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "`order`")
+@Table(name = "`order`", indexes = {
+        @Index(name = "idx_order_created_date_id", columnList = "createdDate, id"),
+        @Index(name = "idx_order_search_code", columnList = "searchCode")
+})
+@NamedEntityGraph(name = Order.DETAILS_GRAPH, attributeNodes = {
+        @NamedAttributeNode("client"),
+        @NamedAttributeNode(value = "historicAppliance", subgraph = "historicAppliance"),
+        @NamedAttributeNode("images")
+}, subgraphs = @NamedSubgraph(name = "historicAppliance", attributeNodes = @NamedAttributeNode("model")))
+@NamedEntityGraph(name = Order.SUMMARY_GRAPH, attributeNodes = {
+        @NamedAttributeNode("client"),
+        @NamedAttributeNode(value = "historicAppliance", subgraph = "historicAppliance")
+}, subgraphs = @NamedSubgraph(name = "historicAppliance", attributeNodes = @NamedAttributeNode("model")))
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
 public class Order {
 
+    // Fetches the client, the historic appliance with its model and the images in the same query
+    public static final String DETAILS_GRAPH = "Order.details";
+
+    // Fetches the client and the historic appliance with its model in the same query, for pages where a collection
+    // fetch would make Hibernate paginate in memory, the images of the page are then loaded in batches
+    public static final String SUMMARY_GRAPH = "Order.summary";
+
     // Primary key for the Order table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Integer id;
 
     // Many-to-One relationship with Client to link the order to a client
@@ -46,6 +69,7 @@ public class Order {
 
     // One-to-Many relationship with Image to associate multiple images with the order
     @OneToMany
+    @BatchSize(size = 50)
     @NotEmpty(message = "Images must not be empty")
     private List<Image> images;
 
@@ -66,4 +90,10 @@ public class Order {
     // Unique reference code (access key)
     @Column(unique = true, nullable = false, length = 36)
     private String referenceCode;
+
+    // ID of the order as text, kept so searches by part of the ID can use an index instead of casting every row
+    @JsonIgnore
+    @IdSearchCode
+    @Column(length = 11)
+    private String searchCode;
 }
@@ -19,7 +19,8 @@ public class OrderHistory {
 
     // Primary key for the OrderHistory table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_history_seq")
+    @SequenceGenerator(name = "order_history_seq", sequenceName = "order_history_seq", allocationSize = 50)
     private Integer id;
 
     // Many-to-One relationship with Order to link the order history to an order
@@ -19,7 +19,8 @@ public class RepairCost {
 
     // Primary key for the RepairCost table
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "repair_cost_seq")
+    @SequenceGenerator(name = "repair_cost_seq", sequenceName = "repair_cost_seq", allocationSize = 50)
     private Integer id;
 
     // Many-to-One relationship with Order to link the repair cost to an order
@@ -0,0 +1,15 @@
+package online.demo.api.entities.generators;
+
+import org.hibernate.annotations.ValueGenerationType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a String attribute that holds the ID of its entity as text, filled when the entity is inserted
+@ValueGenerationType(generatedBy = IdSearchCodeGeneration.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface IdSearchCode {
+}
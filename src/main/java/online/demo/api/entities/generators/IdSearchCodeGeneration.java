@@ -0,0 +1,23 @@
+package online.demo.api.entities.generators;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+
+// Generates the value of an IdSearchCode attribute from the ID Hibernate has already taken from the sequence,
+// so the search code is part of the insert itself
+public class IdSearchCodeGeneration implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Object id = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return id == null ? null : String.valueOf(id);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
@@ -10,6 +10,7 @@ import online.demo.api.enums.Component;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class InventorySpecification {
@@ -29,14 +30,21 @@ public class InventorySpecification {
         return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("lastPrice"), lastPrice);
     }
 
-    // Constructs a specification to filter inventory items by compatible appliance model.
+    // Constructs a specification to filter inventory items by compatible appliance model, an item fitting several
+    // matching models is still returned once.
     public static Specification<Inventory> withCompatibleApplianceModel(String model) {
         return (root, query, cb) -> {
+            query.distinct(true);
             Join<Inventory, ApplianceModel> join = root.join("compatibleApplianceModels");
             return cb.like(join.get("model"), "%" + model + "%");
         };
     }
 
+    // Constructs a specification to filter inventory items by their IDs, as found by an in-memory index.
+    public static Specification<Inventory> withIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
     // Constructs a specification to filter inventory items by component.
     public static Specification<Inventory> withComponent(Component component) {
         return (root, query, cb) -> cb.equal(root.get("component"), component);
@@ -3,6 +3,7 @@ package online.demo.api.entities.specs;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import online.demo.api.entities.Order;
+import online.demo.api.enums.IdMatchMode;
 import online.demo.api.enums.OrderStatus;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -13,7 +14,17 @@ public class OrderSpecification {
 
     // Creates a specification to filter orders by ID containing the specified value.
     public static Specification<Order> withId(String id) {
-        return (root, query, cb) -> cb.like(root.get("id").as(String.class), "%" + id + "%");
+        return withId(id, IdMatchMode.CONTAINS);
+    }
+
+    // Creates a specification to filter orders by ID, exact matches use the primary key
+    // and partial ones the indexed search code, so no row has its ID cast to text
+    public static Specification<Order> withId(String id, IdMatchMode mode) {
+        return switch (mode) {
+            case EXACT -> (root, query, cb) -> cb.equal(root.get("id"), parseId(id));
+            case PREFIX -> (root, query, cb) -> cb.like(root.get("searchCode"), parseId(id) + "%");
+            case CONTAINS -> (root, query, cb) -> cb.like(root.get("searchCode"), "%" + parseId(id) + "%");
+        };
     }
 
     // Specification to filter orders by client's identity card
@@ -40,4 +51,13 @@ public class OrderSpecification {
     public static Specification<Order> withWarranty(boolean warranty) {
         return (root, query, cb) -> cb.equal(root.get("warranty"), warranty);
     }
+
+    // Private method to check that the ID only holds digits, so it cannot carry LIKE wildcards
+    private static Integer parseId(String id) {
+        try {
+            return Integer.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid order ID: " + id);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package online.demo.api.enums;
+
+public enum IdMatchMode {
+    // The ID equals the value, looked up through the primary key
+    EXACT,
+    // The ID starts with the value, a range scan on the search code index
+    PREFIX,
+    // The ID contains the value, scans the search code index instead of the table
+    CONTAINS
+}
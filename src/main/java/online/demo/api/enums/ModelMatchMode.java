@@ -0,0 +1,9 @@
+package online.demo.api.enums;
+
+// How the model names of a compatibility lookup are combined
+public enum ModelMatchMode {
+    // The item must fit a model matching every name
+    ALL,
+    // The item must fit a model matching at least one name
+    ANY
+}
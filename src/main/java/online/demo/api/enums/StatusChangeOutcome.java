@@ -0,0 +1,9 @@
+package online.demo.api.enums;
+
+// Result of a single status change within a bulk status update
+public enum StatusChangeOutcome {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND,
+    FAILED
+}
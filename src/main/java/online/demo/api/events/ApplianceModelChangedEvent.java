@@ -0,0 +1,16 @@
+package online.demo.api.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when an appliance model is saved or updated, listeners run once the transaction saving it commits
+@Getter
+@AllArgsConstructor
+public class ApplianceModelChangedEvent {
+
+    // ID of the appliance model
+    private final Integer modelId;
+
+    // Model name of the appliance model
+    private final String model;
+}
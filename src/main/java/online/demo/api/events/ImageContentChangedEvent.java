@@ -0,0 +1,16 @@
+package online.demo.api.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when an image starts pointing at new content, listeners run once the transaction saving it commits
+@Getter
+@AllArgsConstructor
+public class ImageContentChangedEvent {
+
+    // ID of the image
+    private final Integer imageId;
+
+    // Checksum of the new content
+    private final String checksum;
+}
@@ -0,0 +1,39 @@
+package online.demo.api.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Published when an inventory item is saved or updated, listeners run once the transaction saving it commits
+@Getter
+@AllArgsConstructor
+public class InventoryChangedEvent {
+
+    // ID of the inventory item
+    private final Long inventoryId;
+
+    // IDs of the appliance models the item is compatible with
+    private final List<Integer> modelIds;
+
+    // Serial number of the item
+    private final String serial;
+
+    // Name or description of the item
+    private final String name;
+
+    // Component type of the item
+    private final Component component;
+
+    // Brand of the item
+    private final Brand brand;
+
+    // Location where the item is stored
+    private final String location;
+
+    // Last known price of the item
+    private final BigDecimal lastPrice;
+}
@@ -0,0 +1,23 @@
+package online.demo.api.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import online.demo.api.enums.OrderStatus;
+
+// Published when an order is saved or its status changes, listeners run once the transaction saving it commits
+@Getter
+@AllArgsConstructor
+public class OrderChangedEvent {
+
+    // ID of the order
+    private final Integer orderId;
+
+    // Reference code of the order
+    private final String referenceCode;
+
+    // Status of the order before the change, null for a new order
+    private final OrderStatus previousStatus;
+
+    // Status of the order after the change
+    private final OrderStatus status;
+}
@@ -0,0 +1,15 @@
+package online.demo.api.exceptions;
+
+import lombok.experimental.StandardException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception class for indicating that a limit on concurrent use of a resource was reached.
+ * This exception should be thrown when a request is refused until earlier ones have finished.
+ */
+@StandardException
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+}
@@ -1,8 +1,10 @@
 package online.demo.api.repositories;
 
+import online.demo.api.dto.ClientPaymentSummaryDTO;
 import online.demo.api.entities.ClientPayment;
 import online.demo.api.entities.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,4 +17,9 @@ public interface ClientPaymentRepository extends JpaRepository<ClientPayment, In
 
     // Method to find ClientPayments by their date
     List<ClientPayment> findByDate(LocalDate date);
+
+    // Method to find the payments of an order by its ID, without loading the order itself again
+    @Query("SELECT new online.demo.api.dto.ClientPaymentSummaryDTO(p.id, p.date, p.amount) " +
+            "FROM ClientPayment p WHERE p.order.id = :orderId ORDER BY p.date, p.id")
+    List<ClientPaymentSummaryDTO> findSummariesByOrderId(Integer orderId);
 }
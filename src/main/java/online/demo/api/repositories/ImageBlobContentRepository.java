@@ -0,0 +1,20 @@
+package online.demo.api.repositories;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// This interface defines methods to stream ImageBlob content without loading it into an entity
+public interface ImageBlobContentRepository {
+
+    // Inserts a new blob with a single reference and no content yet
+    void insertBlob(String checksum, long size);
+
+    // Stores the content of an existing blob, reading it from the given stream of the given length
+    void updateContent(String checksum, InputStream content, long length);
+
+    // Copies the content with the given checksum to the given stream, returns false if there is no content stored
+    boolean copyContentTo(String checksum, OutputStream outputStream);
+
+    // Copies the given window of the content with the given checksum to the given stream, only that window is read from the database
+    boolean copyContentRangeTo(String checksum, long offset, long length, OutputStream outputStream);
+}
@@ -0,0 +1,51 @@
+package online.demo.api.repositories;
+
+import lombok.RequiredArgsConstructor;
+import online.demo.api.util.BlobStreamUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// JDBC implementation of ImageBlobContentRepository, content is written through a stream and read back from a single query
+// in a read-only transaction
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImageBlobContentRepositoryImpl implements ImageBlobContentRepository {
+
+    private static final String INSERT_BLOB = "INSERT INTO image_blob (checksum, size, reference_count) VALUES (?, ?, 1)";
+    private static final String UPDATE_CONTENT = "UPDATE image_blob SET content = ? WHERE checksum = ?";
+    private static final String SELECT_CONTENT = "SELECT content FROM image_blob WHERE checksum = ? AND content IS NOT NULL";
+    private static final String SELECT_CONTENT_RANGE = "SELECT SUBSTRING(content, ?, ?) FROM image_blob WHERE checksum = ? AND content IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBlob(String checksum, long size) {
+        jdbcTemplate.update(INSERT_BLOB, checksum, size);
+    }
+
+    @Override
+    public void updateContent(String checksum, InputStream content, long length) {
+        jdbcTemplate.update(UPDATE_CONTENT, preparedStatement -> {
+            preparedStatement.setBinaryStream(1, content, length);
+            preparedStatement.setString(2, checksum);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean copyContentTo(String checksum, OutputStream outputStream) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(SELECT_CONTENT,
+                (ResultSetExtractor<Boolean>) resultSet -> BlobStreamUtil.copy(resultSet, outputStream), checksum));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean copyContentRangeTo(String checksum, long offset, long length, OutputStream outputStream) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(SELECT_CONTENT_RANGE,
+                (ResultSetExtractor<Boolean>) resultSet -> BlobStreamUtil.copy(resultSet, outputStream), offset + 1, length, checksum));
+    }
+}
@@ -0,0 +1,37 @@
+package online.demo.api.repositories;
+
+import online.demo.api.entities.ImageBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+// This interface defines methods to access ImageBlob entities in the database
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String>, ImageBlobContentRepository {
+
+    // Adds a reference to stored content, returns 0 if there is no content with that checksum
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.checksum = :checksum")
+    int incrementReferenceCount(String checksum);
+
+    // Removes a reference from stored content
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.referenceCount = b.referenceCount - 1 WHERE b.checksum = :checksum")
+    int decrementReferenceCount(String checksum);
+
+    // Deletes stored content once no image references it
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.checksum = :checksum AND b.referenceCount <= 0")
+    int deleteUnreferenced(String checksum);
+
+    // Finds blobs whose content is still held in the database, ordered by checksum so they can be walked in batches
+    @Query("SELECT b.checksum FROM ImageBlob b WHERE b.checksum > :afterChecksum AND b.content IS NOT NULL ORDER BY b.checksum")
+    List<String> findChecksumsWithContent(String afterChecksum, Pageable pageable);
+
+    // Drops the content held in the database once it has been moved to another store
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.content = NULL WHERE b.checksum = :checksum")
+    int clearContent(String checksum);
+}
@@ -0,0 +1,13 @@
+package online.demo.api.repositories;
+
+import java.io.OutputStream;
+
+// This interface defines methods to stream the legacy Image content column without loading it into an entity
+public interface ImageContentRepository {
+
+    // Copies the content of an image to the given stream, returns false if there is no image with that ID
+    boolean copyContentTo(Integer id, OutputStream outputStream);
+
+    // Copies the given window of the content of an image to the given stream, only that window is read from the database
+    boolean copyContentRangeTo(Integer id, long offset, long length, OutputStream outputStream);
+}
@@ -0,0 +1,34 @@
+package online.demo.api.repositories;
+
+import lombok.RequiredArgsConstructor;
+import online.demo.api.util.BlobStreamUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+
+// JDBC implementation of ImageContentRepository, the BLOB is streamed from a single query in a read-only transaction
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImageContentRepositoryImpl implements ImageContentRepository {
+
+    private static final String SELECT_CONTENT = "SELECT content FROM image WHERE id = ?";
+    private static final String SELECT_CONTENT_RANGE = "SELECT SUBSTRING(content, ?, ?) FROM image WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean copyContentTo(Integer id, OutputStream outputStream) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(SELECT_CONTENT,
+                (ResultSetExtractor<Boolean>) resultSet -> BlobStreamUtil.copy(resultSet, outputStream), id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean copyContentRangeTo(Integer id, long offset, long length, OutputStream outputStream) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(SELECT_CONTENT_RANGE,
+                (ResultSetExtractor<Boolean>) resultSet -> BlobStreamUtil.copy(resultSet, outputStream), offset + 1, length, id));
+    }
+}
@@ -1,8 +1,53 @@
 package online.demo.api.repositories;
 
+import online.demo.api.dto.ImageSummaryDTO;
 import online.demo.api.entities.Image;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 // This interface defines methods to access Image entities in the database
-public interface ImageRepository extends JpaRepository<Image, Integer> {
+public interface ImageRepository extends JpaRepository<Image, Integer>, ImageContentRepository {
+
+    // Finds the metadata of an image without loading its content
+    @Query("SELECT new online.demo.api.dto.ImageSummaryDTO(i.id, i.name, i.mime, i.size, i.checksum, i.updatedAt) FROM Image i WHERE i.id = :id")
+    Optional<ImageSummaryDTO> findSummaryById(Integer id);
+
+    // Finds the checksum of the shared content an image points to, images still holding their own content in the legacy column point to none
+    @Query("SELECT i.checksum FROM Image i WHERE i.id = :id AND i.checksum IS NOT NULL AND i.content IS NULL")
+    Optional<String> findBlobChecksumById(Integer id);
+
+    // Finds the checksum of the content as uploaded, only recorded when the optimized content replaced it
+    @Query("SELECT i.originalChecksum FROM Image i WHERE i.id = :id AND i.originalChecksum IS NOT NULL")
+    Optional<String> findOriginalChecksumById(Integer id);
+
+    // Finds the metadata of every image, the content column is never selected
+    @Query("SELECT new online.demo.api.dto.ImageSummaryDTO(i.id, i.name, i.mime, i.size, i.checksum, i.updatedAt) FROM Image i ORDER BY i.id")
+    List<ImageSummaryDTO> findAllSummaries();
+
+    // Finds a page of image metadata, the content column is never selected
+    @Query(value = "SELECT new online.demo.api.dto.ImageSummaryDTO(i.id, i.name, i.mime, i.size, i.checksum, i.updatedAt) FROM Image i",
+            countQuery = "SELECT COUNT(i) FROM Image i")
+    Page<ImageSummaryDTO> findAllSummaries(Pageable pageable);
+
+    // Finds images still holding their own content in the legacy column, ordered by ID so they can be walked in batches
+    @Query("SELECT i.id FROM Image i WHERE i.id > :afterId AND i.content IS NOT NULL ORDER BY i.id")
+    List<Integer> findIdsWithLegacyContent(Integer afterId, Pageable pageable);
+
+    // Points an image at shared content and drops its legacy content
+    @Modifying
+    @Query("UPDATE Image i SET i.checksum = :checksum, i.size = :size, i.content = NULL WHERE i.id = :id")
+    int moveContentToBlob(Integer id, String checksum, Long size);
+
+    // Points an image at optimized content, only if it still points at the content that was optimized
+    @Modifying
+    @Query("UPDATE Image i SET i.checksum = :optimizedChecksum, i.size = :size, i.originalChecksum = :originalChecksum, i.updatedAt = :updatedAt " +
+            "WHERE i.id = :id AND i.checksum = :checksum AND i.content IS NULL")
+    int replaceContent(Integer id, String checksum, String optimizedChecksum, Long size, String originalChecksum, Instant updatedAt);
 }
@@ -0,0 +1,23 @@
+package online.demo.api.repositories;
+
+import jakarta.persistence.LockModeType;
+import online.demo.api.entities.ImageUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// This interface defines methods to access ImageUpload entities in the database
+public interface ImageUploadRepository extends JpaRepository<ImageUpload, String> {
+
+    // Find an upload, locking its row until the transaction ends so that concurrent commits of it wait for each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM ImageUpload u WHERE u.id = :id")
+    Optional<ImageUpload> findByIdForUpdate(String id);
+
+    // Find the uploads started before the given time
+    List<ImageUpload> findByCreatedAtBefore(LocalDateTime createdAt);
+}
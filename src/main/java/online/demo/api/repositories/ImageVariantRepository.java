@@ -0,0 +1,17 @@
+package online.demo.api.repositories;
+
+import online.demo.api.entities.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+// This interface defines methods to access ImageVariant entities in the database
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Integer> {
+
+    // Finds the variant of the given source content scaled to the given width
+    Optional<ImageVariant> findBySourceChecksumAndWidth(String sourceChecksum, Integer width);
+
+    // Finds every variant derived from the given source content
+    List<ImageVariant> findBySourceChecksum(String sourceChecksum);
+}
@@ -1,8 +1,11 @@
 package online.demo.api.repositories;
 
+import online.demo.api.dto.InventoryIndexEntryDTO;
+import online.demo.api.dto.InventoryModelLinkDTO;
 import online.demo.api.entities.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,13 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long>, Jpa
     // Finds inventory items by its serial number
     List<Inventory> findBySerial(String serial);
 
+    // Finds the values kept by the in-memory index of all inventory items, along with their IDs
+    @Query("SELECT new online.demo.api.dto.InventoryIndexEntryDTO(i.id, i.serial, i.name, i.component, i.brand, i.location, i.lastPrice) " +
+            "FROM Inventory i ORDER BY i.id")
+    List<InventoryIndexEntryDTO> findAllIndexEntries();
+
+    // Finds every link between an inventory item and a compatible appliance model, read from the join table alone
+    @Query("SELECT new online.demo.api.dto.InventoryModelLinkDTO(i.id, m.id) FROM Inventory i JOIN i.compatibleApplianceModels m")
+    List<InventoryModelLinkDTO> findAllModelLinks();
+
 }
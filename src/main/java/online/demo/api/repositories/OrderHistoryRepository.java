@@ -1,8 +1,10 @@
 package online.demo.api.repositories;
 
+import online.demo.api.dto.OrderHistorySummaryDTO;
 import online.demo.api.entities.Order;
 import online.demo.api.entities.OrderHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +15,9 @@ public interface OrderHistoryRepository extends JpaRepository<OrderHistory, Inte
 
     // Finds order history entries by the associated order
     List<OrderHistory> findByOrder(Order order);
+
+    // Finds the history entries of an order by its ID, without loading the order itself again
+    @Query("SELECT new online.demo.api.dto.OrderHistorySummaryDTO(h.id, h.eventDate, h.text) " +
+            "FROM OrderHistory h WHERE h.order.id = :orderId ORDER BY h.eventDate, h.id")
+    List<OrderHistorySummaryDTO> findSummariesByOrderId(Integer orderId);
 }
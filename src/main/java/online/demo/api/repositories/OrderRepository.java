@@ -1,24 +1,114 @@
 package online.demo.api.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import online.demo.api.dto.OrderStatusCountDTO;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.dto.OrderSummaryDTO;
 import online.demo.api.entities.Order;
+import online.demo.api.enums.OrderStatus;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 // This interface defines methods to access Order entities in the database
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer>, JpaSpecificationExecutor<Order> {
+    // Selects the list fields of orders straight into OrderSummaryDTO, no entity is loaded
+    String SELECT_SUMMARY = "SELECT new online.demo.api.dto.OrderSummaryDTO(o.id, o.referenceCode, o.status, o.createdDate, " +
+            "o.warranty, o.issue, c.identityCard, c.name, h.serial, m.model) " +
+            "FROM Order o LEFT JOIN o.client c LEFT JOIN o.historicAppliance h LEFT JOIN h.model m";
+
+    // Find all orders with their associations in a single query
+    @NonNull
+    @Override
+    @EntityGraph(Order.DETAILS_GRAPH)
+    List<Order> findAll();
+
+    // Find an order by ID with its associations in a single query
+    @NonNull
+    @Override
+    @EntityGraph(Order.DETAILS_GRAPH)
+    Optional<Order> findById(@NonNull Integer id);
+
+    // Find the orders matching a specification with their associations in a single query
+    @NonNull
+    @Override
+    @EntityGraph(Order.DETAILS_GRAPH)
+    List<Order> findAll(Specification<Order> spec);
+
     // Find an order by reference code
+    @EntityGraph(Order.DETAILS_GRAPH)
     Optional<Order> findByReferenceCode(String referenceCode);
 
-    // Find an order by pageable
+    // Fills the search code of orders saved before it existed
+    @Modifying
+    @Query("UPDATE Order o SET o.searchCode = CAST(o.id AS String) WHERE o.searchCode IS NULL")
+    int fillMissingSearchCodes();
+
+    // Find the current status of the orders with the given IDs, locking their rows until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new online.demo.api.dto.OrderStatusEventDTO(o.id, o.referenceCode, o.status) FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusEventDTO> findStatusesForUpdate(Collection<Integer> ids);
+
+    // Moves the orders with the given IDs to the given status in a single statement
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :ids")
+    int updateStatuses(Collection<Integer> ids, OrderStatus status);
+
+    // Counts the orders in each status, statuses without orders are left out
+    @Query("SELECT new online.demo.api.dto.OrderStatusCountDTO(o.status, COUNT(o)) FROM Order o GROUP BY o.status")
+    List<OrderStatusCountDTO> countByStatus();
+
+    // Checks whether an image is attached to the order with the given reference code
+    boolean existsByReferenceCodeAndImagesId(String referenceCode, Integer imageId);
+
+    // Find an order by pageable, with the to-one associations in the same query and the images in one batch per page
     @NonNull
-    Page<Order> findAll(Pageable pageable);
+    @Override
+    @EntityGraph(Order.SUMMARY_GRAPH)
+    Page<Order> findAll(@NonNull Pageable pageable);
+
+    // Find the summaries of all orders
+    @Query(SELECT_SUMMARY)
+    List<OrderSummaryDTO> findAllSummaries();
+
+    // Find a page of order summaries
+    @Query(value = SELECT_SUMMARY, countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummaryDTO> findAllSummaries(Pageable pageable);
+
+    // Streams the summaries of all orders by ID, read from the database in chunks of the fetch size instead of all at once
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_SUMMARY + " ORDER BY o.id")
+    Stream<OrderSummaryDTO> streamAllSummaries();
+
+    // Find the first order summaries in the order of the pageable, without counting them
+    @Query(SELECT_SUMMARY)
+    List<OrderSummaryDTO> findSummaries(Pageable pageable);
+
+    // Find the order summaries that come after the given created date and ID in ascending order, without counting them
+    @Query(SELECT_SUMMARY + " WHERE o.createdDate > :createdDate OR (o.createdDate = :createdDate AND o.id > :id)")
+    List<OrderSummaryDTO> findSummariesAfter(LocalDate createdDate, Integer id, Pageable pageable);
+
+    // Find the order summaries that come after the given created date and ID in descending order, without counting them
+    @Query(SELECT_SUMMARY + " WHERE o.createdDate < :createdDate OR (o.createdDate = :createdDate AND o.id < :id)")
+    List<OrderSummaryDTO> findSummariesBefore(LocalDate createdDate, Integer id, Pageable pageable);
 
 }
@@ -1,8 +1,10 @@
 package online.demo.api.repositories;
 
+import online.demo.api.dto.RepairCostSummaryDTO;
 import online.demo.api.entities.Order;
 import online.demo.api.entities.RepairCost;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -14,4 +16,9 @@ public interface RepairCostRepository extends JpaRepository<RepairCost, Integer>
 
     // Finds repair costs by the amount
     List<RepairCost> findByAmount(BigDecimal amount);
+
+    // Finds the repair costs of an order by its ID, without loading the order itself again
+    @Query("SELECT new online.demo.api.dto.RepairCostSummaryDTO(r.id, r.description, r.amount) " +
+            "FROM RepairCost r WHERE r.order.id = :orderId ORDER BY r.id")
+    List<RepairCostSummaryDTO> findSummariesByOrderId(Integer orderId);
 }
@@ -5,9 +5,11 @@ import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import online.demo.api.entities.ApplianceModel;
 import online.demo.api.entities.specs.ApplianceModelSpecification;
+import online.demo.api.events.ApplianceModelChangedEvent;
 import online.demo.api.exceptions.NotFoundException;
 import online.demo.api.repositories.ApplianceModelRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import jakarta.transaction.Transactional;
@@ -22,6 +24,7 @@ import org.springframework.validation.annotation.Validated;
 public class ApplianceModelService {
 
     private final ApplianceModelRepository applianceModelRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     // Retrieve all appliance models
     public List<ApplianceModel> getAllApplianceModels() {
@@ -73,7 +76,9 @@ public class ApplianceModelService {
     // Save an appliance model
     @Transactional
     public ApplianceModel saveApplianceModel(ApplianceModel applianceModel) {
-        return applianceModelRepository.save(applianceModel);
+        ApplianceModel savedApplianceModel = applianceModelRepository.save(applianceModel);
+        applicationEventPublisher.publishEvent(new ApplianceModelChangedEvent(savedApplianceModel.getId(), savedApplianceModel.getModel()));
+        return savedApplianceModel;
     }
 
     // Update an appliance model
@@ -86,6 +91,8 @@ public class ApplianceModelService {
         if (!applianceModelRepository.existsById(applianceModel.getId())) {
             throw new NotFoundException("ApplianceModel not found with ID: " + applianceModel.getId());
         }
-        return applianceModelRepository.saveAndFlush(applianceModel);
+        ApplianceModel updatedApplianceModel = applianceModelRepository.saveAndFlush(applianceModel);
+        applicationEventPublisher.publishEvent(new ApplianceModelChangedEvent(updatedApplianceModel.getId(), updatedApplianceModel.getModel()));
+        return updatedApplianceModel;
     }
 }
@@ -0,0 +1,46 @@
+package online.demo.api.services;
+
+import lombok.RequiredArgsConstructor;
+import online.demo.api.repositories.ImageBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Keeps image content in the content column of the image_blob table
+@Service
+@ConditionalOnProperty(name = "app.images.store", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class DatabaseImageContentStore implements ImageContentStore {
+
+    private final ImageBlobRepository imageBlobRepository;
+
+    @Override
+    public void put(String checksum, long size, InputStreamSource content) {
+        try (InputStream inputStream = content.getInputStream()) {
+            imageBlobRepository.updateContent(checksum, inputStream, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean copyTo(String checksum, OutputStream outputStream) {
+        return imageBlobRepository.copyContentTo(checksum, outputStream);
+    }
+
+    @Override
+    public boolean copyRangeTo(String checksum, long offset, long length, OutputStream outputStream) {
+        return imageBlobRepository.copyContentRangeTo(checksum, offset, length, outputStream);
+    }
+
+    @Override
+    public void delete(String checksum) {
+        // The content is deleted along with its image_blob row
+    }
+}
@@ -0,0 +1,156 @@
+package online.demo.api.services;
+
+import lombok.RequiredArgsConstructor;
+import online.demo.api.config.ImageProperties;
+import online.demo.api.repositories.ImageBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keeps image content as files under the store directory, sharded by the first characters of the checksum
+@Service
+@ConditionalOnProperty(name = "app.images.store", havingValue = "filesystem")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class FileSystemImageContentStore implements ImageContentStore {
+
+    private final ImageProperties imageProperties;
+    private final ImageBlobRepository imageBlobRepository;
+
+    // Checksums written by transactions that have not completed yet, their files must not be deleted
+    private final Map<String, Integer> pendingWrites = new HashMap<>();
+
+    // Write the content to a temporary file next to its final location and move it into place,
+    // the file is deleted again if the transaction storing it rolls back
+    @Override
+    public void put(String checksum, long size, InputStreamSource content) {
+        Path file = resolve(checksum);
+        trackPendingWrite(checksum);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), checksum, ".tmp");
+            try (InputStream inputStream = content.getInputStream()) {
+                Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Copy the file with FileChannel.transferTo so the content never passes through a byte array of its own size,
+    // content the migration has not moved out of the database yet is read from there
+    @Override
+    public boolean copyTo(String checksum, OutputStream outputStream) {
+        try (FileChannel channel = FileChannel.open(resolve(checksum), StandardOpenOption.READ)) {
+            transfer(channel, 0, channel.size(), outputStream);
+            return true;
+        } catch (NoSuchFileException e) {
+            return imageBlobRepository.copyContentTo(checksum, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Copy only the requested window of the file, starting the transfer at its offset
+    @Override
+    public boolean copyRangeTo(String checksum, long offset, long length, OutputStream outputStream) {
+        try (FileChannel channel = FileChannel.open(resolve(checksum), StandardOpenOption.READ)) {
+            transfer(channel, offset, Math.min(offset + length, channel.size()), outputStream);
+            return true;
+        } catch (NoSuchFileException e) {
+            return imageBlobRepository.copyContentRangeTo(checksum, offset, length, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Delete the file once the transaction releasing it commits, files cannot be rolled back
+    @Override
+    public void delete(String checksum) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteIfUnreferenced(checksum);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteIfUnreferenced(checksum);
+            }
+        });
+    }
+
+    // Private method to transfer the bytes of the channel from the given start up to the given end to the stream
+    private void transfer(FileChannel channel, long start, long end, OutputStream outputStream) throws IOException {
+        WritableByteChannel target = Channels.newChannel(outputStream);
+        long position = start;
+        while (position < end) {
+            position += channel.transferTo(position, end - position, target);
+        }
+    }
+
+    // Private method to resolve the file holding the content with the given checksum
+    private Path resolve(String checksum) {
+        if (checksum == null || !checksum.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid checksum: " + checksum);
+        }
+        return imageProperties.getStoreDir()
+                .resolve(checksum.substring(0, 2))
+                .resolve(checksum.substring(2, 4))
+                .resolve(checksum);
+    }
+
+    // Private method to keep a file from being deleted until the transaction writing it completes
+    private void trackPendingWrite(String checksum) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        synchronized (pendingWrites) {
+            pendingWrites.merge(checksum, 1, Integer::sum);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (pendingWrites) {
+                    pendingWrites.computeIfPresent(checksum, (key, count) -> count > 1 ? count - 1 : null);
+                }
+                if (status == STATUS_ROLLED_BACK) {
+                    deleteIfUnreferenced(checksum);
+                }
+            }
+        });
+    }
+
+    // Private method to delete a file unless it is being written or was referenced again in the meantime
+    private void deleteIfUnreferenced(String checksum) {
+        synchronized (pendingWrites) {
+            if (pendingWrites.containsKey(checksum) || imageBlobRepository.existsById(checksum)) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(resolve(checksum));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package online.demo.api.services;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.entities.ImageVariant;
+import online.demo.api.repositories.ImageBlobRepository;
+import online.demo.api.repositories.ImageVariantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+
+// Content addressed storage for image content, one copy is kept per checksum no matter how many images share it
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImageBlobService {
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageContentStore imageContentStore;
+    private final ImageVariantRepository imageVariantRepository;
+
+    // Add a reference to the content with the given checksum, the content is only read if it is not stored yet
+    @Transactional
+    public void acquire(String checksum, long size, InputStreamSource content) {
+        if (imageBlobRepository.incrementReferenceCount(checksum) > 0) {
+            return;
+        }
+        try {
+            imageBlobRepository.insertBlob(checksum, size);
+        } catch (DuplicateKeyException e) {
+            // The same content was stored concurrently by another upload
+            imageBlobRepository.incrementReferenceCount(checksum);
+            return;
+        }
+        imageContentStore.put(checksum, size, content);
+    }
+
+    // Remove a reference to the content with the given checksum, deleting the content and the variants derived
+    // from it once nothing references it
+    @Transactional
+    public void release(String checksum) {
+        imageBlobRepository.decrementReferenceCount(checksum);
+        if (imageBlobRepository.deleteUnreferenced(checksum) > 0) {
+            imageContentStore.delete(checksum);
+            for (ImageVariant variant : imageVariantRepository.findBySourceChecksum(checksum)) {
+                imageVariantRepository.delete(variant);
+                if (variant.getChecksum() != null) {
+                    release(variant.getChecksum());
+                }
+            }
+        }
+    }
+
+    // Write the content with the given checksum to the given stream, returns false if it is not stored
+    public boolean writeContent(String checksum, OutputStream outputStream) {
+        return imageContentStore.copyTo(checksum, outputStream);
+    }
+
+    // Write the given window of the content with the given checksum to the given stream, returns false if it is not stored
+    public boolean writeContent(String checksum, long offset, long length, OutputStream outputStream) {
+        return imageContentStore.copyRangeTo(checksum, offset, length, outputStream);
+    }
+}
@@ -0,0 +1,150 @@
+package online.demo.api.services;
+
+import lombok.RequiredArgsConstructor;
+import online.demo.api.config.ImageProperties;
+import online.demo.api.repositories.ImageBlobRepository;
+import online.demo.api.repositories.ImageRepository;
+import online.demo.api.util.ChecksumUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.List;
+
+// Moves image content still held in the database into the configured ImageContentStore, one transaction per batch
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImageContentMigrationService {
+
+    private final ImageRepository imageRepository;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageBlobService imageBlobService;
+    private final ImageContentStore imageContentStore;
+    private final ImageProperties imageProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    // Move the content of images written before content was shared by checksum, returns the number of images moved
+    public int migrateLegacyContent() {
+        Pageable batch = PageRequest.of(0, imageProperties.getMigrationBatchSize());
+        int migrated = 0;
+        Integer afterId = 0;
+        List<Integer> ids;
+        do {
+            ids = imageRepository.findIdsWithLegacyContent(afterId, batch);
+            List<Integer> batchIds = ids;
+            Integer moved = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Integer id : batchIds) {
+                    if (migrateImage(id)) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            migrated += moved == null ? 0 : moved;
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batch.getPageSize());
+        return migrated;
+    }
+
+    // Move shared content from the image_blob table to the filesystem store, returns the number of blobs moved
+    public int migrateBlobContent() {
+        if (imageProperties.getStore() == ImageProperties.Store.DATABASE) {
+            return 0;
+        }
+        Pageable batch = PageRequest.of(0, imageProperties.getMigrationBatchSize());
+        int migrated = 0;
+        String afterChecksum = "";
+        List<String> checksums;
+        do {
+            checksums = imageBlobRepository.findChecksumsWithContent(afterChecksum, batch);
+            List<String> batchChecksums = checksums;
+            Integer moved = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (String checksum : batchChecksums) {
+                    if (migrateBlob(checksum)) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            migrated += moved == null ? 0 : moved;
+            if (!checksums.isEmpty()) {
+                afterChecksum = checksums.get(checksums.size() - 1);
+            }
+        } while (checksums.size() == batch.getPageSize());
+        return migrated;
+    }
+
+    // Private method to stage the legacy content of an image, store it by checksum and point the image at it
+    private boolean migrateImage(Integer id) {
+        return withTempFile(tempFile -> {
+            MessageDigest digest = ChecksumUtil.newDigest();
+            try (OutputStream outputStream = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+                if (!imageRepository.copyContentTo(id, outputStream)) {
+                    return false;
+                }
+            }
+            String checksum = ChecksumUtil.toHex(digest);
+            long size = Files.size(tempFile);
+            imageBlobService.acquire(checksum, size, new FileSystemResource(tempFile));
+            imageRepository.moveContentToBlob(id, checksum, size);
+            return true;
+        });
+    }
+
+    // Private method to stage shared content held in the database, put it in the store and drop it from the database
+    private boolean migrateBlob(String checksum) {
+        return withTempFile(tempFile -> {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                if (!imageBlobRepository.copyContentTo(checksum, outputStream)) {
+                    return false;
+                }
+            }
+            imageContentStore.put(checksum, Files.size(tempFile), new FileSystemResource(tempFile));
+            imageBlobRepository.clearContent(checksum);
+            return true;
+        });
+    }
+
+    // Private method to run a migration step against a temporary file that is always deleted afterwards
+    private boolean withTempFile(TempFileStep step) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("image-migration", ".tmp");
+            return step.apply(tempFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    // Private method to delete a temporary file without hiding the original failure
+    private void deleteQuietly(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException ignored) {
+            // A leftover temporary file does not affect the migration
+        }
+    }
+
+    private interface TempFileStep {
+        boolean apply(Path tempFile) throws IOException;
+    }
+}
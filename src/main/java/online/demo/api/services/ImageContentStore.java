@@ -0,0 +1,21 @@
+package online.demo.api.services;
+
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.OutputStream;
+
+// Keeps image content addressed by its checksum, the implementation is chosen with the app.images.store property
+public interface ImageContentStore {
+
+    // Store the content with the given checksum and size, called once per checksum by ImageBlobService
+    void put(String checksum, long size, InputStreamSource content);
+
+    // Write the content with the given checksum to the given stream, returns false if it is not stored
+    boolean copyTo(String checksum, OutputStream outputStream);
+
+    // Write the given window of the content with the given checksum to the given stream, returns false if it is not stored
+    boolean copyRangeTo(String checksum, long offset, long length, OutputStream outputStream);
+
+    // Delete the content with the given checksum once nothing references it
+    void delete(String checksum);
+}
@@ -0,0 +1,158 @@
+package online.demo.api.services;
+
+import jakarta.annotation.PreDestroy;
+import online.demo.api.config.ImageProperties;
+import online.demo.api.dto.ImageOptimizationStatsDTO;
+import online.demo.api.dto.ImageSummaryDTO;
+import online.demo.api.events.ImageContentChangedEvent;
+import online.demo.api.repositories.ImageRepository;
+import online.demo.api.util.ChecksumUtil;
+import online.demo.api.util.ImageProcessingUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Re-encodes uploaded JPEG and PNG images in the background, scaling down large photos and dropping their metadata,
+// and swaps the optimized content in if it is smaller
+@Service
+public class ImageOptimizationService {
+
+    // Re-encoding that saves less than this share of the size is not worth replacing the content,
+    // this also keeps already optimized JPEGs from being re-encoded again and again
+    private static final double MIN_SAVING = 0.1;
+
+    private final ImageRepository imageRepository;
+    private final ImageBlobService imageBlobService;
+    private final ImageProperties imageProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    // Bounded pool so a burst of uploads cannot hold more than a few decoded images in memory at once
+    private final ExecutorService executor;
+
+    private final LongAdder optimizedImages = new LongAdder();
+    private final LongAdder skippedImages = new LongAdder();
+    private final LongAdder failedImages = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    @Autowired
+    public ImageOptimizationService(ImageRepository imageRepository, ImageBlobService imageBlobService,
+                                    ImageProperties imageProperties, TransactionTemplate transactionTemplate) {
+        this.imageRepository = imageRepository;
+        this.imageBlobService = imageBlobService;
+        this.imageProperties = imageProperties;
+        this.transactionTemplate = transactionTemplate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(imageProperties.getOptimizeThreads(), imageProperties.getOptimizeThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(imageProperties.getOptimizeQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-optimization-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Queue an image for optimization once the transaction saving its content commits
+    @TransactionalEventListener
+    public void onImageContentChanged(ImageContentChangedEvent event) {
+        if (!imageProperties.isOptimize()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    optimizeImage(event.getImageId(), event.getChecksum());
+                } catch (RuntimeException e) {
+                    failedImages.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            skippedImages.increment();
+        }
+    }
+
+    // Optimize the content of an image, returns false if it was left as it is
+    public boolean optimizeImage(Integer imageId, String checksum) {
+        Optional<ImageSummaryDTO> image = imageRepository.findSummaryById(imageId);
+        if (image.isEmpty() || !checksum.equals(image.get().getChecksum()) || !isSupported(image.get().getMime())) {
+            skippedImages.increment();
+            return false;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        if (!imageBlobService.writeContent(checksum, content)) {
+            skippedImages.increment();
+            return false;
+        }
+        byte[] original = content.toByteArray();
+        byte[] optimized = reencode(original, image.get().getMime());
+        if (optimized == null || optimized.length > original.length * (1 - MIN_SAVING)) {
+            skippedImages.increment();
+            return false;
+        }
+        if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> replaceContent(imageId, checksum, optimized)))) {
+            skippedImages.increment();
+            return false;
+        }
+        optimizedImages.increment();
+        bytesSaved.add(original.length - optimized.length);
+        return true;
+    }
+
+    // Retrieve the optimization counters since startup
+    public ImageOptimizationStatsDTO getStats() {
+        return new ImageOptimizationStatsDTO(optimizedImages.sum(), skippedImages.sum(), failedImages.sum(), bytesSaved.sum());
+    }
+
+    // Stop accepting images on shutdown, queued ones keep their content as uploaded
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Private method to check whether images of the given MIME type are optimized
+    private boolean isSupported(String mime) {
+        return "image/jpeg".equals(mime) || "image/png".equals(mime);
+    }
+
+    // Private method to re-encode an image in its own format, decoding drops all metadata,
+    // so JPEGs are first turned upright according to their EXIF orientation. Null if the image cannot be decoded
+    private byte[] reencode(byte[] original, String mime) {
+        BufferedImage image = ImageProcessingUtil.read(original, imageProperties.getMaxPixels());
+        if (image == null) {
+            return null;
+        }
+        image = ImageProcessingUtil.fit(image, imageProperties.getOptimizeMaxDimension());
+        if ("image/png".equals(mime)) {
+            return ImageProcessingUtil.write(image, "png");
+        }
+        image = ImageProcessingUtil.orient(image, ImageProcessingUtil.exifOrientation(original));
+        return ImageProcessingUtil.writeJpeg(image, imageProperties.getOptimizeQuality());
+    }
+
+    // Private method to point the image at the optimized content, unless it was changed or deleted in the meantime
+    private boolean replaceContent(Integer imageId, String checksum, byte[] optimized) {
+        String optimizedChecksum = ChecksumUtil.sha256Hex(optimized);
+        String originalChecksum = imageProperties.isKeepOriginals() ? checksum : null;
+        if (imageRepository.replaceContent(imageId, checksum, optimizedChecksum, (long) optimized.length, originalChecksum, Instant.now()) == 0) {
+            return false;
+        }
+        imageBlobService.acquire(optimizedChecksum, optimized.length, new ByteArrayResource(optimized));
+        if (originalChecksum == null) {
+            imageBlobService.release(checksum);
+        }
+        return true;
+    }
+}
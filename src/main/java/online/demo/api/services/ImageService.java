@@ -3,14 +3,32 @@ package online.demo.api.services;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.ImageSummaryDTO;
 import online.demo.api.entities.Image;
+import online.demo.api.events.ImageContentChangedEvent;
 import online.demo.api.exceptions.NotFoundException;
 import online.demo.api.repositories.ImageRepository;
+import online.demo.api.util.ChecksumUtil;
+import online.demo.api.util.PageableUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Validated
@@ -18,36 +36,128 @@ import java.util.List;
 public class ImageService {
 
     private final ImageRepository imageRepository;
+    private final ImageBlobService imageBlobService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PagingProperties pagingProperties;
 
-    // Retrieve all images
-    public List<Image> getAllImages() {
-        return imageRepository.findAll();
+    // Retrieve the metadata of all images, content is served by the content endpoint of each image
+    public List<ImageSummaryDTO> getAllImages() {
+        return imageRepository.findAllSummaries();
     }
 
-    // Retrieve an image by its ID
+    // Retrieve a page of image metadata without loading any content
+    public Page<ImageSummaryDTO> getImageCatalog(Integer page, Integer size, String sortBy, String sortDirection) {
+        Pageable pageable = PageableUtil.createPageable(page, size, sortBy, sortDirection, "id", pagingProperties.getMaxPageSize());
+        return imageRepository.findAllSummaries(pageable);
+    }
+
+    // Retrieve an image by its ID, with its content inline
     public Image getImageById(@NotNull(message = "ID cannot be null") Integer id) {
-        return imageRepository.findById(id)
+        Image image = imageRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Image not found with ID: " + id));
+        if (image.getContent() == null && image.getChecksum() != null) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            imageBlobService.writeContent(image.getChecksum(), content);
+            image.setContent(content.toByteArray());
+        }
+        return image;
+    }
+
+    // Retrieve the metadata of an image without loading its content
+    public ImageSummaryDTO getImageSummary(@NotNull(message = "ID cannot be null") Integer id) {
+        return imageRepository.findSummaryById(id)
                 .orElseThrow(() -> new NotFoundException("Image not found with ID: " + id));
     }
 
-    // Save a new image with validation
+    // Write the content of an image to the given stream without loading it into memory
+    public void writeImageContent(@NotNull(message = "ID cannot be null") Integer id, OutputStream outputStream) {
+        Optional<String> checksum = imageRepository.findBlobChecksumById(id);
+        boolean found = checksum.isPresent()
+                ? imageBlobService.writeContent(checksum.get(), outputStream)
+                : imageRepository.copyContentTo(id, outputStream);
+        if (!found) {
+            throw new NotFoundException("Image not found with ID: " + id);
+        }
+    }
+
+    // Write the given window of the content of an image to the given stream, only that window is read from storage
+    public void writeImageContent(@NotNull(message = "ID cannot be null") Integer id, long offset, long length, OutputStream outputStream) {
+        Optional<String> checksum = imageRepository.findBlobChecksumById(id);
+        boolean found = checksum.isPresent()
+                ? imageBlobService.writeContent(checksum.get(), offset, length, outputStream)
+                : imageRepository.copyContentRangeTo(id, offset, length, outputStream);
+        if (!found) {
+            throw new NotFoundException("Image not found with ID: " + id);
+        }
+    }
+
+    // Save a new image with validation, its content is stored once per checksum
     @Transactional
     public Image saveImage(Image image) {
-        return imageRepository.save(image);
+        if (image.getContent() == null || image.getContent().length == 0) {
+            throw new IllegalArgumentException("Content cannot be empty");
+        }
+        storeContent(image, image.getContent());
+        Image savedImage = imageRepository.save(image);
+        applicationEventPublisher.publishEvent(new ImageContentChangedEvent(savedImage.getId(), savedImage.getChecksum()));
+        return savedImage;
     }
 
-    // Update an existing image with validation
+    // Save a new image whose content is read from a staged file instead of being held in memory
+    @Transactional
+    public Image saveImageContent(String name, String mime, Path content) {
+        Image image = new Image();
+        image.setName(name);
+        image.setMime(mime);
+        try (InputStream inputStream = Files.newInputStream(content)) {
+            image.setSize(Files.size(content));
+            image.setChecksum(ChecksumUtil.sha256Hex(inputStream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        imageBlobService.acquire(image.getChecksum(), image.getSize(), new FileSystemResource(content));
+        Image savedImage = imageRepository.saveAndFlush(image);
+        applicationEventPublisher.publishEvent(new ImageContentChangedEvent(savedImage.getId(), savedImage.getChecksum()));
+        return savedImage;
+    }
+
+    // Update an existing image with validation, its content is only replaced if new content is sent
     @Transactional
     public Image updateImage(Image image) {
-        if (!imageRepository.existsById(image.getId())) {
-            throw new NotFoundException("Image not found with ID: " + image.getId());
+        Image existingImage = imageRepository.findById(image.getId())
+                .orElseThrow(() -> new NotFoundException("Image not found with ID: " + image.getId()));
+        existingImage.setName(image.getName());
+        existingImage.setMime(image.getMime());
+        if (image.getContent() != null && image.getContent().length > 0) {
+            String previousChecksum = existingImage.getContent() == null ? existingImage.getChecksum() : null;
+            storeContent(existingImage, image.getContent());
+            if (previousChecksum != null) {
+                imageBlobService.release(previousChecksum);
+            }
+            if (existingImage.getOriginalChecksum() != null) {
+                imageBlobService.release(existingImage.getOriginalChecksum());
+                existingImage.setOriginalChecksum(null);
+            }
+            applicationEventPublisher.publishEvent(new ImageContentChangedEvent(existingImage.getId(), existingImage.getChecksum()));
         }
-        return imageRepository.saveAndFlush(image);
+        return imageRepository.saveAndFlush(existingImage);
     }
 
-    // Delete an image by its ID
+    // Delete an image by its ID, releasing its content and the original it was optimized from
     @Transactional
     public void deleteImageById(@NotNull(message = "ID cannot be null") Integer id) {
+        Optional<String> checksum = imageRepository.findBlobChecksumById(id);
+        Optional<String> originalChecksum = imageRepository.findOriginalChecksumById(id);
         imageRepository.deleteById(id);
+        checksum.ifPresent(imageBlobService::release);
+        originalChecksum.ifPresent(imageBlobService::release);
+    }
+
+    // Private method to point an image at the stored copy of the given content
+    private void storeContent(Image image, byte[] content) {
+        image.setSize((long) content.length);
+        image.setChecksum(ChecksumUtil.sha256Hex(content));
+        imageBlobService.acquire(image.getChecksum(), image.getSize(), new ByteArrayResource(content));
+        image.setContent(null);
     }
 }
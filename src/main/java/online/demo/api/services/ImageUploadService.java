@@ -0,0 +1,261 @@
+package online.demo.api.services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.config.ImageProperties;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.ImageUpload;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.repositories.ImageUploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@Service
+@Validated
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ImageUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ImageUploadRepository imageUploadRepository;
+    private final ImageService imageService;
+    private final ImageProperties imageProperties;
+
+    // Thread expiring abandoned uploads, null until the application is ready or if the cleanup is disabled
+    private ScheduledExecutorService cleaner;
+
+    // Start a chunked upload with an empty staging file
+    @Transactional
+    public ImageUpload startUpload(ImageUpload upload) {
+        upload.setId(UUID.randomUUID().toString());
+        try {
+            Files.createDirectories(imageProperties.getUploadDir());
+            Files.createFile(stagingFile(upload.getId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ImageUpload savedUpload = imageUploadRepository.save(upload);
+        savedUpload.setReceivedBytes(0L);
+        return savedUpload;
+    }
+
+    // Retrieve a chunked upload with the number of bytes received so far
+    public ImageUpload getUpload(@NotNull(message = "ID cannot be null") String id) {
+        ImageUpload upload = imageUploadRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Image upload not found with ID: " + id));
+        upload.setReceivedBytes(receivedBytes(id));
+        return upload;
+    }
+
+    // Append a chunk to an upload, the offset must match the bytes received so far so that a retried chunk is never written twice.
+    // The upload row is locked while the chunk is written, so a commit of the upload waits for it instead of storing
+    // content that is still growing
+    @Transactional
+    public ImageUpload appendChunk(@NotNull(message = "ID cannot be null") String id, long offset, InputStream chunk) {
+        ImageUpload upload = imageUploadRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("Image upload not found with ID: " + id));
+        long maxSize = imageProperties.getMaxSize().toBytes();
+        try (FileChannel channel = FileChannel.open(stagingFile(id), StandardOpenOption.WRITE)) {
+            // Released when the channel is closed
+            channel.lock();
+            long received = channel.size();
+            if (offset != received) {
+                throw new IllegalArgumentException("Chunk offset " + offset + " does not match the " + received + " bytes received so far");
+            }
+            channel.position(received);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            int read;
+            while ((read = chunk.read(buffer.array())) != -1) {
+                if (channel.position() + read > maxSize) {
+                    channel.truncate(received);
+                    throw new IllegalArgumentException("Image exceeds the maximum size of " + maxSize + " bytes");
+                }
+                buffer.limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            upload.setReceivedBytes(channel.size());
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("Staged content not found for image upload with ID: " + id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return upload;
+    }
+
+    // Commit an upload, persisting the staged content as a new image. The upload row is locked and deleted in the same
+    // transaction that saves the image, so a concurrent or retried commit waits and then finds the upload gone instead
+    // of saving the content a second time
+    @Transactional
+    public Image commitUpload(@NotNull(message = "ID cannot be null") String id) {
+        ImageUpload upload = imageUploadRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("Image upload not found with ID: " + id));
+        if (receivedBytes(id) == 0) {
+            throw new IllegalArgumentException("Content cannot be empty");
+        }
+        imageUploadRepository.delete(upload);
+        Image image = imageService.saveImageContent(upload.getName(), upload.getMime(), stagingFile(id));
+        deleteStagingFileAfterCommit(id);
+        return image;
+    }
+
+    // Abort an upload, discarding its staged content
+    @Transactional
+    public void abortUpload(@NotNull(message = "ID cannot be null") String id) {
+        imageUploadRepository.deleteById(id);
+        deleteStagingFile(id);
+    }
+
+    // Discard the uploads started longer ago than the upload expiry and their staged content, along with staging files
+    // left without an upload, such as those of a multipart upload interrupted by a shutdown
+    public void expireUploads() {
+        Duration expiry = imageProperties.getUploadExpiry();
+        for (ImageUpload upload : imageUploadRepository.findByCreatedAtBefore(LocalDateTime.now().minus(expiry))) {
+            // Waits for a chunk being written or a commit in progress, a committed upload is already gone
+            imageUploadRepository.deleteById(upload.getId());
+            deleteStagingFile(upload.getId());
+        }
+        Instant cutoff = Instant.now().minus(expiry);
+        try (Stream<Path> files = Files.list(imageProperties.getUploadDir())) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(".part")).toList()) {
+                String id = file.getFileName().toString().replaceFirst("\\.part$", "");
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && !imageUploadRepository.existsById(id)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing was ever staged
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Start expiring abandoned uploads periodically once the application is ready
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Duration interval = imageProperties.getUploadCleanupInterval();
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-upload-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::cleanUp, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Stop expiring uploads on shutdown
+    @PreDestroy
+    public void shutdown() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    // Save an image sent as a multipart file, which the servlet container has already staged on disk
+    public Image saveMultipartImage(MultipartFile file, String name) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Content cannot be empty");
+        }
+        if (file.getSize() > imageProperties.getMaxSize().toBytes()) {
+            throw new IllegalArgumentException("Image exceeds the maximum size of " + imageProperties.getMaxSize().toBytes() + " bytes");
+        }
+        Path stagingFile = stagingFile(UUID.randomUUID().toString());
+        try {
+            Files.createDirectories(imageProperties.getUploadDir());
+            file.transferTo(stagingFile);
+            String imageName = (name == null || name.isEmpty()) ? file.getOriginalFilename() : name;
+            return imageService.saveImageContent(imageName, file.getContentType(), stagingFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(stagingFile);
+            } catch (IOException ignored) {
+                // A leftover staging file is harmless, it is only ever read by this request
+            }
+        }
+    }
+
+    // Private method to run a periodic cleanup, a failed one is retried at the next interval
+    private void cleanUp() {
+        try {
+            expireUploads();
+        } catch (RuntimeException e) {
+            logger.warn("Could not expire abandoned image uploads", e);
+        }
+    }
+
+    // Private method to read the number of bytes staged for an upload
+    private long receivedBytes(String id) {
+        try {
+            return Files.size(stagingFile(id));
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("Staged content not found for image upload with ID: " + id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Private method to delete the staging file of an upload once the transaction committing it commits, a rolled back
+    // commit keeps the file so that it can be retried
+    private void deleteStagingFileAfterCommit(String id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteStagingFile(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteStagingFile(id);
+            }
+        });
+    }
+
+    // Private method to delete the staging file of an upload
+    private void deleteStagingFile(String id) {
+        try {
+            Files.deleteIfExists(stagingFile(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Private method to resolve the staging file of an upload
+    private Path stagingFile(String id) {
+        return imageProperties.getUploadDir().resolve(id + ".part");
+    }
+}
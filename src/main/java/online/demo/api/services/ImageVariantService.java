@@ -0,0 +1,151 @@
+package online.demo.api.services;
+
+import online.demo.api.config.ImageProperties;
+import online.demo.api.dto.ImageThumbnailDTO;
+import online.demo.api.entities.ImageVariant;
+import online.demo.api.repositories.ImageRepository;
+import online.demo.api.repositories.ImageVariantRepository;
+import online.demo.api.util.ChecksumUtil;
+import online.demo.api.util.ImageProcessingUtil;
+import online.demo.api.util.SizeBoundedLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Scaled down copies of images, generated once per source content and width and kept in the ImageBlob store,
+// recently served ones are also kept in memory
+@Service
+public class ImageVariantService {
+
+    private final ImageRepository imageRepository;
+    private final ImageVariantRepository imageVariantRepository;
+    private final ImageBlobService imageBlobService;
+    private final ImageProperties imageProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    // Keyed by source checksum and width, so an entry can never be stale for the content it was derived from
+    private final SizeBoundedLruCache<String, ImageThumbnailDTO> thumbnailCache;
+
+    // Thumbnails generated at the same time, each one holds its decoded source image in memory
+    private final Semaphore generationPermits;
+
+    @Autowired
+    public ImageVariantService(ImageRepository imageRepository, ImageVariantRepository imageVariantRepository,
+                               ImageBlobService imageBlobService, ImageProperties imageProperties,
+                               TransactionTemplate transactionTemplate) {
+        this.imageRepository = imageRepository;
+        this.imageVariantRepository = imageVariantRepository;
+        this.imageBlobService = imageBlobService;
+        this.imageProperties = imageProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.thumbnailCache = new SizeBoundedLruCache<>(imageProperties.getThumbnailCacheSize().toBytes(),
+                thumbnail -> thumbnail.getContent().length);
+        this.generationPermits = new Semaphore(imageProperties.getThumbnailThreads());
+    }
+
+    // Retrieve a thumbnail of an image at least the requested width wide, empty if the original should be served because
+    // it is already narrow enough or cannot be scaled, or for now because its source could not be read or too many
+    // thumbnails are being generated
+    public Optional<ImageThumbnailDTO> getThumbnail(Integer imageId, Integer requestedWidth) {
+        int width = resolveWidth(requestedWidth);
+        Optional<String> sourceChecksum = imageRepository.findBlobChecksumById(imageId);
+        if (sourceChecksum.isEmpty()) {
+            // Images still holding their own content in the legacy column have no thumbnails
+            return Optional.empty();
+        }
+        String key = sourceChecksum.get() + "@" + width;
+        ImageThumbnailDTO cached = thumbnailCache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        ImageVariant variant = findOrCreateVariant(sourceChecksum.get(), width);
+        if (variant == null || variant.getChecksum() == null) {
+            return Optional.empty();
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream(variant.getSize().intValue());
+        if (!imageBlobService.writeContent(variant.getChecksum(), content)) {
+            return Optional.empty();
+        }
+        ImageThumbnailDTO thumbnail = new ImageThumbnailDTO(variant.getMime(), content.toByteArray());
+        thumbnailCache.put(key, thumbnail);
+        return Optional.of(thumbnail);
+    }
+
+    // Private method to round a requested width up to the nearest configured one, or down to the largest
+    private int resolveWidth(Integer requestedWidth) {
+        if (requestedWidth == null || requestedWidth <= 0) {
+            throw new IllegalArgumentException("Width must be greater than 0");
+        }
+        List<Integer> widths = imageProperties.getThumbnailWidths().stream().sorted().toList();
+        return widths.stream()
+                .filter(width -> width >= requestedWidth)
+                .findFirst()
+                .orElse(widths.get(widths.size() - 1));
+    }
+
+    // Private method to find a stored variant or generate it, null if it cannot be generated for now. When two requests
+    // generate the same variant only the first one is kept and the other reads it back
+    private ImageVariant findOrCreateVariant(String sourceChecksum, int width) {
+        Optional<ImageVariant> variant = imageVariantRepository.findBySourceChecksumAndWidth(sourceChecksum, width);
+        if (variant.isPresent()) {
+            return variant.get();
+        }
+        if (!acquireGenerationPermit()) {
+            return null;
+        }
+        try {
+            // Another request may have generated it while this one waited
+            variant = imageVariantRepository.findBySourceChecksumAndWidth(sourceChecksum, width);
+            if (variant.isPresent()) {
+                return variant.get();
+            }
+            return transactionTemplate.execute(status -> createVariant(sourceChecksum, width));
+        } catch (DataIntegrityViolationException e) {
+            return imageVariantRepository.findBySourceChecksumAndWidth(sourceChecksum, width).orElseThrow(() -> e);
+        } finally {
+            generationPermits.release();
+        }
+    }
+
+    // Private method to wait for a turn to generate a thumbnail, false if none came up in time
+    private boolean acquireGenerationPermit() {
+        try {
+            return generationPermits.tryAcquire(imageProperties.getThumbnailWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Private method to scale the source content down to the given width and store the result. Nothing is stored if the
+    // source could not be read, so it is tried again on the next request
+    private ImageVariant createVariant(String sourceChecksum, int width) {
+        ImageVariant variant = new ImageVariant();
+        variant.setSourceChecksum(sourceChecksum);
+        variant.setWidth(width);
+
+        ByteArrayOutputStream source = new ByteArrayOutputStream();
+        if (!imageBlobService.writeContent(sourceChecksum, source)) {
+            return null;
+        }
+        BufferedImage sourceImage = ImageProcessingUtil.read(source.toByteArray(), imageProperties.getMaxPixels());
+        if (sourceImage != null && sourceImage.getWidth() > width) {
+            boolean opaque = !sourceImage.getColorModel().hasAlpha();
+            byte[] content = ImageProcessingUtil.write(ImageProcessingUtil.scaleToWidth(sourceImage, width), opaque ? "jpg" : "png");
+            variant.setMime(opaque ? "image/jpeg" : "image/png");
+            variant.setSize((long) content.length);
+            variant.setChecksum(ChecksumUtil.sha256Hex(content));
+            imageBlobService.acquire(variant.getChecksum(), variant.getSize(), new ByteArrayResource(content));
+        }
+        return imageVariantRepository.saveAndFlush(variant);
+    }
+}
@@ -0,0 +1,298 @@
+package online.demo.api.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.config.InventoryProperties;
+import online.demo.api.dto.InventoryImportErrorDTO;
+import online.demo.api.dto.InventoryImportResultDTO;
+import online.demo.api.dto.InventoryImportRowDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.Inventory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.repositories.InventoryRepository;
+import online.demo.api.util.CsvUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Imports inventory items from a CSV or NDJSON file as it is read. Rows are validated and inserted in chunks,
+// each in its own transaction, so only one chunk of the file is held in memory however large it is.
+// Rows that cannot be read or validated are reported and skipped, the others are imported
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class InventoryImportService {
+
+    // Columns read from a CSV import, matched by the names in its header row in any order.
+    // Appliance model and image IDs are separated by semicolons, and dates are written as yyyy-MM-dd
+    public static final List<String> CSV_COLUMNS = List.of("serial", "name", "quantityNew", "quantityUsed", "location",
+            "lastPrice", "dateLastPrice", "component", "brand", "compatibleApplianceModelIds", "imageIds");
+
+    private final InventoryRepository inventoryRepository;
+    private final ReferenceValidationService referenceValidationService;
+    private final InventoryService inventoryService;
+    private final InventoryProperties inventoryProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    // Import the inventory items of a file in the given format, returns how many rows were imported and why the others were not
+    public InventoryImportResultDTO importInventory(ExportFormat format, InputStream inputStream) throws IOException {
+        long started = System.nanoTime();
+        InventoryImportResultDTO result = new InventoryImportResultDTO();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = format == ExportFormat.CSV ? readHeader(reader) : Map.of();
+        long row = format == ExportFormat.CSV ? 1 : 0;
+        Map<Long, Inventory> chunk = new LinkedHashMap<>();
+        while (true) {
+            String line = null;
+            List<String> values = null;
+            int maxRowLength = inventoryProperties.getImportMaxRowLength();
+            try {
+                if (format == ExportFormat.CSV) {
+                    values = CsvUtil.readRow(reader, maxRowLength);
+                } else {
+                    line = CsvUtil.readLine(reader, maxRowLength);
+                }
+            } catch (IllegalArgumentException e) {
+                // The row was too long and has been skipped up to the next line break
+                row++;
+                result.setRows(result.getRows() + 1);
+                addError(result, row, null, e.getMessage());
+                continue;
+            }
+            if (values == null && line == null) {
+                break;
+            }
+            row++;
+            if (values != null ? values.size() == 1 && values.get(0).isBlank() : line.isBlank()) {
+                continue;
+            }
+            result.setRows(result.getRows() + 1);
+            try {
+                Inventory inventoryItem = toInventory(values != null ? fromCsv(columns, values) : fromJson(line));
+                validate(inventoryItem);
+                chunk.put(row, inventoryItem);
+            } catch (IllegalArgumentException e) {
+                addError(result, row, values != null ? value(columns, values, "serial") : null, e.getMessage());
+            }
+            if (chunk.size() == inventoryProperties.getImportChunkSize()) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, result);
+        long elapsedNanos = System.nanoTime() - started;
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getRows() * 1_000_000_000.0 / elapsedNanos);
+        return result;
+    }
+
+    // Private method to check the references of a chunk with one query per entity type, then insert the rows
+    // referring only to existing entities in a single transaction, whose inserts Hibernate sends in JDBC batches
+    private void importChunk(Map<Long, Inventory> chunk, InventoryImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<Integer> missingModelIds = referenceValidationService.findMissingIds(ApplianceModel.class, chunk.values().stream()
+                .flatMap(item -> item.getCompatibleApplianceModels().stream().map(ApplianceModel::getId)).toList());
+        Set<Integer> missingImageIds = referenceValidationService.findMissingIds(Image.class, chunk.values().stream()
+                .flatMap(item -> item.getImages().stream().map(Image::getId)).toList());
+
+        Map<Long, Inventory> valid = new LinkedHashMap<>();
+        chunk.forEach((row, item) -> {
+            String missing = item.getCompatibleApplianceModels().stream().map(ApplianceModel::getId)
+                    .filter(missingModelIds::contains).findFirst().map(id -> "Appliance model not found with ID: " + id)
+                    .or(() -> item.getImages().stream().map(Image::getId)
+                            .filter(missingImageIds::contains).findFirst().map(id -> "Image not found with ID: " + id))
+                    .orElse(null);
+            if (missing == null) {
+                valid.put(row, item);
+            } else {
+                addError(result, row, item.getSerial(), missing);
+            }
+        });
+        save(valid, result);
+    }
+
+    // Private method to insert rows in a single transaction. If the database rejects them, the rows are saved again in
+    // two halves, each in its own transaction, until the rows it rejects are isolated and reported one by one
+    private void save(Map<Long, Inventory> rows, InventoryImportResultDTO result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryRepository.saveAll(rows.values()).forEach(inventoryService::publishChange);
+            });
+            result.setImported(result.getImported() + rows.size());
+        } catch (DataAccessException e) {
+            // The rolled back inserts left their generated IDs behind, the rows are inserted again as new ones
+            rows.values().forEach(item -> item.setId(null));
+            if (rows.size() == 1) {
+                Map.Entry<Long, Inventory> row = rows.entrySet().iterator().next();
+                addError(result, row.getKey(), row.getValue().getSerial(), "Could not be saved: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            Map<Long, Inventory> firstHalf = new LinkedHashMap<>();
+            Map<Long, Inventory> secondHalf = new LinkedHashMap<>();
+            rows.forEach((row, item) -> (firstHalf.size() < rows.size() / 2 ? firstHalf : secondHalf).put(row, item));
+            save(firstHalf, result);
+            save(secondHalf, result);
+        }
+    }
+
+    // Private method to count a failed row, listing its error while under the limit
+    private void addError(InventoryImportResultDTO result, long row, String serial, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < inventoryProperties.getImportMaxErrors()) {
+            result.getErrors().add(new InventoryImportErrorDTO(row, serial, message));
+        }
+    }
+
+    // Private method to read the header row of a CSV import into the position of each known column
+    private Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        List<String> header = CsvUtil.readRow(reader, inventoryProperties.getImportMaxRowLength());
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import must start with a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + name + ", expected some of " + CSV_COLUMNS);
+            }
+            columns.put(name, i);
+        }
+        return columns;
+    }
+
+    // Private method to read a CSV row, empty values are read as null
+    private InventoryImportRowDTO fromCsv(Map<String, Integer> columns, List<String> values) {
+        InventoryImportRowDTO row = new InventoryImportRowDTO();
+        try {
+            row.setSerial(value(columns, values, "serial"));
+            row.setName(value(columns, values, "name"));
+            row.setQuantityNew(parse(value(columns, values, "quantityNew"), Integer::valueOf));
+            row.setQuantityUsed(parse(value(columns, values, "quantityUsed"), Integer::valueOf));
+            row.setLocation(value(columns, values, "location"));
+            row.setLastPrice(parse(value(columns, values, "lastPrice"), BigDecimal::new));
+            row.setDateLastPrice(parse(value(columns, values, "dateLastPrice"),
+                    date -> Date.from(LocalDate.parse(date).atStartOfDay(ZoneId.systemDefault()).toInstant())));
+            row.setComponent(parse(value(columns, values, "component"), name -> Component.valueOf(name.toUpperCase(Locale.ROOT))));
+            row.setBrand(parse(value(columns, values, "brand"), name -> Brand.valueOf(name.toUpperCase(Locale.ROOT))));
+            row.setCompatibleApplianceModelIds(parseIds(value(columns, values, "compatibleApplianceModelIds")));
+            row.setImageIds(parseIds(value(columns, values, "imageIds")));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date, expected yyyy-MM-dd: " + e.getParsedString());
+        }
+        return row;
+    }
+
+    // Private method to read an NDJSON line
+    private InventoryImportRowDTO fromJson(String line) {
+        try {
+            return objectMapper.readValue(line, InventoryImportRowDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Private method to find the value of a column in a CSV row, null if the column is missing or the value empty
+    private String value(Map<String, Integer> columns, List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isBlank()) {
+            return null;
+        }
+        return values.get(index).strip();
+    }
+
+    // Private method to parse a CSV value, null stays null
+    private <T> T parse(String value, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value: " + value);
+        }
+    }
+
+    // Private method to parse a semicolon separated list of IDs
+    private List<Integer> parseIds(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(";")).map(String::strip).filter(id -> !id.isEmpty())
+                .map(id -> parse(id, Integer::valueOf)).toList();
+    }
+
+    // Private method to turn an import row into a new inventory item, referring to its appliance models and images by ID
+    private Inventory toInventory(InventoryImportRowDTO row) {
+        Inventory inventoryItem = new Inventory();
+        inventoryItem.setSerial(row.getSerial());
+        inventoryItem.setName(row.getName());
+        inventoryItem.setQuantityNew(row.getQuantityNew());
+        inventoryItem.setQuantityUsed(row.getQuantityUsed());
+        inventoryItem.setLocation(row.getLocation());
+        inventoryItem.setLastPrice(row.getLastPrice());
+        inventoryItem.setDateLastPrice(row.getDateLastPrice());
+        inventoryItem.setComponent(row.getComponent());
+        inventoryItem.setBrand(row.getBrand());
+        List<Integer> modelIds = row.getCompatibleApplianceModelIds() == null ? List.of() : row.getCompatibleApplianceModelIds();
+        List<Integer> imageIds = row.getImageIds() == null ? List.of() : row.getImageIds();
+        if (modelIds.stream().anyMatch(Objects::isNull) || imageIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Appliance model and image IDs cannot be null");
+        }
+        inventoryItem.setCompatibleApplianceModels(modelIds.stream().distinct().map(id -> {
+            ApplianceModel model = new ApplianceModel();
+            model.setId(id);
+            return model;
+        }).collect(Collectors.toCollection(ArrayList::new)));
+        inventoryItem.setImages(imageIds.stream().distinct().map(id -> {
+            Image image = new Image();
+            image.setId(id);
+            return image;
+        }).collect(Collectors.toCollection(ArrayList::new)));
+        return inventoryItem;
+    }
+
+    // Private method to validate an inventory item as a single save would, except for its references
+    private void validate(Inventory inventoryItem) {
+        Set<ConstraintViolation<Inventory>> violations = validator.validate(inventoryItem);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream().map(ConstraintViolation::getMessage)
+                    .filter(Objects::nonNull).sorted().collect(Collectors.joining(", ")));
+        }
+        inventoryService.validateInventoryValues(inventoryItem);
+    }
+}
@@ -0,0 +1,686 @@
+package online.demo.api.services;
+
+import jakarta.annotation.PreDestroy;
+import online.demo.api.config.InventoryProperties;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.InventoryIndexEntryDTO;
+import online.demo.api.dto.InventoryFacetsDTO;
+import online.demo.api.dto.InventoryModelLinkDTO;
+import online.demo.api.dto.PriceBucketCountDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Inventory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.events.ApplianceModelChangedEvent;
+import online.demo.api.events.InventoryChangedEvent;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.repositories.ApplianceModelRepository;
+import online.demo.api.repositories.InventoryRepository;
+import online.demo.api.util.PageableUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Keeps which inventory items fit each appliance model, the values the faceted search counts and the trigrams of
+// names and serials in memory, so compatibility lookups do not scan the join table, facet counts do not need
+// a GROUP BY per facet and substring searches do not scan the table with LIKE '%x%'.
+// Every item gets a slot, a small number handed out in the order items are first seen. The items of each model,
+// facet value and trigram are a bitmap over those slots, and the values of each slot are kept in arrays
+@Service
+public class InventoryIndexService {
+
+    private static final Component[] COMPONENTS = Component.values();
+    private static final Brand[] BRANDS = Brand.values();
+
+    // Share of the characters of a search text that can be mistyped, at least one, for an item to be a close match
+    private static final double MAX_TYPO_SHARE = 0.25;
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryIndexService.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final ApplianceModelRepository applianceModelRepository;
+
+    // Lower bounds of the price buckets, in ascending order
+    private final List<BigDecimal> priceBounds;
+
+    // Largest page served, larger requested sizes are reduced to it
+    private final int maxPageSize;
+
+    // Lookups share the read lock, changes take the write lock since bitmaps are not safe to change while read
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Changes applied while a rebuild reads the database, null while none is. The snapshot it reads may predate them,
+    // so they are applied again on top of it. Applying a change twice leaves the same state, every change sets the
+    // values an item has now
+    private List<Runnable> changesDuringRebuild;
+
+    // Interval of the periodic rebuilds picking up the changes made by other instances or outside InventoryService
+    private final Duration refreshInterval;
+
+    // Thread running the periodic rebuilds, null until the application is ready or if they are disabled
+    private ScheduledExecutorService refresher;
+
+    // Inventory ID held by each slot, slots are never reused since items are not deleted
+    private long[] idsBySlot = new long[64];
+    private int slotCount;
+
+    // Facet values of each slot: the component and brand ordinals, the location code and the price bucket, -1 if none
+    private byte[] componentBySlot = new byte[64];
+    private byte[] brandBySlot = new byte[64];
+    private int[] locationBySlot = new int[64];
+    private byte[] priceBucketBySlot = new byte[64];
+
+    // Lower case serial and name of each slot, used to verify the candidates found through trigrams
+    private String[] serialBySlot = new String[64];
+    private String[] nameBySlot = new String[64];
+
+    // Slots of the items whose serial, or name, contains each trigram, a run of three characters in lower case
+    private final Map<String, BitSet> slotsBySerialTrigram = new HashMap<>();
+    private final Map<String, BitSet> slotsByNameTrigram = new HashMap<>();
+
+    // Slot of each inventory ID
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+
+    // Slots of the items compatible with each appliance model, by model ID
+    private final Map<Integer, BitSet> slotsByModel = new HashMap<>();
+
+    // Lower case model name of each appliance model, by model ID
+    private final Map<Integer, String> modelNames = new HashMap<>();
+
+    // Slots of the items with each facet value, by component ordinal, brand ordinal, location code and price bucket
+    private final BitSet[] slotsByComponent = new BitSet[COMPONENTS.length];
+    private final BitSet[] slotsByBrand = new BitSet[BRANDS.length];
+    private final List<BitSet> slotsByLocation = new ArrayList<>();
+    private final BitSet[] slotsByPriceBucket;
+
+    // Locations by code and codes by location, codes are handed out in the order locations are first seen
+    private final List<String> locations = new ArrayList<>();
+    private final Map<String, Integer> locationCodes = new HashMap<>();
+
+    @Autowired
+    public InventoryIndexService(InventoryRepository inventoryRepository, ApplianceModelRepository applianceModelRepository,
+                                 InventoryProperties inventoryProperties, PagingProperties pagingProperties) {
+        this.inventoryRepository = inventoryRepository;
+        this.applianceModelRepository = applianceModelRepository;
+        this.priceBounds = inventoryProperties.getFacetPriceBounds().stream().sorted().toList();
+        this.refreshInterval = inventoryProperties.getIndexRefreshInterval();
+        this.maxPageSize = pagingProperties.getMaxPageSize();
+        this.slotsByPriceBucket = new BitSet[priceBounds.size() + 1];
+        clearFacets();
+    }
+
+    // Load the index from the database once the application is ready, then reload it periodically
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        if (refreshInterval == null || refreshInterval.isZero() || refreshInterval.isNegative()) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-index-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Stop the periodic rebuilds on shutdown
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // Load the index from the database, replacing its content. The database is read without holding the lock so lookups
+    // go on meanwhile, and the changes committed during the read are applied again once the snapshot is in place
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<InventoryIndexEntryDTO> items;
+        List<InventoryModelLinkDTO> links;
+        List<ApplianceModel> models;
+        try {
+            items = inventoryRepository.findAllIndexEntries();
+            links = inventoryRepository.findAllModelLinks();
+            models = applianceModelRepository.findAll();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(64, items.size());
+            idsBySlot = new long[capacity];
+            componentBySlot = new byte[capacity];
+            brandBySlot = new byte[capacity];
+            locationBySlot = new int[capacity];
+            priceBucketBySlot = new byte[capacity];
+            serialBySlot = new String[capacity];
+            nameBySlot = new String[capacity];
+            slotCount = 0;
+            slotsById.clear();
+            slotsByModel.clear();
+            modelNames.clear();
+            clearFacets();
+            slotsBySerialTrigram.clear();
+            slotsByNameTrigram.clear();
+            for (InventoryIndexEntryDTO item : items) {
+                int slot = slotOf(item.getId());
+                setFacets(slot, item.getComponent(), item.getBrand(), item.getLocation(), item.getLastPrice());
+                setText(slot, item.getSerial(), item.getName());
+            }
+            for (InventoryModelLinkDTO link : links) {
+                slotsByModel.computeIfAbsent(link.getModelId(), modelId -> new BitSet()).set(slotOf(link.getInventoryId()));
+            }
+            models.forEach(model -> modelNames.put(model.getId(), lowerCase(model.getModel())));
+            changesDuringRebuild.forEach(Runnable::run);
+        } finally {
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Move an inventory item to the models it is compatible with, the facet values and the trigrams it has now,
+    // once the transaction saving it commits
+    @TransactionalEventListener
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        apply(() -> {
+            int slot = slotOf(event.getInventoryId());
+            slotsByModel.values().forEach(slots -> slots.clear(slot));
+            for (Integer modelId : event.getModelIds()) {
+                slotsByModel.computeIfAbsent(modelId, id -> new BitSet()).set(slot);
+            }
+            setFacets(slot, event.getComponent(), event.getBrand(), event.getLocation(), event.getLastPrice());
+            setText(slot, event.getSerial(), event.getName());
+        });
+    }
+
+    // Keep the model name used by lookups, once the transaction saving the appliance model commits
+    @TransactionalEventListener
+    public void onApplianceModelChanged(ApplianceModelChangedEvent event) {
+        apply(() -> modelNames.put(event.getModelId(), lowerCase(event.getModel())));
+    }
+
+    // Find the IDs of the inventory items compatible with the appliance models matching the given names, in ascending order.
+    // A name matches every model containing it, ignoring case. With ALL an item must fit a model matching each name,
+    // with ANY a model matching at least one of them
+    public List<Long> findCompatibleIds(List<String> names, ModelMatchMode mode) {
+        List<String> terms = terms(names);
+        lock.readLock().lock();
+        try {
+            return sortedIds(match(terms, mode));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Retrieve a page of the inventory items compatible with the appliance models matching the given names,
+    // ordered by ID. Only the items on the page are loaded from the database
+    public Page<Inventory> getCompatibleInventory(List<String> names, ModelMatchMode mode, Integer page, Integer size) {
+        Pageable pageable = PageableUtil.createPageable(page, size, null, null, "id", maxPageSize);
+        List<Long> ids = findCompatibleIds(names, mode);
+        if (pageable.getOffset() >= ids.size()) {
+            throw new NotFoundException("No inventory items found compatible with these models");
+        }
+        return loadPage(ids, pageable);
+    }
+
+    // Retrieve a page of the inventory items with any of the given values of each facet, ordered by ID,
+    // along with the number of items per value of each facet. A facet without values is not filtered on,
+    // and models are matched as in findCompatibleIds with ALL. The counts of a facet apply the filters of the others only.
+    // An empty page is returned rather than an error, since its counts still tell which filters to loosen
+    public InventoryFacetsDTO getInventoryFacets(List<Component> components, List<Brand> brands, List<String> locations,
+                                                 List<Integer> priceBuckets, List<String> models, Integer page, Integer size) {
+        Pageable pageable = PageableUtil.createPageable(page, size, null, null, "id", maxPageSize);
+        if (priceBuckets != null && priceBuckets.stream().anyMatch(bucket -> bucket == null || bucket < 0 || bucket > priceBounds.size())) {
+            throw new IllegalArgumentException("Price buckets must be between 0 and " + priceBounds.size());
+        }
+        List<String> terms = isEmpty(models) ? null : terms(models);
+        List<Long> ids;
+        InventoryFacetsDTO facets = new InventoryFacetsDTO();
+        lock.readLock().lock();
+        try {
+            BitSet all = new BitSet();
+            all.set(0, slotCount);
+            BitSet modelFilter = terms == null ? null : match(terms, ModelMatchMode.ALL);
+            BitSet componentFilter = isEmpty(components) ? null
+                    : union(components.stream().filter(Objects::nonNull).mapToInt(Enum::ordinal), code -> slotsByComponent[code]);
+            BitSet brandFilter = isEmpty(brands) ? null
+                    : union(brands.stream().filter(Objects::nonNull).mapToInt(Enum::ordinal), code -> slotsByBrand[code]);
+            BitSet locationFilter = isEmpty(locations) ? null
+                    : union(locations.stream().map(locationCodes::get).filter(Objects::nonNull).mapToInt(Integer::intValue), slotsByLocation::get);
+            BitSet priceFilter = isEmpty(priceBuckets) ? null
+                    : union(priceBuckets.stream().mapToInt(Integer::intValue), code -> slotsByPriceBucket[code]);
+
+            long[] componentCounts = count(intersect(all, modelFilter, brandFilter, locationFilter, priceFilter),
+                    COMPONENTS.length, slot -> componentBySlot[slot]);
+            long[] brandCounts = count(intersect(all, modelFilter, componentFilter, locationFilter, priceFilter),
+                    BRANDS.length, slot -> brandBySlot[slot]);
+            long[] locationCounts = count(intersect(all, modelFilter, componentFilter, brandFilter, priceFilter),
+                    this.locations.size(), slot -> locationBySlot[slot]);
+            long[] priceBucketCounts = count(intersect(all, modelFilter, componentFilter, brandFilter, locationFilter),
+                    slotsByPriceBucket.length, slot -> priceBucketBySlot[slot]);
+
+            Map<Component, Long> componentFacet = new EnumMap<>(Component.class);
+            for (int code = 0; code < componentCounts.length; code++) {
+                if (componentCounts[code] > 0) {
+                    componentFacet.put(COMPONENTS[code], componentCounts[code]);
+                }
+            }
+            Map<Brand, Long> brandFacet = new EnumMap<>(Brand.class);
+            for (int code = 0; code < brandCounts.length; code++) {
+                if (brandCounts[code] > 0) {
+                    brandFacet.put(BRANDS[code], brandCounts[code]);
+                }
+            }
+            Map<String, Long> locationFacet = new TreeMap<>();
+            for (int code = 0; code < locationCounts.length; code++) {
+                if (locationCounts[code] > 0) {
+                    locationFacet.put(this.locations.get(code), locationCounts[code]);
+                }
+            }
+            List<PriceBucketCountDTO> priceBucketFacet = new ArrayList<>();
+            for (int bucket = 0; bucket < priceBucketCounts.length; bucket++) {
+                BigDecimal from = bucket == 0 ? BigDecimal.ZERO : priceBounds.get(bucket - 1);
+                BigDecimal to = bucket == priceBounds.size() ? null : priceBounds.get(bucket);
+                priceBucketFacet.add(new PriceBucketCountDTO(bucket, from, to, priceBucketCounts[bucket]));
+            }
+            facets.setComponents(componentFacet);
+            facets.setBrands(brandFacet);
+            facets.setLocations(locationFacet);
+            facets.setPriceBuckets(priceBucketFacet);
+            ids = sortedIds(intersect(all, modelFilter, componentFilter, brandFilter, locationFilter, priceFilter));
+        } finally {
+            lock.readLock().unlock();
+        }
+        facets.setItems(loadPage(ids, pageable));
+        return facets;
+    }
+
+    // Find the IDs of the inventory items whose serial contains the given text, ignoring case, in ascending order
+    public List<Long> findIdsBySerial(String text) {
+        String term = lowerCase(text);
+        lock.readLock().lock();
+        try {
+            return sortedIds(containing(term, serialBySlot, slotsBySerialTrigram));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Find the IDs of the inventory items whose name contains the given text, ignoring case, in ascending order
+    public List<Long> findIdsByName(String text) {
+        String term = lowerCase(text);
+        lock.readLock().lock();
+        try {
+            return sortedIds(containing(term, nameBySlot, slotsByNameTrigram));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Retrieve a page of the inventory items whose serial or name contains the given text, ignoring case.
+    // Serial matches come first, then name matches, each ordered by ID. With fuzzy, items whose serial or name
+    // contains the text with a few typos follow, fewest typos first, so a part is still found when mistyped
+    public Page<Inventory> searchInventory(String text, boolean fuzzy, Integer page, Integer size) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text cannot be empty");
+        }
+        Pageable pageable = PageableUtil.createPageable(page, size, null, null, "id", maxPageSize);
+        String term = lowerCase(text.strip());
+        List<Long> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet serialMatches = containing(term, serialBySlot, slotsBySerialTrigram);
+            BitSet nameMatches = containing(term, nameBySlot, slotsByNameTrigram);
+            nameMatches.andNot(serialMatches);
+            ids.addAll(sortedIds(serialMatches));
+            ids.addAll(sortedIds(nameMatches));
+            if (fuzzy) {
+                serialMatches.or(nameMatches);
+                ids.addAll(closeMatches(term, serialMatches));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (pageable.getOffset() >= ids.size()) {
+            throw new NotFoundException("No inventory items found matching: " + text);
+        }
+        return loadPage(ids, pageable);
+    }
+
+    // Private method to load the items of a page of IDs from the database, keeping the order of the IDs
+    private Page<Inventory> loadPage(List<Long> ids, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        Map<Long, Inventory> items = inventoryRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Inventory::getId, Function.identity()));
+        List<Inventory> content = pageIds.stream().map(items::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    // Private method to check the names of a lookup and bring them to lower case
+    private List<String> terms(List<String> names) {
+        if (names == null || names.isEmpty() || names.stream().anyMatch(name -> name == null || name.isBlank())) {
+            throw new IllegalArgumentException("At least one model name must be provided, and none can be empty");
+        }
+        return names.stream().map(this::lowerCase).toList();
+    }
+
+    // Private method to combine the slots of the models matching each term, must be called holding a lock
+    private BitSet match(List<String> terms, ModelMatchMode mode) {
+        BitSet result = null;
+        for (String term : terms) {
+            BitSet termSlots = new BitSet();
+            modelNames.forEach((modelId, modelName) -> {
+                BitSet modelSlots = slotsByModel.get(modelId);
+                if (modelSlots != null && modelName.contains(term)) {
+                    termSlots.or(modelSlots);
+                }
+            });
+            if (result == null) {
+                result = termSlots;
+            } else if (mode == ModelMatchMode.ANY) {
+                result.or(termSlots);
+            } else {
+                result.and(termSlots);
+            }
+        }
+        return result;
+    }
+
+    // Private method to find the slots whose text contains a lower case term. Candidates are the slots holding every
+    // trigram of the term, or every slot for terms too short to have one, and each is then checked against its text.
+    // Must be called holding a lock
+    private BitSet containing(String term, String[] textBySlot, Map<String, BitSet> slotsByTrigram) {
+        BitSet candidates = new BitSet();
+        candidates.set(0, slotCount);
+        for (String trigram : trigrams(term)) {
+            BitSet slots = slotsByTrigram.get(trigram);
+            if (slots == null) {
+                return new BitSet();
+            }
+            candidates.and(slots);
+        }
+        BitSet result = new BitSet();
+        candidates.stream()
+                .filter(slot -> textBySlot[slot] != null && textBySlot[slot].contains(term))
+                .forEach(result::set);
+        return result;
+    }
+
+    // Private method to find the IDs of the items, other than the excluded ones, whose serial or name contains a lower
+    // case term with a few typos, fewest typos first, then most shared trigrams and ID. Each typo changes at most three
+    // trigrams, so candidates must share the rest before their edit distance is computed. Must be called holding a lock
+    private List<Long> closeMatches(String term, BitSet excluded) {
+        List<String> trigrams = trigrams(term);
+        if (trigrams.isEmpty()) {
+            return List.of();
+        }
+        int maxTypos = Math.max(1, (int) (term.length() * MAX_TYPO_SHARE));
+        int minShared = Math.max(1, trigrams.size() - 3 * maxTypos);
+        int[] shared = new int[slotCount];
+        for (String trigram : trigrams) {
+            BitSet slots = (BitSet) slotsBySerialTrigram.getOrDefault(trigram, new BitSet()).clone();
+            slots.or(slotsByNameTrigram.getOrDefault(trigram, new BitSet()));
+            slots.stream().forEach(slot -> shared[slot]++);
+        }
+        int[] typos = new int[slotCount];
+        return IntStream.range(0, slotCount)
+                .filter(slot -> shared[slot] >= minShared && !excluded.get(slot))
+                .filter(slot -> {
+                    typos[slot] = Math.min(typos(term, serialBySlot[slot]), typos(term, nameBySlot[slot]));
+                    return typos[slot] <= maxTypos;
+                })
+                .boxed()
+                .sorted(Comparator.<Integer>comparingInt(slot -> typos[slot])
+                        .thenComparingInt(slot -> -shared[slot])
+                        .thenComparingLong(slot -> idsBySlot[slot]))
+                .map(slot -> idsBySlot[slot])
+                .toList();
+    }
+
+    // Private method to count the fewest characters to insert, delete or replace for some part of a text to equal a term,
+    // an edit distance where the text before and after that part is free
+    private int typos(String term, String text) {
+        if (text == null) {
+            return Integer.MAX_VALUE;
+        }
+        int[] previous = new int[text.length() + 1];
+        int[] current = new int[text.length() + 1];
+        for (int i = 1; i <= term.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= text.length(); j++) {
+                int replace = previous[j - 1] + (term.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] row = previous;
+            previous = current;
+            current = row;
+        }
+        return Arrays.stream(previous).min().orElse(term.length());
+    }
+
+    // Private method to apply a change under the write lock, keeping it to be applied again if a rebuild is reading
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Private method to run a periodic rebuild, a failed one is retried at the next interval
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the inventory index", e);
+        }
+    }
+
+    // Private method to move a slot to the trigrams of its new serial and name, taking it out of the ones it had.
+    // Must be called holding the write lock
+    private void setText(int slot, String serial, String name) {
+        serialBySlot[slot] = index(slot, serialBySlot[slot], serial == null ? null : lowerCase(serial), slotsBySerialTrigram);
+        nameBySlot[slot] = index(slot, nameBySlot[slot], name == null ? null : lowerCase(name), slotsByNameTrigram);
+    }
+
+    // Private method to move a slot from the trigrams of a previous text to the ones of a new text, returns the new text
+    private String index(int slot, String previousText, String text, Map<String, BitSet> slotsByTrigram) {
+        if (previousText != null) {
+            for (String trigram : trigrams(previousText)) {
+                BitSet slots = slotsByTrigram.get(trigram);
+                slots.clear(slot);
+                if (slots.isEmpty()) {
+                    slotsByTrigram.remove(trigram);
+                }
+            }
+        }
+        if (text != null) {
+            for (String trigram : trigrams(text)) {
+                slotsByTrigram.computeIfAbsent(trigram, key -> new BitSet()).set(slot);
+            }
+        }
+        return text;
+    }
+
+    // Private method to list the distinct trigrams of a text, none for texts shorter than three characters
+    private List<String> trigrams(String text) {
+        return IntStream.rangeClosed(0, text.length() - 3)
+                .mapToObj(start -> text.substring(start, start + 3))
+                .distinct()
+                .toList();
+    }
+
+    // Private method to combine the slots of the given facet values, must be called holding a lock
+    private BitSet union(IntStream codes, IntFunction<BitSet> slotsByCode) {
+        BitSet result = new BitSet();
+        codes.forEach(code -> result.or(slotsByCode.apply(code)));
+        return result;
+    }
+
+    // Private method to keep the slots in all of the given filters, a null filter keeps every slot
+    private BitSet intersect(BitSet all, BitSet... filters) {
+        BitSet result = (BitSet) all.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    // Private method to count the given slots per value of a facet, read from its array. Must be called holding a lock
+    private long[] count(BitSet slots, int values, IntUnaryOperator valueBySlot) {
+        long[] counts = new long[values];
+        slots.stream().map(valueBySlot).filter(value -> value >= 0).forEach(value -> counts[value]++);
+        return counts;
+    }
+
+    // Private method to turn slots into the inventory IDs they hold, in ascending order. Must be called holding a lock
+    private List<Long> sortedIds(BitSet slots) {
+        long[] ids = slots.stream().mapToLong(slot -> idsBySlot[slot]).toArray();
+        Arrays.sort(ids);
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    // Private method to move a slot to the given facet values, taking it out of the bitmaps of the ones it had.
+    // Must be called holding the write lock
+    private void setFacets(int slot, Component component, Brand brand, String location, BigDecimal price) {
+        move(slotsByComponent, componentBySlot[slot], slot, component == null ? -1 : component.ordinal());
+        componentBySlot[slot] = (byte) (component == null ? -1 : component.ordinal());
+        move(slotsByBrand, brandBySlot[slot], slot, brand == null ? -1 : brand.ordinal());
+        brandBySlot[slot] = (byte) (brand == null ? -1 : brand.ordinal());
+        int priceBucket = priceBucketOf(price);
+        move(slotsByPriceBucket, priceBucketBySlot[slot], slot, priceBucket);
+        priceBucketBySlot[slot] = (byte) priceBucket;
+
+        if (locationBySlot[slot] >= 0) {
+            slotsByLocation.get(locationBySlot[slot]).clear(slot);
+        }
+        int locationCode = location == null || location.isBlank() ? -1 : locationCodes.computeIfAbsent(location, name -> {
+            locations.add(name);
+            slotsByLocation.add(new BitSet());
+            return locations.size() - 1;
+        });
+        if (locationCode >= 0) {
+            slotsByLocation.get(locationCode).set(slot);
+        }
+        locationBySlot[slot] = locationCode;
+    }
+
+    // Private method to move a slot from the bitmap of one value of a facet to another, -1 meaning none
+    private void move(BitSet[] slotsByCode, int previousCode, int slot, int code) {
+        if (previousCode >= 0) {
+            slotsByCode[previousCode].clear(slot);
+        }
+        if (code >= 0) {
+            slotsByCode[code].set(slot);
+        }
+    }
+
+    // Private method to find the price bucket of a price, -1 for items without a price
+    private int priceBucketOf(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        int bucket = 0;
+        while (bucket < priceBounds.size() && price.compareTo(priceBounds.get(bucket)) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    // Private method to empty the bitmaps of every facet value and forget the locations seen so far
+    private void clearFacets() {
+        Arrays.setAll(slotsByComponent, code -> new BitSet());
+        Arrays.setAll(slotsByBrand, code -> new BitSet());
+        Arrays.setAll(slotsByPriceBucket, code -> new BitSet());
+        slotsByLocation.clear();
+        locations.clear();
+        locationCodes.clear();
+    }
+
+    // Private method to find the slot of an inventory ID, handing out the next one, without values, if it has none yet.
+    // Must be called holding the write lock
+    private int slotOf(Long id) {
+        Integer slot = slotsById.get(id);
+        if (slot != null) {
+            return slot;
+        }
+        if (slotCount == idsBySlot.length) {
+            idsBySlot = Arrays.copyOf(idsBySlot, slotCount * 2);
+            componentBySlot = Arrays.copyOf(componentBySlot, slotCount * 2);
+            brandBySlot = Arrays.copyOf(brandBySlot, slotCount * 2);
+            locationBySlot = Arrays.copyOf(locationBySlot, slotCount * 2);
+            priceBucketBySlot = Arrays.copyOf(priceBucketBySlot, slotCount * 2);
+            serialBySlot = Arrays.copyOf(serialBySlot, slotCount * 2);
+            nameBySlot = Arrays.copyOf(nameBySlot, slotCount * 2);
+        }
+        idsBySlot[slotCount] = id;
+        componentBySlot[slotCount] = -1;
+        brandBySlot[slotCount] = -1;
+        locationBySlot[slotCount] = -1;
+        priceBucketBySlot[slotCount] = -1;
+        slotsById.put(id, slotCount);
+        return slotCount++;
+    }
+
+    // Private method to check whether a list of filter values is missing or empty
+    private boolean isEmpty(List<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    // Private method to bring a name to lower case, an appliance model without a name matches nothing
+    private String lowerCase(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,22 +4,27 @@ import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import online.demo.api.config.InventoryProperties;
 import online.demo.api.entities.ApplianceModel;
 import online.demo.api.entities.Image;
 import online.demo.api.entities.Inventory;
 import online.demo.api.entities.specs.InventorySpecification;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.events.InventoryChangedEvent;
 import online.demo.api.exceptions.NotFoundException;
-import online.demo.api.repositories.ApplianceModelRepository;
-import online.demo.api.repositories.ImageRepository;
 import online.demo.api.repositories.InventoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Validated
@@ -27,9 +32,10 @@ import java.util.List;
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
-    private final ApplianceModelRepository applianceModelRepository;
-    private final ImageRepository imageRepository;
-
+    private final ReferenceValidationService referenceValidationService;
+    private final InventoryIndexService inventoryIndexService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final InventoryProperties inventoryProperties;
 
     // Retrieve all inventory items
     public List<Inventory> getAllInventoryItems() {
@@ -51,12 +57,18 @@ public class InventoryService {
         return inventoryItems;
     }
 
-    // Retrieve inventory items based on specified criteria.
+    // Retrieve inventory items based on specified criteria, an item must fit a model matching each of the compatible models given.
+    // Serial, name and model criteria are resolved to IDs by the in-memory index, serials matching ignoring case, and at
+    // most the configured number of those items are returned. When the index finds nothing they are only matched in the
+    // database if the fallback is enabled, for items saved by another instance since the index was last refreshed
     public List<Inventory> getInventoryByCriteria(Inventory inventory) {
         Specification<Inventory> spec = Specification.where(null);
+        Specification<Inventory> databaseSpec = Specification.where(null);
+        List<Long> ids = null;
 
         if (inventory.getSerial() != null) {
-            spec = spec.and(InventorySpecification.withSerial(inventory.getSerial()));
+            ids = narrow(ids, inventoryIndexService.findIdsBySerial(inventory.getSerial()));
+            databaseSpec = databaseSpec.and(InventorySpecification.withSerial(inventory.getSerial()));
         }
 
         if (inventory.getLocation() != null) {
@@ -68,7 +80,11 @@ public class InventoryService {
         }
 
         if (inventory.getCompatibleApplianceModels() != null && !inventory.getCompatibleApplianceModels().isEmpty()) {
-            spec = spec.and(InventorySpecification.withCompatibleApplianceModel(inventory.getCompatibleApplianceModels().get(0).getModel()));
+            List<String> modelNames = inventory.getCompatibleApplianceModels().stream().map(ApplianceModel::getModel).toList();
+            ids = narrow(ids, inventoryIndexService.findCompatibleIds(modelNames, ModelMatchMode.ALL));
+            for (String modelName : modelNames) {
+                databaseSpec = databaseSpec.and(InventorySpecification.withCompatibleApplianceModel(modelName));
+            }
         }
 
         if (inventory.getComponent() != null) {
@@ -80,10 +96,21 @@ public class InventoryService {
         }
 
         if (inventory.getName() != null) {
-            spec = spec.and(InventorySpecification.withNameIgnoreCase(inventory.getName()));
+            ids = narrow(ids, inventoryIndexService.findIdsByName(inventory.getName()));
+            databaseSpec = databaseSpec.and(InventorySpecification.withNameIgnoreCase(inventory.getName()));
         }
 
-        List<Inventory> inventoryItems = inventoryRepository.findAll(spec);
+        List<Inventory> inventoryItems;
+        if (ids == null) {
+            inventoryItems = inventoryRepository.findAll(spec);
+        } else {
+            inventoryItems = findAllById(ids, spec);
+            if (inventoryItems.isEmpty() && inventoryProperties.isCriteriaSearchDatabaseFallback()) {
+                // The index only sees the changes made through this instance since it was last loaded, so the database
+                // is searched directly before answering that nothing matches
+                inventoryItems = inventoryRepository.findAll(spec.and(databaseSpec));
+            }
+        }
         if (inventoryItems.isEmpty()) {
             throw new NotFoundException("No inventory items found with these specifications");
         }
@@ -94,7 +121,9 @@ public class InventoryService {
     @Transactional
     public Inventory saveInventoryItem(Inventory inventoryItem) {
         validateInventoryItem(inventoryItem);
-        return inventoryRepository.save(inventoryItem);
+        Inventory savedInventoryItem = inventoryRepository.save(inventoryItem);
+        publishChange(savedInventoryItem);
+        return savedInventoryItem;
     }
 
     // Update an inventory item
@@ -104,35 +133,65 @@ public class InventoryService {
         if (!inventoryRepository.existsById(inventoryItem.getId())) {
             throw new NotFoundException("Inventory item not found with ID: " + inventoryItem.getId());
         }
-        return inventoryRepository.saveAndFlush(inventoryItem);
+        Inventory updatedInventoryItem = inventoryRepository.saveAndFlush(inventoryItem);
+        publishChange(updatedInventoryItem);
+        return updatedInventoryItem;
     }
 
-    // Private method to validate inventory item
-    private void validateInventoryItem(Inventory inventoryItem) {
-        if (inventoryItem.getLastPrice() != null && inventoryItem.getLastPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Last price must be greater than 0");
+    // Private method to load the items with the given IDs matching the specification, querying a limited number of IDs
+    // at a time and stopping once the most items a criteria search returns have been found
+    private List<Inventory> findAllById(List<Long> ids, Specification<Inventory> spec) {
+        int maxResults = inventoryProperties.getCriteriaSearchMaxResults();
+        List<Inventory> inventoryItems = new ArrayList<>();
+        for (int from = 0; from < ids.size() && inventoryItems.size() < maxResults; from += maxResults) {
+            List<Long> batch = ids.subList(from, Math.min(from + maxResults, ids.size()));
+            inventoryItems.addAll(inventoryRepository.findAll(spec.and(InventorySpecification.withIdIn(batch))));
         }
+        return inventoryItems.size() > maxResults ? inventoryItems.subList(0, maxResults) : inventoryItems;
+    }
 
-        if (inventoryItem.getDateLastPrice() != null && inventoryItem.getDateLastPrice().after(new Date())) {
-                throw new IllegalArgumentException("Date last price must be in the past or present");
+    // Private method to keep the IDs found for a criterion among the ones found for the previous criteria, if any
+    private List<Long> narrow(List<Long> ids, List<Long> found) {
+        if (ids == null) {
+            return found;
         }
+        Set<Long> foundIds = new HashSet<>(found);
+        return ids.stream().filter(foundIds::contains).toList();
+    }
+
+    // Let the in-memory indexes pick up a saved inventory item once its transaction commits, also used by the bulk import
+    public void publishChange(Inventory inventoryItem) {
+        List<ApplianceModel> models = inventoryItem.getCompatibleApplianceModels();
+        List<Integer> modelIds = models == null ? List.of() : models.stream().map(ApplianceModel::getId).toList();
+        applicationEventPublisher.publishEvent(new InventoryChangedEvent(inventoryItem.getId(), modelIds,
+                inventoryItem.getSerial(), inventoryItem.getName(), inventoryItem.getComponent(), inventoryItem.getBrand(),
+                inventoryItem.getLocation(), inventoryItem.getLastPrice()));
+    }
+
+    // Private method to validate inventory item
+    private void validateInventoryItem(Inventory inventoryItem) {
+        validateInventoryValues(inventoryItem);
 
         List<ApplianceModel> applianceModels = inventoryItem.getCompatibleApplianceModels();
         if (applianceModels != null && !applianceModels.isEmpty()) {
-            for (ApplianceModel model : applianceModels) {
-                if (!applianceModelRepository.existsById(model.getId())) {
-                    throw new NotFoundException("Appliance model not found with ID: " + model.getId());
-                }
-            }
+            referenceValidationService.requireExisting(ApplianceModel.class,
+                    applianceModels.stream().map(ApplianceModel::getId).toList(), "Appliance model");
         }
 
         List<Image> images = inventoryItem.getImages();
         if (images != null && !images.isEmpty()) {
-            for (Image image : images) {
-                if (!imageRepository.existsById(image.getId())) {
-                    throw new NotFoundException("Image not found with ID: " + image.getId());
-                }
-            }
+            referenceValidationService.requireExisting(Image.class, images.stream().map(Image::getId).toList(), "Image");
+        }
+    }
+
+    // Validate the values of an inventory item that do not refer to other entities, also used by the bulk import
+    public void validateInventoryValues(Inventory inventoryItem) {
+        if (inventoryItem.getLastPrice() != null && inventoryItem.getLastPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Last price must be greater than 0");
+        }
+
+        if (inventoryItem.getDateLastPrice() != null && inventoryItem.getDateLastPrice().after(new Date())) {
+                throw new IllegalArgumentException("Date last price must be in the past or present");
         }
     }
 
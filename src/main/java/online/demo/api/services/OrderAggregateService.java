@@ -0,0 +1,57 @@
+package online.demo.api.services;
+
+import jakarta.transaction.Transactional;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.dto.ClientPaymentSummaryDTO;
+import online.demo.api.dto.OrderFullDTO;
+import online.demo.api.dto.OrderHistorySummaryDTO;
+import online.demo.api.dto.RepairCostSummaryDTO;
+import online.demo.api.entities.Order;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.repositories.ClientPaymentRepository;
+import online.demo.api.repositories.OrderHistoryRepository;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.repositories.RepairCostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Gathers an order with its payments, repair costs and history, so the page of an order is rendered from one request
+@Service
+@Validated
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class OrderAggregateService {
+
+    private final OrderRepository orderRepository;
+    private final ClientPaymentRepository clientPaymentRepository;
+    private final RepairCostRepository repairCostRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
+
+    // Retrieve an order with everything related to it, one query for each kind of row,
+    // all read in the same transaction so the balance matches the payments and costs returned
+    @Transactional
+    public OrderFullDTO getOrderFull(@NotNull(message = "ID cannot be null") Integer id) {
+        Order order = orderRepository.findById(id).orElseThrow(() -> new NotFoundException("Order not found with ID: " + id));
+        List<ClientPaymentSummaryDTO> payments = clientPaymentRepository.findSummariesByOrderId(id);
+        List<RepairCostSummaryDTO> repairCosts = repairCostRepository.findSummariesByOrderId(id);
+        List<OrderHistorySummaryDTO> history = orderHistoryRepository.findSummariesByOrderId(id);
+
+        BigDecimal totalCost = sum(repairCosts, RepairCostSummaryDTO::getAmount);
+        BigDecimal totalPaid = sum(payments, ClientPaymentSummaryDTO::getAmount);
+        return new OrderFullDTO(order, payments, repairCosts, history, totalCost, totalPaid, totalCost.subtract(totalPaid));
+    }
+
+    // Private method to add up the amounts of the given rows, rows without an amount count as zero
+    private <T> BigDecimal sum(List<T> rows, Function<T, BigDecimal> amount) {
+        return rows.stream()
+                .map(amount)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
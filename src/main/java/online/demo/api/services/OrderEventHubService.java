@@ -0,0 +1,272 @@
+package online.demo.api.services;
+
+import jakarta.annotation.PreDestroy;
+import online.demo.api.config.OrderProperties;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.exceptions.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes order status changes to Server-Sent Events subscribers, either of a single order or of all orders.
+// Subscribers are async servlet requests, so an idle one holds no thread. Each subscriber has its own bounded queue
+// drained by a small pool of sending threads, so the transaction committing a change never waits for a client and a
+// stalled client only holds up its own events until it falls too far behind and is closed
+@Service
+public class OrderEventHubService {
+
+    private static final String EVENT_NAME = "order-status";
+
+    private final OrderProperties orderProperties;
+
+    // Subscribers to every order, the staff feed
+    private final Set<Subscriber> allSubscribers = ConcurrentHashMap.newKeySet();
+
+    // Subscribers by the reference code of the order they follow, a code without subscribers has no entry
+    private final ConcurrentHashMap<String, Set<Subscriber>> referenceSubscribers = new ConcurrentHashMap<>();
+
+    // Open subscriptions of both kinds, counted as they are admitted so the global limit holds under concurrent subscribes
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    // Threads sending the queued events of the subscribers
+    private final ExecutorService senders;
+
+    // Single thread queueing the keep-alive comments
+    private final ScheduledExecutorService heartbeats;
+
+    @Autowired
+    public OrderEventHubService(OrderProperties orderProperties) {
+        this.orderProperties = orderProperties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(orderProperties.getEventsSendThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "order-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeat = orderProperties.getEventsHeartbeat().toMillis();
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    // Subscribe to the status changes of every order.
+    // Throws a TooManyRequestsException if there are already as many subscriptions as allowed
+    public SseEmitter subscribeAll() {
+        reserveSubscription();
+        SseEmitter emitter = createEmitter(orderProperties.getEventsTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriber.onRemove(() -> {
+            if (allSubscribers.remove(subscriber)) {
+                subscriptions.decrementAndGet();
+            }
+        });
+        allSubscribers.add(subscriber);
+        return emitter;
+    }
+
+    // Subscribe to the status changes of one order, starting with its current status.
+    // Throws a TooManyRequestsException if the order or the hub already has as many subscribers as allowed
+    public SseEmitter subscribe(OrderStatusEventDTO current) {
+        String referenceCode = current.getReferenceCode();
+        reserveSubscription();
+        SseEmitter emitter = createEmitter(orderProperties.getEventsTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriber.onRemove(() -> unsubscribe(referenceCode, subscriber));
+        try {
+            referenceSubscribers.compute(referenceCode, (key, subscribers) -> {
+                Set<Subscriber> orderSubscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+                if (orderSubscribers.size() >= orderProperties.getEventsMaxSubscribersPerOrder()) {
+                    throw new TooManyRequestsException("Too many subscriptions to the events of order: " + referenceCode);
+                }
+                // Queued before the subscriber can receive changes, so it is never sent after a newer status
+                subscriber.enqueue(statusEvent(current));
+                orderSubscribers.add(subscriber);
+                return orderSubscribers;
+            });
+        } catch (RuntimeException e) {
+            subscriptions.decrementAndGet();
+            throw e;
+        }
+        return emitter;
+    }
+
+    // Push a change to the subscribers of the order and of every order once the transaction saving it commits
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderStatusEventDTO statusEvent = new OrderStatusEventDTO(event.getOrderId(), event.getReferenceCode(), event.getStatus());
+        for (Subscriber subscriber : allSubscribers) {
+            subscriber.enqueue(statusEvent(statusEvent));
+        }
+        Set<Subscriber> subscribers = referenceSubscribers.get(event.getReferenceCode());
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(statusEvent(statusEvent));
+            }
+        }
+    }
+
+    // Number of open subscriptions, of every order and of single orders
+    public int getSubscriberCount() {
+        return allSubscribers.size() + referenceSubscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Close every subscription on shutdown, clients reconnect to another instance
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        allSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+        referenceSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    // Create the emitter of a new subscription
+    protected SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    // Private method to count a new subscription against the limit of the hub, released again once it is removed
+    private void reserveSubscription() {
+        if (subscriptions.incrementAndGet() > orderProperties.getEventsMaxSubscribers()) {
+            subscriptions.decrementAndGet();
+            throw new TooManyRequestsException("Too many subscriptions to order events");
+        }
+    }
+
+    // Private method to remove a subscriber of a single order, dropping the reference code once it has none left.
+    // A subscriber can be removed more than once, its subscription is only released the first time
+    private void unsubscribe(String referenceCode, Subscriber subscriber) {
+        referenceSubscribers.computeIfPresent(referenceCode, (key, subscribers) -> {
+            if (subscribers.remove(subscriber)) {
+                subscriptions.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // Private method to build a status event, a builder is consumed by the send so every subscriber needs one of its own
+    private SseEmitter.SseEventBuilder statusEvent(OrderStatusEventDTO statusEvent) {
+        return SseEmitter.event().name(EVENT_NAME).data(statusEvent, MediaType.APPLICATION_JSON);
+    }
+
+    // Private method to queue a comment for every subscriber, so proxies keep idle connections open
+    // and clients that went away without closing are noticed
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : allSubscribers) {
+            subscriber.enqueue(SseEmitter.event().comment("keep-alive"));
+        }
+        referenceSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber ->
+                subscriber.enqueue(SseEmitter.event().comment("keep-alive"))));
+    }
+
+    // A subscription with its own queue of pending events, drained by at most one sending thread at a time so its
+    // events keep their order
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private Runnable remove = () -> { };
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Set how the subscriber is removed from the hub, which happens once its request completes, times out or fails
+        private void onRemove(Runnable remove) {
+            this.remove = remove;
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+            emitter.onError(e -> remove.run());
+        }
+
+        // Queue an event and start sending if no thread is, a subscriber whose queue is full is removed and closed
+        // as soon as its current send returns, the client reconnects and starts again from the current status
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            boolean overflow;
+            boolean start;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                overflow = pending.size() >= orderProperties.getEventsQueueCapacity();
+                if (overflow) {
+                    close();
+                } else {
+                    pending.add(event);
+                }
+                start = !draining;
+                draining = true;
+            }
+            if (!start) {
+                if (overflow) {
+                    // The sending thread closes the emitter once the send it is stuck in returns
+                    remove.run();
+                }
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the subscriptions are being closed
+            }
+        }
+
+        // Send the queued events until there are none left, dropping the subscriber if the client has gone away
+        private void drain() {
+            SseEmitter.SseEventBuilder event;
+            while ((event = next()) != null) {
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    remove.run();
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+            if (isClosed()) {
+                remove.run();
+                emitter.complete();
+            }
+        }
+
+        // Take the next event to send, null once there is none left or the subscriber was closed
+        private synchronized SseEmitter.SseEventBuilder next() {
+            SseEmitter.SseEventBuilder event = closed ? null : pending.poll();
+            if (event == null) {
+                draining = false;
+            }
+            return event;
+        }
+
+        // Stop queueing and sending events
+        private synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        // Whether the subscriber was closed for falling too far behind
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package online.demo.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.dto.OrderSummaryDTO;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.util.CsvUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+// Writes every order to a stream as it is read from the database, so an export holds one row in memory at a time
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class OrderExportService {
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    // Export the summaries of all orders in the given format, the transaction keeps the cursor open while writing
+    @Transactional
+    public void exportOrders(ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (Stream<OrderSummaryDTO> orders = orderRepository.streamAllSummaries()) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CsvUtil.row("id", "referenceCode", "status", "createdDate", "warranty", "issue",
+                        "clientIdentityCard", "clientName", "historicApplianceSerial", "applianceModel"));
+                orders.forEach(order -> write(writer, toCsv(order)));
+            } else {
+                orders.forEach(order -> write(writer, toJson(order)));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // Private method to format an order summary as a CSV row
+    private String toCsv(OrderSummaryDTO order) {
+        return CsvUtil.row(order.getId(), order.getReferenceCode(), order.getStatus(), order.getCreatedDate(),
+                order.getWarranty(), order.getIssue(), order.getClientIdentityCard(), order.getClientName(),
+                order.getHistoricApplianceSerial(), order.getApplianceModel());
+    }
+
+    // Private method to format an order summary as a line of JSON
+    private String toJson(OrderSummaryDTO order) {
+        try {
+            return objectMapper.writeValueAsString(order) + "\n";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Private method to write a row from inside the stream, which cannot throw checked exceptions
+    private void write(Writer writer, String row) {
+        try {
+            writer.write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package online.demo.api.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import online.demo.api.config.OrderProperties;
+import online.demo.api.converters.ClientConverter;
+import online.demo.api.converters.OrderConverter;
+import online.demo.api.dto.OrderDTO;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.Order;
+import online.demo.api.events.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Orders looked up by reference code, rendered once and served from memory until they expire or change.
+// Concurrent lookups of an order that is not cached wait for the first one instead of each loading it
+@Service
+public class OrderReferenceCacheService {
+
+    private final OrderService orderService;
+    private final OrderConverter orderConverter;
+    private final ClientConverter clientConverter;
+    private final OrderProperties orderProperties;
+
+    // Rendered orders by reference code in least recently used order, guarded by itself
+    private final LinkedHashMap<String, CachedOrder> entries;
+
+    // Loads in progress by reference code, an invalidation removes the load so its result is not cached
+    private final ConcurrentHashMap<String, CompletableFuture<OrderDTO>> loads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OrderReferenceCacheService(OrderService orderService, OrderConverter orderConverter,
+                                      ClientConverter clientConverter, OrderProperties orderProperties) {
+        this.orderService = orderService;
+        this.orderConverter = orderConverter;
+        this.clientConverter = clientConverter;
+        this.orderProperties = orderProperties;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedOrder> eldest) {
+                return size() > orderProperties.getReferenceCacheSize();
+            }
+        };
+    }
+
+    // Retrieve the rendered order with the given reference code
+    public OrderDTO getOrderByReferenceCode(String referenceCode) {
+        synchronized (entries) {
+            CachedOrder cached = entries.get(referenceCode);
+            if (cached != null && cached.getExpiresAt() - System.nanoTime() > 0) {
+                return cached.getOrder();
+            }
+        }
+        CompletableFuture<OrderDTO> load = new CompletableFuture<>();
+        CompletableFuture<OrderDTO> inProgress = loads.putIfAbsent(referenceCode, load);
+        if (inProgress != null) {
+            return await(inProgress);
+        }
+        try {
+            OrderDTO order = render(orderService.getOrderByReferenceCode(referenceCode));
+            synchronized (entries) {
+                if (loads.remove(referenceCode, load)) {
+                    entries.put(referenceCode, new CachedOrder(order, System.nanoTime() + orderProperties.getReferenceCacheTtl().toNanos()));
+                }
+            }
+            load.complete(order);
+            return order;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(referenceCode, load);
+        }
+    }
+
+    // Drop a changed order once the transaction changing it commits
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidate(event.getReferenceCode());
+    }
+
+    // Drop the order with the given reference code, a load in progress for it is not cached either
+    public void invalidate(String referenceCode) {
+        synchronized (entries) {
+            entries.remove(referenceCode);
+            loads.remove(referenceCode);
+        }
+    }
+
+    // Private method to render an order the way the reference code endpoint returns it. The images are copied
+    // out of the Hibernate collection without their content, so the cached order holds no reference to the session
+    // that loaded it nor the bytes of images stored inline, which are streamed from the image content endpoint instead
+    private OrderDTO render(Order order) {
+        OrderDTO orderDTO = orderConverter.toDto(order);
+        orderDTO.setClient(clientConverter.toDto(order.getClient()));
+        if (order.getImages() != null) {
+            orderDTO.setImages(order.getImages().stream().map(this::withoutContent).toList());
+        }
+        return orderDTO;
+    }
+
+    // Private method to copy the metadata of an image, leaving its content out
+    private Image withoutContent(Image image) {
+        Image copy = new Image();
+        copy.setId(image.getId());
+        copy.setMime(image.getMime());
+        copy.setName(image.getName());
+        copy.setSize(image.getSize());
+        copy.setChecksum(image.getChecksum());
+        copy.setOriginalChecksum(image.getOriginalChecksum());
+        copy.setUpdatedAt(image.getUpdatedAt());
+        return copy;
+    }
+
+    // Private method to wait for a load started by another request, rethrowing its exception as it was thrown
+    private OrderDTO await(CompletableFuture<OrderDTO> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Rendered order with the time it expires at, in System.nanoTime terms
+    @Getter
+    @AllArgsConstructor
+    private static class CachedOrder {
+        private final OrderDTO order;
+        private final long expiresAt;
+    }
+}
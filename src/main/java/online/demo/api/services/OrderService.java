@@ -3,17 +3,23 @@ package online.demo.api.services;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.CursorPageDTO;
+import online.demo.api.dto.OrderSummaryDTO;
 import online.demo.api.entities.Image;
 import online.demo.api.entities.Order;
 import online.demo.api.entities.specs.OrderSpecification;
+import online.demo.api.enums.IdMatchMode;
+import online.demo.api.events.OrderChangedEvent;
 import online.demo.api.enums.OrderStatus;
 import online.demo.api.exceptions.NotFoundException;
 import online.demo.api.repositories.ClientRepository;
 import online.demo.api.repositories.HistoricApplianceRepository;
-import online.demo.api.repositories.ImageRepository;
 import online.demo.api.repositories.OrderRepository;
+import online.demo.api.util.CursorUtil;
 import online.demo.api.util.PageableUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,6 +28,8 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,10 +42,12 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ClientRepository clientRepository;
     private final HistoricApplianceRepository historicApplianceRepository;
-    private final ImageRepository imageRepository;
+    private final ReferenceValidationService referenceValidationService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PagingProperties pagingProperties;
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public List<OrderSummaryDTO> getAllOrders() {
+        return orderRepository.findAllSummaries();
     }
 
     // Retrieve an order by its ID
@@ -46,26 +56,71 @@ public class OrderService {
     }
 
     // Retrieve the last 5 orders created
-    public List<Order> getLastFiveOrders() {
+    public List<OrderSummaryDTO> getLastFiveOrders() {
         Pageable pageable = PageRequest.of(0, 5, Sort.by("createdDate").descending());
-        return orderRepository.findAll(pageable).getContent();
+        return orderRepository.findSummaries(pageable);
     }
 
     // Retrieve order list by pageable
-    public Page<Order> getOrdersByPageable(Integer page, Integer size, String sortBy, String sortDirection) {
-        Pageable pageable = PageableUtil.createPageable(page, size, sortBy, sortDirection, "createdDate");
-        Page<Order> orderPage = orderRepository.findAll(pageable);
+    public Page<OrderSummaryDTO> getOrdersByPageable(Integer page, Integer size, String sortBy, String sortDirection) {
+        Pageable pageable = PageableUtil.createPageable(page, size, sortBy, sortDirection, "createdDate", pagingProperties.getMaxPageSize());
+        Page<OrderSummaryDTO> orderPage = orderRepository.findAllSummaries(pageable);
         if (!orderPage.hasContent()) {
             throw new NotFoundException("Orders not found with these specifications");
         }
         return orderPage;
     }
 
+    // Retrieve a page of orders following the given cursor, ordered by created date and ID.
+    // Each page seeks straight to its first row through the index on both columns and nothing is counted,
+    // so reading a page costs the same however far the client has scrolled
+    public CursorPageDTO<OrderSummaryDTO> getOrdersByCursor(String cursor, Integer size, String sortDirection) {
+        int pageSize = PageableUtil.pageSize(size, pagingProperties.getMaxPageSize());
+        boolean descending = "desc".equalsIgnoreCase(sortDirection);
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // One more row than requested tells whether another page follows
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(direction, "createdDate", "id"));
+
+        List<OrderSummaryDTO> orders;
+        if (cursor == null || cursor.isEmpty()) {
+            orders = orderRepository.findSummaries(pageable);
+        } else {
+            String[] keys = CursorUtil.decode(cursor, 2);
+            LocalDate createdDate;
+            Integer id;
+            try {
+                createdDate = LocalDate.parse(keys[0]);
+                id = Integer.valueOf(keys[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            orders = descending
+                    ? orderRepository.findSummariesBefore(createdDate, id, pageable)
+                    : orderRepository.findSummariesAfter(createdDate, id, pageable);
+        }
+
+        boolean hasNext = orders.size() > pageSize;
+        List<OrderSummaryDTO> content = hasNext ? orders.subList(0, pageSize) : orders;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryDTO last = content.get(content.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreatedDate(), last.getId());
+        }
+        return new CursorPageDTO<>(content, pageSize, nextCursor, hasNext);
+    }
+
     // Retrieve an order by its reference code
     public Order getOrderByReferenceCode(@NotNull(message = "Reference code cannot be null") String referenceCode) {
         return orderRepository.findByReferenceCode(referenceCode).orElseThrow(() -> new NotFoundException("Order not found with reference code: " + referenceCode));
     }
 
+    // Verify that an image is attached to the order with the given reference code
+    public void verifyOrderImage(@NotNull(message = "Reference code cannot be null") String referenceCode, @NotNull(message = "Image ID cannot be null") Integer imageId) {
+        if (!orderRepository.existsByReferenceCodeAndImagesId(referenceCode, imageId)) {
+            throw new NotFoundException("Image not found with ID: " + imageId + " for reference code: " + referenceCode);
+        }
+    }
+
     // Retrieves a list of orders based on the provided criteria.
     // The criteria include the order ID, client's identity card, historic appliance serial number, and order status.
     // Constructs a dynamic specification based on the provided criteria.
@@ -76,10 +131,15 @@ public class OrderService {
     // Filters orders by created date.
     // Returns a list of orders that match the specified criteria.
     public List<Order> getOrdersByCriteria(Order order) {
+        return getOrdersByCriteria(order, IdMatchMode.CONTAINS);
+    }
+
+    // Retrieves a list of orders based on the provided criteria, matching the order ID in the given mode.
+    public List<Order> getOrdersByCriteria(Order order, IdMatchMode idMatchMode) {
         Specification<Order> spec = Specification.where(null);
 
         if (order.getId() != null) {
-            spec = spec.and(OrderSpecification.withId(String.valueOf(order.getId())));
+            spec = spec.and(OrderSpecification.withId(String.valueOf(order.getId()), idMatchMode));
         }
 
         if (order.getClient() != null && order.getClient().getIdentityCard() != null) {
@@ -109,13 +169,21 @@ public class OrderService {
         return orderList;
     }
 
+    // Fill the search code of orders saved before it existed, returns the number of orders updated
+    @Transactional
+    public int fillMissingSearchCodes() {
+        return orderRepository.fillMissingSearchCodes();
+    }
+
     // Save an order
     @Transactional
     public Order saveOrder(Order order) {
         validateOrder(order);
         String referenceCode = UUID.randomUUID().toString();
         order.setReferenceCode(referenceCode);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        applicationEventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getId(), savedOrder.getReferenceCode(), null, savedOrder.getStatus()));
+        return savedOrder;
     }
 
     // Update an order status
@@ -123,8 +191,11 @@ public class OrderService {
     public Order updateOrderStatus(@NotNull Integer id, @NotNull OrderStatus status) {
         Order existingOrder = orderRepository.findById(id).orElseThrow(() -> new NotFoundException("Order not found with ID: " + id));
 
+        OrderStatus previousStatus = existingOrder.getStatus();
         existingOrder.setStatus(status);
-        return orderRepository.saveAndFlush(existingOrder);
+        Order savedOrder = orderRepository.saveAndFlush(existingOrder);
+        applicationEventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getId(), savedOrder.getReferenceCode(), previousStatus, savedOrder.getStatus()));
+        return savedOrder;
     }
 
     // Private method to validate order
@@ -138,11 +209,7 @@ public class OrderService {
         }
 
         if (order.getImages() != null && !order.getImages().isEmpty()) {
-            for (Image image : order.getImages()) {
-                if (!imageRepository.existsById(image.getId())) {
-                    throw new NotFoundException("Image not found with ID: " + image.getId());
-                }
-            }
+            referenceValidationService.requireExisting(Image.class, order.getImages().stream().map(Image::getId).toList(), "Image");
         }
     }
 }
@@ -0,0 +1,131 @@
+package online.demo.api.services;
+
+import lombok.RequiredArgsConstructor;
+import online.demo.api.config.OrderProperties;
+import online.demo.api.dto.OrderStatusChangeDTO;
+import online.demo.api.dto.OrderStatusChangeResultDTO;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.entities.OrderHistory;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.enums.StatusChangeOutcome;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.repositories.OrderHistoryRepository;
+import online.demo.api.repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Moves many orders to new statuses at once, accepting any transition as the single status update does,
+// and records each change in the order history
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class OrderStatusBatchService {
+
+    private final OrderRepository orderRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final OrderProperties orderProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    // Apply the given status changes, one transaction per chunk, and return the result of each in the same order.
+    // Within a chunk the orders are locked while their current statuses are read, then moved with one update per target status.
+    // If a chunk cannot be saved the chunks already committed keep their results, and that chunk and the ones after it
+    // are reported as failed so they can be sent again
+    public List<OrderStatusChangeResultDTO> updateOrderStatuses(List<OrderStatusChangeDTO> changes) {
+        validateChanges(changes);
+        int chunkSize = orderProperties.getStatusBatchChunkSize();
+        List<OrderStatusChangeResultDTO> results = new ArrayList<>(changes.size());
+        for (int start = 0; start < changes.size(); start += chunkSize) {
+            List<OrderStatusChangeDTO> chunk = changes.subList(start, Math.min(start + chunkSize, changes.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> applyChunk(chunk)));
+            } catch (DataAccessException | TransactionException e) {
+                changes.subList(start, changes.size()).forEach(change ->
+                        results.add(new OrderStatusChangeResultDTO(change.getId(), null, change.getStatus(), StatusChangeOutcome.FAILED)));
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Private method to reject an empty or too large request, or one naming an order more than once
+    private void validateChanges(List<OrderStatusChangeDTO> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("At least one status change must be provided");
+        }
+        if (changes.size() > orderProperties.getStatusBatchMaxSize()) {
+            throw new IllegalArgumentException("At most " + orderProperties.getStatusBatchMaxSize() + " status changes can be applied at once");
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (OrderStatusChangeDTO change : changes) {
+            if (change.getId() == null || change.getStatus() == null) {
+                throw new IllegalArgumentException("Every status change must have an ID and a status");
+            }
+            if (!ids.add(change.getId())) {
+                throw new IllegalArgumentException("Order " + change.getId() + " appears more than once");
+            }
+        }
+    }
+
+    // Private method to apply the status changes of a chunk within the current transaction
+    private List<OrderStatusChangeResultDTO> applyChunk(List<OrderStatusChangeDTO> changes) {
+        List<Integer> ids = changes.stream().map(OrderStatusChangeDTO::getId).toList();
+        Map<Integer, OrderStatusEventDTO> orders = orderRepository.findStatusesForUpdate(ids).stream()
+                .collect(Collectors.toMap(OrderStatusEventDTO::getOrderId, Function.identity()));
+
+        List<OrderStatusChangeResultDTO> results = new ArrayList<>(changes.size());
+        Map<OrderStatus, List<Integer>> idsByStatus = new EnumMap<>(OrderStatus.class);
+        List<OrderHistory> history = new ArrayList<>();
+        List<OrderChangedEvent> events = new ArrayList<>();
+        for (OrderStatusChangeDTO change : changes) {
+            OrderStatusEventDTO order = orders.get(change.getId());
+            OrderStatus previousStatus = order == null ? null : order.getStatus();
+            StatusChangeOutcome outcome = outcome(previousStatus, change.getStatus(), order != null);
+            results.add(new OrderStatusChangeResultDTO(change.getId(), previousStatus, change.getStatus(), outcome));
+            if (outcome != StatusChangeOutcome.UPDATED) {
+                continue;
+            }
+            idsByStatus.computeIfAbsent(change.getStatus(), status -> new ArrayList<>()).add(change.getId());
+            history.add(historyEntry(change.getId(), previousStatus, change.getStatus()));
+            events.add(new OrderChangedEvent(change.getId(), order.getReferenceCode(), previousStatus, change.getStatus()));
+        }
+
+        idsByStatus.forEach((status, statusIds) -> orderRepository.updateStatuses(statusIds, status));
+        if (!history.isEmpty()) {
+            orderHistoryRepository.saveAll(history);
+        }
+        events.forEach(applicationEventPublisher::publishEvent);
+        return results;
+    }
+
+    // Private method to decide whether an order is moved, left as it is or missing
+    private StatusChangeOutcome outcome(OrderStatus previousStatus, OrderStatus status, boolean found) {
+        if (!found) {
+            return StatusChangeOutcome.NOT_FOUND;
+        }
+        if (previousStatus == status) {
+            return StatusChangeOutcome.UNCHANGED;
+        }
+        return StatusChangeOutcome.UPDATED;
+    }
+
+    // Private method to build the history entry recording a status change
+    private OrderHistory historyEntry(Integer orderId, OrderStatus previousStatus, OrderStatus status) {
+        OrderHistory entry = new OrderHistory();
+        entry.setOrder(orderRepository.getReferenceById(orderId));
+        entry.setText("Status changed from " + previousStatus + " to " + status);
+        return entry;
+    }
+}
@@ -0,0 +1,162 @@
+package online.demo.api.services;
+
+import jakarta.annotation.PreDestroy;
+import online.demo.api.config.OrderProperties;
+import online.demo.api.dto.OrderStatusCountDTO;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.repositories.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Number of orders in each status, counted on startup and then kept up to date from the committed order changes,
+// so reading them never touches the database. Only changes made through this instance are counted, the counts are
+// recounted periodically to pick up the others
+@Service
+public class OrderStatusCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusCounterService.class);
+
+    private final OrderRepository orderRepository;
+
+    // Interval of the periodic recounts, zero or negative disables them
+    private final Duration refreshInterval;
+
+    // Thread running the periodic recounts, null until the application is ready or if they are disabled
+    private ScheduledExecutorService refresher;
+
+    // One counter per status, the map itself never changes after construction
+    private final EnumMap<OrderStatus, LongAdder> counters = new EnumMap<>(OrderStatus.class);
+
+    // Transactions changing a status hold the read lock from just before they commit until their changes are applied,
+    // concurrently with each other. A rebuild takes the write lock, so it waits for those in flight and holds off new
+    // ones until it has counted: every change is either part of the count or applied after it, never both
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public OrderStatusCounterService(OrderRepository orderRepository, OrderProperties orderProperties) {
+        this.orderRepository = orderRepository;
+        this.refreshInterval = orderProperties.getStatusCountRefreshInterval();
+        for (OrderStatus status : OrderStatus.values()) {
+            counters.put(status, new LongAdder());
+        }
+    }
+
+    // Count the orders once the application is ready, then recount them periodically
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        if (refreshInterval == null || refreshInterval.isZero() || refreshInterval.isNegative()) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-status-count-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Stop the periodic recounts on shutdown
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    // Count the orders in each status from the database, replacing the current counts
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            counters.values().forEach(LongAdder::reset);
+            for (OrderStatusCountDTO count : orderRepository.countByStatus()) {
+                if (count.getStatus() != null) {
+                    counters.get(count.getStatus()).add(count.getCount());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Move an order between counters once the transaction changing its status commits, the read lock is taken before
+    // the commit so that a rebuild cannot count the change and then see it applied as well
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getPreviousStatus() == event.getStatus()) {
+            return;
+        }
+        lock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                apply(event);
+            } finally {
+                lock.readLock().unlock();
+            }
+            return;
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            apply(event);
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    // Retrieve the number of orders in each status, every status is included
+    public Map<OrderStatus, Long> getCounts() {
+        EnumMap<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        counters.forEach((status, counter) -> counts.put(status, counter.sum()));
+        return counts;
+    }
+
+    // Private method to run a periodic recount, a failed one is retried at the next interval
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the order status counts", e);
+        }
+    }
+
+    // Private method to move an order from the counter of its previous status to the one of its new status
+    private void apply(OrderChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            counters.get(event.getPreviousStatus()).decrement();
+        }
+        if (event.getStatus() != null) {
+            counters.get(event.getStatus()).increment();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package online.demo.api.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.RequiredArgsConstructor;
+import online.demo.api.exceptions.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Checks that the entities an association refers to exist, a whole collection of IDs at a time
+// with a single SELECT ... WHERE id IN (...) per entity type, instead of an existsById per element
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ReferenceValidationService {
+
+    // Most IDs bound to a single IN list, larger collections take one query per this many IDs
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final EntityManager entityManager;
+
+    // Find which of the given IDs do not belong to an entity of the given type, in the order they were given.
+    // A null ID is always missing
+    public <I> Set<I> findMissingIds(Class<?> entityType, Collection<I> ids) {
+        Set<I> missing = new LinkedHashSet<>(ids);
+        List<I> candidates = missing.stream().filter(Objects::nonNull).toList();
+        if (candidates.isEmpty()) {
+            return missing;
+        }
+        String query = existingIdsQuery(entityType);
+        for (int from = 0; from < candidates.size(); from += MAX_IDS_PER_QUERY) {
+            List<I> batch = candidates.subList(from, Math.min(from + MAX_IDS_PER_QUERY, candidates.size()));
+            missing.removeAll(entityManager.createQuery(query, Object.class).setParameter("ids", batch).getResultList());
+        }
+        return missing;
+    }
+
+    // Check that every given ID belongs to an entity of the given type, otherwise throw a NotFoundException
+    // naming the entity and every missing ID
+    public void requireExisting(Class<?> entityType, Collection<?> ids, String entityName) {
+        Set<?> missing = findMissingIds(entityType, new ArrayList<>(ids));
+        if (!missing.isEmpty()) {
+            String missingIds = missing.stream().map(String::valueOf).collect(Collectors.joining(", "));
+            throw new NotFoundException(entityName + " not found with ID" + (missing.size() > 1 ? "s: " : ": ") + missingIds);
+        }
+    }
+
+    // Private method to build the query selecting which of a list of IDs exist, from the mapping of the entity
+    private String existingIdsQuery(Class<?> entityType) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(entityType);
+        String id = entity.getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .map(SingularAttribute::getName)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Entity without a single ID attribute: " + entity.getName()));
+        return "SELECT e." + id + " FROM " + entity.getName() + " e WHERE e." + id + " IN :ids";
+    }
+}
@@ -0,0 +1,34 @@
+package online.demo.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Utility class to copy a BLOB column selected by a single query to a stream, so the content is read once by the
+// database and comes from a single snapshot however long the client takes to receive it
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BlobStreamUtil {
+
+    // Copies the first column of the first row to the given stream, returns false if there is no row.
+    // A null column is copied as empty content
+    public static boolean copy(ResultSet resultSet, OutputStream outputStream) throws SQLException {
+        if (!resultSet.next()) {
+            return false;
+        }
+        try (InputStream content = resultSet.getBinaryStream(1)) {
+            if (content != null) {
+                // The stream is the client, its failures are not data access errors
+                content.transferTo(outputStream);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package online.demo.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Formats and reads CSV rows as described in RFC 4180, values holding a separator, a quote or a line break are quoted
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CsvUtil {
+
+    // Format the values as a CSV row ending in CRLF, null values are left empty
+    public static String row(Object... values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            if (values[i] != null) {
+                builder.append(escape(values[i].toString()));
+            }
+        }
+        return builder.append("\r\n").toString();
+    }
+
+    // Read the next row from a reader, consuming its line break, null at the end of the input.
+    // Quoted values may span lines, and a row ends at CRLF, LF or CR. A row longer than the given length is skipped
+    // up to the next line break, even inside a quoted value, and an IllegalArgumentException is thrown
+    public static List<String> readRow(BufferedReader reader, int maxLength) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        for (; c != -1; c = reader.read()) {
+            if (++length > maxLength && (quoted || c != '\r' && c != '\n')) {
+                skipLine(reader, c);
+                throw new IllegalArgumentException("Row is longer than " + maxLength + " characters");
+            }
+            if (quoted) {
+                if (c != '"') {
+                    value.append((char) c);
+                } else if (peek(reader) == '"') {
+                    value.append((char) reader.read());
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek(reader) == '\n') {
+                    reader.read();
+                }
+                break;
+            } else {
+                value.append((char) c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    // Read the next line from a reader like BufferedReader.readLine, null at the end of the input.
+    // A line longer than the given length is skipped up to its line break instead of being read into memory
+    public static String readLine(BufferedReader reader, int maxLength) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        for (; c != -1 && c != '\r' && c != '\n'; c = reader.read()) {
+            if (line.length() == maxLength) {
+                skipLine(reader, c);
+                throw new IllegalArgumentException("Row is longer than " + maxLength + " characters");
+            }
+            line.append((char) c);
+        }
+        skipLine(reader, c);
+        return line.toString();
+    }
+
+    // Private method to consume the rest of the line holding the given character, including its line break
+    private static void skipLine(BufferedReader reader, int c) throws IOException {
+        while (c != -1 && c != '\r' && c != '\n') {
+            c = reader.read();
+        }
+        if (c == '\r' && peek(reader) == '\n') {
+            reader.read();
+        }
+    }
+
+    // Private method to read the next character without consuming it
+    private static int peek(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        int c = reader.read();
+        reader.reset();
+        return c;
+    }
+
+    // Private method to quote a value if needed, doubling the quotes inside it
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,42 @@
+package online.demo.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque continuation tokens for keyset pagination, the key values of the last row are joined and Base64 encoded
+// so clients pass them back as they are instead of building them
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CursorUtil {
+
+    private static final String SEPARATOR = ":";
+
+    // Encode the key values of the last row of a page into a cursor
+    public static String encode(Object... keys) {
+        StringBuilder builder = new StringBuilder();
+        for (Object key : keys) {
+            if (!builder.isEmpty()) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor back into the given number of key values
+    public static String[] decode(String cursor, int keys) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        String[] values = decoded.split(SEPARATOR, -1);
+        if (values.length != keys) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return values;
+    }
+}
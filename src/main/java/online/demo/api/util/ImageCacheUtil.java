@@ -0,0 +1,40 @@
+package online.demo.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Utility class for the HTTP caching headers of image content
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ImageCacheUtil {
+
+    // How long a versioned image URL may be cached, it never changes so this is as long as HTTP allows in practice
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+    // Strong ETag for image content, the checksum identifies the bytes, a thumbnail also depends on the requested width.
+    // Null for images stored before checksums were recorded
+    public static String eTag(String checksum, Integer width) {
+        if (checksum == null) {
+            return null;
+        }
+        return width == null ? "\"" + checksum + "\"" : "\"" + checksum + "-w" + width + "\"";
+    }
+
+    // Last-Modified timestamp in milliseconds, -1 when the image was saved before it was recorded
+    public static long lastModified(Instant updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+
+    // An image URL can start serving other content after an update, so it is revalidated on every use, unless the
+    // client pinned it to the current content with ?v=<checksum>, then it is cached for good.
+    // Shared caches may only store content served without authentication
+    public static CacheControl cacheControl(String checksum, String version, boolean shared) {
+        CacheControl cacheControl = checksum != null && checksum.equals(version)
+                ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).immutable()
+                : CacheControl.noCache();
+        return shared ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+    }
+}
@@ -0,0 +1,205 @@
+package online.demo.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+// Utility class to decode, transform and encode images with javax.imageio
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ImageProcessingUtil {
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    // Decode an image, null if no installed ImageIO reader supports its format or it has more than the given number of
+    // pixels. The size is read from the header first, a small file can declare dimensions that take gigabytes to decode
+    public static BufferedImage read(byte[] content, long maxPixels) {
+        try (ImageInputStream inputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(inputStream, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Scale an image to the given size, images without alpha are drawn onto an opaque canvas so they can be written as JPEG
+    public static BufferedImage scale(BufferedImage image, int width, int height) {
+        boolean opaque = !image.getColorModel().hasAlpha();
+        BufferedImage scaledImage = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaledImage.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaledImage;
+    }
+
+    // Scale an image to the given width keeping its aspect ratio
+    public static BufferedImage scaleToWidth(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        return scale(image, width, height);
+    }
+
+    // Scale an image down so neither side exceeds the given dimension, images already small enough are returned as is
+    public static BufferedImage fit(BufferedImage image, int maxDimension) {
+        int longestSide = Math.max(image.getWidth(), image.getHeight());
+        if (longestSide <= maxDimension) {
+            return image;
+        }
+        float ratio = (float) maxDimension / longestSide;
+        return scale(image, Math.max(1, Math.round(image.getWidth() * ratio)), Math.max(1, Math.round(image.getHeight() * ratio)));
+    }
+
+    // Encode an image in the given ImageIO format
+    public static byte[] write(BufferedImage image, String format) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, format, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return content.toByteArray();
+    }
+
+    // Encode an opaque image as JPEG with the given quality between 0 and 1, no metadata is written
+    public static byte[] writeJpeg(BufferedImage image, float quality) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (ImageOutputStream outputStream = ImageIO.createImageOutputStream(content)) {
+            writer.setOutput(outputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return content.toByteArray();
+    }
+
+    // Read the EXIF orientation of a JPEG, 1 (upright) when it has none.
+    // ImageIO ignores it, so a photo taken with a rotated phone has to be turned before its metadata is dropped
+    public static int exifOrientation(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int position = 2;
+        while (position + 4 <= jpeg.length && (jpeg[position] & 0xFF) == 0xFF) {
+            int marker = jpeg[position + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                // The image data starts, EXIF is always stored before it
+                return 1;
+            }
+            int length = readUnsignedShort(jpeg, position + 2, false);
+            int end = Math.min(jpeg.length, position + 2 + length);
+            if (marker == 0xE1 && isExifHeader(jpeg, position + 4)) {
+                return readTiffOrientation(jpeg, position + 10, end);
+            }
+            position += 2 + length;
+        }
+        return 1;
+    }
+
+    // Turn an image upright according to its EXIF orientation
+    public static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swapSides = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swapSides ? height : width, swapSides ? width : height,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                switch (orientation) {
+                    case 2 -> oriented.setRGB(width - 1 - x, y, rgb);
+                    case 3 -> oriented.setRGB(width - 1 - x, height - 1 - y, rgb);
+                    case 4 -> oriented.setRGB(x, height - 1 - y, rgb);
+                    case 5 -> oriented.setRGB(y, x, rgb);
+                    case 6 -> oriented.setRGB(height - 1 - y, x, rgb);
+                    case 7 -> oriented.setRGB(height - 1 - y, width - 1 - x, rgb);
+                    default -> oriented.setRGB(y, width - 1 - x, rgb);
+                }
+            }
+        }
+        return oriented;
+    }
+
+    // Private method to check for the "Exif\0\0" header of an APP1 segment
+    private static boolean isExifHeader(byte[] jpeg, int position) {
+        return position + 6 <= jpeg.length
+                && jpeg[position] == 'E' && jpeg[position + 1] == 'x' && jpeg[position + 2] == 'i' && jpeg[position + 3] == 'f'
+                && jpeg[position + 4] == 0 && jpeg[position + 5] == 0;
+    }
+
+    // Private method to find the orientation tag in the first IFD of the TIFF structure holding the EXIF data
+    private static int readTiffOrientation(byte[] jpeg, int start, int end) {
+        if (start + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = jpeg[start] == 'I' && jpeg[start + 1] == 'I';
+        int ifd = start + (int) readUnsignedInt(jpeg, start + 4, littleEndian);
+        if (ifd < start || ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readUnsignedShort(jpeg, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readUnsignedShort(jpeg, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = readUnsignedShort(jpeg, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    // Private method to read a 16 bit unsigned integer
+    private static int readUnsignedShort(byte[] bytes, int position, boolean littleEndian) {
+        int first = bytes[position] & 0xFF;
+        int second = bytes[position + 1] & 0xFF;
+        return littleEndian ? (second << 8) | first : (first << 8) | second;
+    }
+
+    // Private method to read a 32 bit unsigned integer
+    private static long readUnsignedInt(byte[] bytes, int position, boolean littleEndian) {
+        long high = readUnsignedShort(bytes, position, littleEndian);
+        long low = readUnsignedShort(bytes, position + 2, littleEndian);
+        return littleEndian ? (low << 16) | high : (high << 16) | low;
+    }
+}
@@ -0,0 +1,54 @@
+package online.demo.api.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpRange;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// Utility class for the Range requests of image content
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ImageRangeUtil {
+
+    // The single byte range requested, or null when the whole content should be served: no Range header, a malformed
+    // one, several ranges, or an If-Range that no longer matches the current content
+    public static HttpRange requestedRange(String rangeHeader, String ifRangeHeader, String eTag, long lastModified) {
+        if (rangeHeader == null || !rangeHeader.startsWith("bytes=") || !ifRangeMatches(ifRangeHeader, eTag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Whether the range starts within content of the given size
+    public static boolean isSatisfiable(HttpRange range, long size) {
+        try {
+            return range.getRangeStart(size) < size && range.getRangeEnd(size) >= range.getRangeStart(size);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Private method to check If-Range, which holds either a strong ETag or the exact Last-Modified date
+    private static boolean ifRangeMatches(String ifRangeHeader, String eTag, long lastModified) {
+        if (ifRangeHeader == null) {
+            return true;
+        }
+        if (ifRangeHeader.startsWith("\"") || ifRangeHeader.startsWith("W/")) {
+            return ifRangeHeader.equals(eTag);
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRangeHeader, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified >= 0 && date / 1000 == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
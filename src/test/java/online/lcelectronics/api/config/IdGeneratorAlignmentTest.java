@@ -0,0 +1,65 @@
+package online.lcelectronics.api.config;
+
+import online.demo.api.ApiApplication;
+import online.demo.api.config.IdGeneratorAlignment;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.ImageVariant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ContextConfiguration(classes = ApiApplication.class)
+@Import(IdGeneratorAlignment.class)
+class IdGeneratorAlignmentTest {
+
+    @Autowired
+    private IdGeneratorAlignment idGeneratorAlignment;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    /**
+     * Tests the afterSingletonsInstantiated method of IdGeneratorAlignment.
+     * Verifies that IDs handed out after a row was stored with a database generated ID do not collide with it.
+     */
+    @Test
+    void testAfterSingletonsInstantiated_MovesPastStoredIds() {
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO image (id, mime, name) VALUES (1000, 'image/png', 'Legacy image')")
+                .executeUpdate();
+
+        idGeneratorAlignment.afterSingletonsInstantiated();
+
+        Image image = new Image();
+        image.setMime("image/png");
+        image.setName("New image");
+        image.setSize(1L);
+        entityManager.persistAndFlush(image);
+        assertTrue(image.getId() > 1000);
+    }
+
+    /**
+     * Tests the afterSingletonsInstantiated method of IdGeneratorAlignment with image variants.
+     * Verifies that their sequence is moved past the variants generated before it existed.
+     */
+    @Test
+    void testAfterSingletonsInstantiated_MovesPastStoredVariantIds() {
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO image_variant (id, source_checksum, width) VALUES (500, 'abc', 100)")
+                .executeUpdate();
+
+        idGeneratorAlignment.afterSingletonsInstantiated();
+
+        ImageVariant variant = new ImageVariant();
+        variant.setSourceChecksum("abc");
+        variant.setWidth(200);
+        entityManager.persistAndFlush(variant);
+        assertTrue(variant.getId() > 500);
+    }
+}
@@ -1,21 +1,39 @@
 package online.lcelectronics.api.controllers;
 
 import online.demo.api.controllers.ImageController;
+import online.demo.api.dto.ImageOptimizationStatsDTO;
+import online.demo.api.dto.ImageSummaryDTO;
+import online.demo.api.dto.ImageThumbnailDTO;
 import online.demo.api.entities.Image;
 import online.demo.api.util.ApiResponse;
+import online.demo.api.services.ImageOptimizationService;
 import online.demo.api.services.ImageService;
+import online.demo.api.services.ImageVariantService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,22 +42,36 @@ class ImageControllerTest {
     @Mock
     ImageService imageService;
 
+    @Mock
+    ImageVariantService imageVariantService;
+
+    @Mock
+    ImageOptimizationService imageOptimizationService;
+
     @InjectMocks
     ImageController imageController;
 
+    private final ImageSummaryDTO summary = new ImageSummaryDTO(1, "Test Image", "image/png", 3L, "abc", Instant.parse("2024-05-01T10:00:00Z"));
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1/content");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final ServletWebRequest webRequest = new ServletWebRequest(request, response);
+
     /**
      * Tests the getAllImages method of ImageController.
      * Verifies that all images are retrieved successfully.
      */
     @Test
     void getAllImages() {
-        List<Image> images = new ArrayList<>();
-        images.add(new Image());
-        images.add(new Image());
+        List<ImageSummaryDTO> images = new ArrayList<>();
+        images.add(new ImageSummaryDTO(1, "Test Image", "image/png", 3L, "abc", null));
+        images.add(new ImageSummaryDTO(2, "Other Image", "image/png", 5L, "def", null));
 
         when(imageService.getAllImages()).thenReturn(images);
 
-        ResponseEntity<ApiResponse<List<Image>>> responseEntity = imageController.getAllImages();
+        ResponseEntity<ApiResponse<List<ImageSummaryDTO>>> responseEntity = imageController.getAllImages();
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(HttpStatus.OK.value(), responseEntity.getBody().getStatus());
@@ -47,6 +79,23 @@ class ImageControllerTest {
         assertEquals(images, responseEntity.getBody().getData());
     }
 
+    /**
+     * Tests the getImageCatalog method of ImageController.
+     * Verifies that a page of image metadata is retrieved successfully.
+     */
+    @Test
+    void getImageCatalog() {
+        Page<ImageSummaryDTO> images = new PageImpl<>(List.of(new ImageSummaryDTO(1, "Test Image", "image/png", 3L, "abc", null)));
+
+        when(imageService.getImageCatalog(0, 10, null, null)).thenReturn(images);
+
+        ResponseEntity<ApiResponse<Page<ImageSummaryDTO>>> responseEntity = imageController.getImageCatalog(0, 10, null, null);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Images retrieved", responseEntity.getBody().getMessage());
+        assertEquals(images, responseEntity.getBody().getData());
+    }
+
     /**
      * Tests the getImageById method of ImageController with an existing ID.
      * Verifies that the image with the given ID is retrieved successfully.
@@ -66,17 +115,219 @@ class ImageControllerTest {
         assertEquals(image, responseEntity.getBody().getData());
     }
 
+    /**
+     * Tests the getOptimizationStats method of ImageController.
+     * Verifies that the optimization counters are retrieved successfully.
+     */
+    @Test
+    void getOptimizationStats() {
+        ImageOptimizationStatsDTO stats = new ImageOptimizationStatsDTO(2, 1, 0, 1024);
+        when(imageOptimizationService.getStats()).thenReturn(stats);
+
+        ResponseEntity<ApiResponse<ImageOptimizationStatsDTO>> responseEntity = imageController.getOptimizationStats();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(stats, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with an existing ID.
+     * Verifies that the content type comes from the stored MIME type and the body streams the content.
+     */
+    @Test
+    void getImageContent() throws IOException {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.IMAGE_PNG, responseEntity.getHeaders().getContentType());
+        assertEquals("no-cache, private", responseEntity.getHeaders().getCacheControl());
+        assertEquals("\"abc\"", response.getHeader("ETag"));
+        assertEquals(summary.getUpdatedAt().toEpochMilli(), response.getDateHeader("Last-Modified"));
+        assertEquals(3, responseEntity.getHeaders().getContentLength());
+        assertEquals("bytes", responseEntity.getHeaders().getFirst("Accept-Ranges"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        verify(imageService, times(1)).writeImageContent(1, outputStream);
+        verifyNoInteractions(imageVariantService);
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with an ETag matching the current content.
+     * Verifies that 304 is answered without reading the content.
+     */
+    @Test
+    void getImageContent_notModified() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("If-None-Match", "\"abc\"");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
+        verify(imageService, never()).writeImageContent(any(), any());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with an ETag of previous content.
+     * Verifies that the current content is streamed.
+     */
+    @Test
+    void getImageContent_modified() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("If-None-Match", "\"def\"");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a version matching the current checksum.
+     * Verifies that the response is marked as immutable.
+     */
+    @Test
+    void getImageContent_versioned() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, "abc", webRequest);
+
+        assertEquals("max-age=31536000, private, immutable", responseEntity.getHeaders().getCacheControl());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a byte range.
+     * Verifies that 206 is answered and only the requested window is read.
+     */
+    @Test
+    void getImageContent_range() throws IOException {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("Range", "bytes=1-");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, responseEntity.getStatusCode());
+        assertEquals("bytes 1-2/3", responseEntity.getHeaders().getFirst("Content-Range"));
+        assertEquals(2, responseEntity.getHeaders().getContentLength());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        verify(imageService, times(1)).writeImageContent(1, 1L, 2L, outputStream);
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a byte range past the end of the content.
+     * Verifies that 416 is answered with the content size.
+     */
+    @Test
+    void getImageContent_unsatisfiableRange() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("Range", "bytes=5-10");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, responseEntity.getStatusCode());
+        assertEquals("bytes */3", responseEntity.getHeaders().getFirst("Content-Range"));
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a byte range of previous content.
+     * Verifies that the whole current content is served when If-Range does not match.
+     */
+    @Test
+    void getImageContent_staleIfRange() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("Range", "bytes=1-");
+        request.addHeader("If-Range", "\"def\"");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with several byte ranges.
+     * Verifies that the whole content is served.
+     */
+    @Test
+    void getImageContent_multipleRanges() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("Range", "bytes=0-0,2-2");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, null, null, webRequest);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a thumbnail ETag matching the current content.
+     * Verifies that 304 is answered without generating the thumbnail.
+     */
+    @Test
+    void getImageContent_thumbnailNotModified() {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        request.addHeader("If-None-Match", "\"abc-w200\"");
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, 200, null, webRequest);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        verifyNoInteractions(imageVariantService);
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a width.
+     * Verifies that the thumbnail is served with its own content type.
+     */
+    @Test
+    void getImageContent_thumbnail() throws IOException {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        when(imageVariantService.getThumbnail(1, 200)).thenReturn(Optional.of(new ImageThumbnailDTO("image/jpeg", new byte[]{4, 5})));
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, 200, null, webRequest);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.IMAGE_JPEG, responseEntity.getHeaders().getContentType());
+        assertEquals(2, responseEntity.getHeaders().getContentLength());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        assertArrayEquals(new byte[]{4, 5}, outputStream.toByteArray());
+        verify(imageService, never()).writeImageContent(any(), any());
+    }
+
+    /**
+     * Tests the getImageContent method of ImageController with a width the image has no thumbnail for.
+     * Verifies that the original content is streamed.
+     */
+    @Test
+    void getImageContent_noThumbnail() throws IOException {
+        when(imageService.getImageSummary(1)).thenReturn(summary);
+        when(imageVariantService.getThumbnail(1, 200)).thenReturn(Optional.empty());
+
+        ResponseEntity<StreamingResponseBody> responseEntity = imageController.getImageContent(1, 200, null, webRequest);
+
+        assertEquals(MediaType.IMAGE_PNG, responseEntity.getHeaders().getContentType());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        verify(imageService, times(1)).writeImageContent(1, outputStream);
+    }
+
     /**
      * Tests the saveImage method of ImageController with a valid image.
-     * Verifies that the image is successfully saved.
+     * Verifies that the image is successfully saved and answered with the content that was sent.
      */
     @Test
     void saveImage() {
+        byte[] content = new byte[]{1, 2, 3};
         Image image = new Image();
         image.setName("Test Image");
+        image.setContent(content);
         Image savedImage = new Image();
         savedImage.setId(1);
         savedImage.setName("Test Image");
+        savedImage.setChecksum("abc");
 
         when(imageService.saveImage(image)).thenReturn(savedImage);
 
@@ -85,7 +336,10 @@ class ImageControllerTest {
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
         assertEquals(HttpStatus.CREATED.value(), responseEntity.getBody().getStatus());
         assertEquals("Image saved", responseEntity.getBody().getMessage());
-        assertEquals(savedImage, responseEntity.getBody().getData());
+        assertEquals(1, responseEntity.getBody().getData().getId());
+        assertEquals("abc", responseEntity.getBody().getData().getChecksum());
+        assertArrayEquals(content, responseEntity.getBody().getData().getContent());
+        assertNull(savedImage.getContent());
     }
 
     /**
@@ -105,7 +359,8 @@ class ImageControllerTest {
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(HttpStatus.OK.value(), responseEntity.getBody().getStatus());
         assertEquals("Image updated", responseEntity.getBody().getMessage());
-        assertEquals(image, responseEntity.getBody().getData());
+        assertEquals(1, responseEntity.getBody().getData().getId());
+        assertEquals("Updated Image", responseEntity.getBody().getData().getName());
     }
 
     /**
@@ -0,0 +1,113 @@
+package online.lcelectronics.api.controllers;
+
+import online.demo.api.controllers.ImageUploadController;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.ImageUpload;
+import online.demo.api.services.ImageUploadService;
+import online.demo.api.util.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageUploadControllerTest {
+
+    @Mock
+    ImageUploadService imageUploadService;
+
+    @InjectMocks
+    ImageUploadController imageUploadController;
+
+    /**
+     * Tests the startUpload method of ImageUploadController.
+     * Verifies that the upload is started successfully.
+     */
+    @Test
+    void startUpload() {
+        ImageUpload upload = new ImageUpload();
+        upload.setName("Test Image");
+
+        when(imageUploadService.startUpload(upload)).thenReturn(upload);
+
+        ResponseEntity<ApiResponse<ImageUpload>> responseEntity = imageUploadController.startUpload(upload);
+
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        assertEquals("Image upload started", responseEntity.getBody().getMessage());
+        assertEquals(upload, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the appendChunk method of ImageUploadController.
+     * Verifies that the chunk is handed to the service with its offset.
+     */
+    @Test
+    void appendChunk() {
+        ImageUpload upload = new ImageUpload();
+        upload.setReceivedBytes(6L);
+        InputStream chunk = new ByteArrayInputStream(new byte[]{4, 5, 6});
+
+        when(imageUploadService.appendChunk("abc", 3, chunk)).thenReturn(upload);
+
+        ResponseEntity<ApiResponse<ImageUpload>> responseEntity = imageUploadController.appendChunk("abc", 3, chunk);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(6L, responseEntity.getBody().getData().getReceivedBytes());
+    }
+
+    /**
+     * Tests the commitUpload method of ImageUploadController.
+     * Verifies that the committed image is returned.
+     */
+    @Test
+    void commitUpload() {
+        Image image = new Image();
+        image.setId(1);
+
+        when(imageUploadService.commitUpload("abc")).thenReturn(image);
+
+        ResponseEntity<ApiResponse<Image>> responseEntity = imageUploadController.commitUpload("abc");
+
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        assertEquals(image, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the abortUpload method of ImageUploadController.
+     * Verifies that the upload is aborted.
+     */
+    @Test
+    void abortUpload() {
+        ResponseEntity<ApiResponse<Void>> responseEntity = imageUploadController.abortUpload("abc");
+
+        assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
+        verify(imageUploadService, times(1)).abortUpload("abc");
+    }
+
+    /**
+     * Tests the saveMultipartImage method of ImageUploadController.
+     * Verifies that the multipart file is saved as an image.
+     */
+    @Test
+    void saveMultipartImage() {
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", new byte[]{1, 2, 3});
+        Image image = new Image();
+
+        when(imageUploadService.saveMultipartImage(file, null)).thenReturn(image);
+
+        ResponseEntity<ApiResponse<Image>> responseEntity = imageUploadController.saveMultipartImage(file, null);
+
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        assertEquals(image, responseEntity.getBody().getData());
+    }
+}
@@ -1,9 +1,15 @@
 package online.lcelectronics.api.controllers;
 
 import online.demo.api.controllers.InventoryController;
+import online.demo.api.dto.InventoryFacetsDTO;
+import online.demo.api.dto.InventoryImportResultDTO;
 import online.demo.api.entities.Inventory;
 import online.demo.api.enums.Brand;
 import online.demo.api.enums.Component;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.services.InventoryImportService;
+import online.demo.api.services.InventoryIndexService;
 import online.demo.api.services.InventoryService;
 import online.demo.api.util.ApiResponse;
 import org.junit.jupiter.api.Test;
@@ -11,13 +17,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +41,12 @@ class InventoryControllerTest {
     @Mock
     InventoryService inventoryService;
 
+    @Mock
+    InventoryIndexService inventoryIndexService;
+
+    @Mock
+    InventoryImportService inventoryImportService;
+
     @InjectMocks
     InventoryController inventoryController;
 
@@ -101,7 +119,7 @@ class InventoryControllerTest {
         List<Inventory> inventoryItems = Collections.singletonList(inventory);
 
         when(inventoryService.getInventoryByCriteria(any(Inventory.class))).thenReturn(inventoryItems);
-        ResponseEntity<ApiResponse<List<Inventory>>> responseEntity = inventoryController.getInventoryByCriteria("ABC123", "Warehouse1", new BigDecimal("199.99"), "ModelX", Component.ACCESSORIES, Brand.LG, "InventoryItem1");
+        ResponseEntity<ApiResponse<List<Inventory>>> responseEntity = inventoryController.getInventoryByCriteria("ABC123", "Warehouse1", new BigDecimal("199.99"), List.of("ModelX"), Component.ACCESSORIES, Brand.LG, "InventoryItem1");
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(HttpStatus.OK.value(), responseEntity.getBody().getStatus());
@@ -109,6 +127,75 @@ class InventoryControllerTest {
         assertEquals(inventoryItems, responseEntity.getBody().getData());
     }
 
+    /**
+     * Tests the getCompatibleInventory method of InventoryController.
+     * Verifies that the page of compatible inventory items is retrieved successfully.
+     */
+    @Test
+    void getCompatibleInventory() {
+        Page<Inventory> inventoryItems = new PageImpl<>(List.of(new Inventory()));
+        when(inventoryIndexService.getCompatibleInventory(List.of("UN55", "UN65"), ModelMatchMode.ANY, 0, 20)).thenReturn(inventoryItems);
+
+        ResponseEntity<ApiResponse<Page<Inventory>>> responseEntity =
+                inventoryController.getCompatibleInventory(List.of("UN55", "UN65"), ModelMatchMode.ANY, 0, 20);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(inventoryItems, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the searchInventory method of InventoryController.
+     * Verifies that the page of inventory items matching the text is retrieved successfully.
+     */
+    @Test
+    void searchInventory() {
+        Page<Inventory> inventoryItems = new PageImpl<>(List.of(new Inventory()));
+        when(inventoryIndexService.searchInventory("BN44", true, 0, 20)).thenReturn(inventoryItems);
+
+        ResponseEntity<ApiResponse<Page<Inventory>>> responseEntity = inventoryController.searchInventory("BN44", true, 0, 20);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(inventoryItems, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the importInventory method of InventoryController.
+     * Verifies that the request body is imported in the requested format and the result is returned.
+     */
+    @Test
+    void importInventory() throws IOException {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        InventoryImportResultDTO result = new InventoryImportResultDTO();
+        result.setImported(2);
+        when(inventoryImportService.importInventory(ExportFormat.CSV, body)).thenReturn(result);
+
+        ResponseEntity<ApiResponse<InventoryImportResultDTO>> responseEntity = inventoryController.importInventory(ExportFormat.CSV, body);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Inventory import finished", responseEntity.getBody().getMessage());
+        assertEquals(result, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryController.
+     * Verifies that the page of inventory items and its facet counts are retrieved successfully.
+     */
+    @Test
+    void getInventoryFacets() {
+        InventoryFacetsDTO facets = new InventoryFacetsDTO();
+        facets.setItems(new PageImpl<>(List.of(new Inventory())));
+        facets.setComponents(Map.of(Component.MAIN_BOARD, 1L));
+        when(inventoryIndexService.getInventoryFacets(List.of(Component.MAIN_BOARD), List.of(Brand.SAMSUNG), null, List.of(1), null, 0, 20))
+                .thenReturn(facets);
+
+        ResponseEntity<ApiResponse<InventoryFacetsDTO>> responseEntity = inventoryController.getInventoryFacets(
+                List.of(Component.MAIN_BOARD), List.of(Brand.SAMSUNG), null, List.of(1), null, 0, 20);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("Inventory facets retrieved", responseEntity.getBody().getMessage());
+        assertEquals(facets, responseEntity.getBody().getData());
+    }
+
     /**
      * Tests the saveInventoryItem method of InventoryController with a valid inventory item.
      * Verifies that the inventory item is successfully saved.
@@ -1,15 +1,29 @@
 package online.lcelectronics.api.controllers;
 
 import online.demo.api.controllers.OrderController;
-import online.demo.api.converters.ClientConverter;
-import online.demo.api.converters.OrderConverter;
 import online.demo.api.dto.ClientDTO;
+import online.demo.api.dto.CursorPageDTO;
+import online.demo.api.dto.ImageSummaryDTO;
 import online.demo.api.dto.OrderDTO;
+import online.demo.api.dto.OrderFullDTO;
+import online.demo.api.dto.OrderStatusChangeDTO;
+import online.demo.api.dto.OrderStatusChangeResultDTO;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.dto.OrderSummaryDTO;
 import online.demo.api.entities.Client;
 import online.demo.api.entities.HistoricAppliance;
 import online.demo.api.entities.Order;
+import online.demo.api.enums.ExportFormat;
 import online.demo.api.enums.OrderStatus;
+import online.demo.api.enums.StatusChangeOutcome;
+import online.demo.api.services.ImageService;
+import online.demo.api.services.OrderEventHubService;
+import online.demo.api.services.OrderExportService;
+import online.demo.api.services.OrderReferenceCacheService;
+import online.demo.api.services.OrderAggregateService;
 import online.demo.api.services.OrderService;
+import online.demo.api.services.OrderStatusBatchService;
+import online.demo.api.services.OrderStatusCounterService;
 import online.demo.api.util.ApiResponse;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,12 +32,25 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -37,16 +64,33 @@ class OrderControllerTest {
     private OrderService orderService;
 
     @Mock
-    private OrderConverter orderConverter;
+    private OrderReferenceCacheService orderReferenceCacheService;
+
+    @Mock
+    private OrderEventHubService orderEventHubService;
+
+    @Mock
+    private OrderStatusCounterService orderStatusCounterService;
+
+    @Mock
+    private OrderAggregateService orderAggregateService;
+
+    @Mock
+    private OrderStatusBatchService orderStatusBatchService;
+
+    @Mock
+    private ImageService imageService;
 
     @Mock
-    private ClientConverter clientConverter;
+    private OrderExportService orderExportService;
 
     @InjectMocks
     private OrderController orderController;
 
     private Order order;
 
+    private OrderSummaryDTO orderSummary;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -58,16 +102,21 @@ class OrderControllerTest {
         order.setHistoricAppliance(new HistoricAppliance());
         order.setStatus(OrderStatus.DELIVERED);
         order.setCreatedDate(LocalDate.now());
+        orderSummary = new OrderSummaryDTO();
+        orderSummary.setId(1);
+        orderSummary.setIssue("Test issue");
+        orderSummary.setStatus(OrderStatus.DELIVERED);
+        orderSummary.setCreatedDate(order.getCreatedDate());
     }
 
     @Test
     void getAllOrders() {
         // Arrange
-        List<Order> orders = Arrays.asList(order);
+        List<OrderSummaryDTO> orders = Arrays.asList(orderSummary);
         when(orderService.getAllOrders()).thenReturn(orders);
 
         // Act
-        ResponseEntity<ApiResponse<List<Order>>> responseEntity = orderController.getAllOrders();
+        ResponseEntity<ApiResponse<List<OrderSummaryDTO>>> responseEntity = orderController.getAllOrders();
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -88,24 +137,52 @@ class OrderControllerTest {
         assertEquals(order, responseEntity.getBody().getData());
     }
 
+    /**
+     * Tests the updateOrderStatuses method of OrderController.
+     * Verifies that the result of each requested change is returned.
+     */
+    @Test
+    void updateOrderStatuses() {
+        List<OrderStatusChangeDTO> changes = List.of(new OrderStatusChangeDTO(1, OrderStatus.DIAGNOSED));
+        List<OrderStatusChangeResultDTO> results = List.of(
+                new OrderStatusChangeResultDTO(1, OrderStatus.JOINED, OrderStatus.DIAGNOSED, StatusChangeOutcome.UPDATED));
+        when(orderStatusBatchService.updateOrderStatuses(changes)).thenReturn(results);
+
+        ResponseEntity<ApiResponse<List<OrderStatusChangeResultDTO>>> responseEntity = orderController.updateOrderStatuses(changes);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(results, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the getOrderFull method of OrderController.
+     * Verifies that the order is returned together with its related rows.
+     */
+    @Test
+    void getOrderFull() {
+        OrderFullDTO orderFull = new OrderFullDTO(order, List.of(), List.of(), List.of(), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        when(orderAggregateService.getOrderFull(1)).thenReturn(orderFull);
+
+        ResponseEntity<ApiResponse<OrderFullDTO>> responseEntity = orderController.getOrderFull(1);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(orderFull, responseEntity.getBody().getData());
+    }
+
     @Test
     void getOrderByReferenceCode() {
         // Arrange
         String referenceCode = "ref123";
 
-        // Mock the conversion process
-        when(orderService.getOrderByReferenceCode(referenceCode)).thenReturn(order);
-
         OrderDTO orderDTO = new OrderDTO();
         orderDTO.setId(order.getId());
-        // Optionally mock client conversion
         ClientDTO clientDTO = new ClientDTO();
         clientDTO.setIdentityCard(order.getClient().getIdentityCard());
         clientDTO.setName(order.getClient().getName());
-        when(clientConverter.toDto(order.getClient())).thenReturn(clientDTO);
         orderDTO.setClient(clientDTO);
 
-        when(orderConverter.toDto(order)).thenReturn(orderDTO);
+        // The rendered order comes from the reference code cache
+        when(orderReferenceCacheService.getOrderByReferenceCode(referenceCode)).thenReturn(orderDTO);
 
         // Act
         ResponseEntity<ApiResponse<OrderDTO>> responseEntity = orderController.getOrderByReferenceCode(referenceCode);
@@ -152,30 +229,126 @@ class OrderControllerTest {
         String sortBy = "createdDate";
         String sortDirection = "DESC";
         PageRequest pageable = PageRequest.of(page, size);
-        Page<Order> pagedOrders = new PageImpl<>(Arrays.asList(order), pageable, 1);
+        Page<OrderSummaryDTO> pagedOrders = new PageImpl<>(Arrays.asList(orderSummary), pageable, 1);
 
         when(orderService.getOrdersByPageable(page, size, sortBy, sortDirection)).thenReturn(pagedOrders);
 
         // Act
-        ResponseEntity<ApiResponse<Page<Order>>> responseEntity = orderController.getOrders(page, size, sortBy, sortDirection);
+        ResponseEntity<ApiResponse<Page<OrderSummaryDTO>>> responseEntity = orderController.getOrders(page, size, sortBy, sortDirection);
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(pagedOrders, responseEntity.getBody().getData());
     }
 
+    @Test
+    void getOrdersByCursor() {
+        // Arrange
+        CursorPageDTO<OrderSummaryDTO> cursorPage = new CursorPageDTO<>(List.of(orderSummary), 5, null, false);
+        when(orderService.getOrdersByCursor("cursor", 5, "desc")).thenReturn(cursorPage);
+
+        // Act
+        ResponseEntity<ApiResponse<CursorPageDTO<OrderSummaryDTO>>> responseEntity = orderController.getOrdersByCursor("cursor", 5, "desc");
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(cursorPage, responseEntity.getBody().getData());
+    }
+
     // New test for getLastOrders (last five orders)
     @Test
     void getLastOrders() {
         // Arrange
-        List<Order> lastOrders = Arrays.asList(order, order, order, order, order);
+        List<OrderSummaryDTO> lastOrders = Arrays.asList(orderSummary, orderSummary, orderSummary, orderSummary, orderSummary);
         when(orderService.getLastFiveOrders()).thenReturn(lastOrders);
 
         // Act
-        ResponseEntity<ApiResponse<List<Order>>> responseEntity = orderController.getLastOrders();
+        ResponseEntity<ApiResponse<List<OrderSummaryDTO>>> responseEntity = orderController.getLastOrders();
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(lastOrders, responseEntity.getBody().getData());
     }
+
+    /**
+     * Tests the getOrderImageContent method of OrderController.
+     * Verifies that the image is checked against the order and its content streamed.
+     */
+    @Test
+    void getOrderImageContent() throws IOException {
+        when(imageService.getImageSummary(1)).thenReturn(new ImageSummaryDTO(1, "Test Image", "image/jpeg", 3L, "abc", null));
+        ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+
+        ResponseEntity<StreamingResponseBody> responseEntity = orderController.getOrderImageContent("unique-reference-code", 1, null, webRequest);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.IMAGE_JPEG, responseEntity.getHeaders().getContentType());
+        assertEquals("no-cache, public", responseEntity.getHeaders().getCacheControl());
+        verify(orderService, times(1)).verifyOrderImage("unique-reference-code", 1);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        verify(imageService, times(1)).writeImageContent(1, outputStream);
+    }
+
+    /**
+     * Tests the subscribeToOrderByReferenceCode method of OrderController.
+     * Verifies that the subscription starts from the current status of the order.
+     */
+    @Test
+    void subscribeToOrderByReferenceCode() {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setId(1);
+        orderDTO.setStatus(OrderStatus.DIAGNOSED);
+        when(orderReferenceCacheService.getOrderByReferenceCode("ref123")).thenReturn(orderDTO);
+        SseEmitter emitter = new SseEmitter();
+        when(orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref123", OrderStatus.DIAGNOSED))).thenReturn(emitter);
+
+        assertSame(emitter, orderController.subscribeToOrderByReferenceCode("ref123"));
+    }
+
+    /**
+     * Tests the subscribeToOrders method of OrderController.
+     * Verifies that the staff feed subscribes to every order.
+     */
+    @Test
+    void subscribeToOrders() {
+        SseEmitter emitter = new SseEmitter();
+        when(orderEventHubService.subscribeAll()).thenReturn(emitter);
+
+        assertSame(emitter, orderController.subscribeToOrders());
+    }
+
+    /**
+     * Tests the getOrderStatusCounts method of OrderController.
+     * Verifies that the in-memory counts are returned.
+     */
+    @Test
+    void getOrderStatusCounts() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        counts.put(OrderStatus.DELIVERED, 4L);
+        when(orderStatusCounterService.getCounts()).thenReturn(counts);
+
+        ResponseEntity<ApiResponse<Map<OrderStatus, Long>>> responseEntity = orderController.getOrderStatusCounts();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(counts, responseEntity.getBody().getData());
+    }
+
+    /**
+     * Tests the exportOrders method of OrderController.
+     * Verifies that the export is sent as a CSV attachment and written by the export service.
+     */
+    @Test
+    void exportOrders() throws IOException {
+        ResponseEntity<StreamingResponseBody> responseEntity = orderController.exportOrders(ExportFormat.CSV);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.parseMediaType("text/csv"), responseEntity.getHeaders().getContentType());
+        assertEquals("orders.csv", responseEntity.getHeaders().getContentDisposition().getFilename());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        verify(orderExportService, times(1)).exportOrders(ExportFormat.CSV, outputStream);
+    }
 }
@@ -82,6 +82,20 @@ class ImageTest {
         assertEquals("Name cannot be empty", violation.getMessage());
     }
 
+    /**
+     * Tests validation when the content is streamed separately and only its size is set.
+     * Ensures no constraint violation occurs.
+     */
+    @Test
+    void whenContentIsStreamedWithSize_thenNoConstraintViolation() {
+        image.setContent(null);
+        image.setSize(3L);
+
+        Set<ConstraintViolation<Image>> violations = validator.validate(image);
+
+        assertEquals(0, violations.size());
+    }
+
     /**
      * Tests validation when the content is null or empty.
      * Ensures a constraint violation occurs when the content is null or empty.
@@ -0,0 +1,79 @@
+package online.lcelectronics.api.entities;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import online.demo.api.entities.ImageUpload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageUploadTest {
+
+    private ImageUpload upload;
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+
+        upload = new ImageUpload();
+        upload.setId("abc");
+        upload.setName("Test Image");
+        upload.setMime("image/png");
+        upload.setReceivedBytes(3L);
+    }
+
+    /**
+     * Tests the getter and setter methods of ImageUpload.
+     * Verifies that the values are correctly set and retrieved.
+     */
+    @Test
+    void testGettersAndSetters() {
+        assertEquals("abc", upload.getId());
+        assertEquals("Test Image", upload.getName());
+        assertEquals("image/png", upload.getMime());
+        assertEquals(3L, upload.getReceivedBytes());
+    }
+
+    /**
+     * Tests validation when the name is null or empty.
+     * Ensures a constraint violation occurs when the name is null or empty.
+     *
+     * @param invalidName the invalid name (null or empty).
+     */
+    @ParameterizedTest
+    @NullAndEmptySource
+    void whenNameIsNullOrEmpty_thenOneConstraintViolation(String invalidName) {
+        upload.setName(invalidName);
+
+        Set<ConstraintViolation<ImageUpload>> violations = validator.validate(upload);
+
+        assertEquals(1, violations.size());
+        assertEquals("Name cannot be empty", violations.iterator().next().getMessage());
+    }
+
+    /**
+     * Tests validation when the MIME type is null or empty.
+     * Ensures a constraint violation occurs when the MIME type is null or empty.
+     *
+     * @param invalidMime the invalid MIME type (null or empty).
+     */
+    @ParameterizedTest
+    @NullAndEmptySource
+    void whenMimeIsNullOrEmpty_thenOneConstraintViolation(String invalidMime) {
+        upload.setMime(invalidMime);
+
+        Set<ConstraintViolation<ImageUpload>> violations = validator.validate(upload);
+
+        assertEquals(1, violations.size());
+        assertEquals("MIME type cannot be empty", violations.iterator().next().getMessage());
+    }
+}
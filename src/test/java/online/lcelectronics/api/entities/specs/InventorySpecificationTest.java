@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.*;
@@ -78,7 +79,8 @@ class InventorySpecificationTest {
 
     /**
      * Tests the withCompatibleApplianceModel method of InventorySpecification.
-     * Verifies that the specification is created successfully and the predicate is formed correctly.
+     * Verifies that the specification is created successfully, the predicate is formed correctly and items fitting
+     * several matching models are not returned more than once.
      */
     @Test
     void withCompatibleApplianceModel() {
@@ -97,6 +99,7 @@ class InventorySpecificationTest {
         spec.toPredicate(root, query, cb);
 
         verify(cb).like(join.get("model"), "%" + model + "%");
+        verify(query).distinct(true);
     }
 
     /**
@@ -158,4 +161,27 @@ class InventorySpecificationTest {
 
         verify(cb).like(cb.lower(root.get("name")), "%gadget%");
     }
+
+    /**
+     * Tests the withIdIn method of InventorySpecification.
+     * Verifies that the specification is created successfully and the predicate is formed correctly.
+     */
+    @Test
+    void withIdIn() {
+        List<Long> ids = List.of(1L, 2L);
+        Specification<Inventory> spec = InventorySpecification.withIdIn(ids);
+
+        assertNotNull(spec);
+
+        Root<Inventory> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        Path<Object> id = mock(Path.class);
+
+        when(root.get("id")).thenReturn(id);
+
+        spec.toPredicate(root, query, cb);
+
+        verify(id).in(ids);
+    }
 }
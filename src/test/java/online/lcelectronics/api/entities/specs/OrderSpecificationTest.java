@@ -3,6 +3,7 @@ package online.lcelectronics.api.entities.specs;
 import jakarta.persistence.criteria.*;
 import online.demo.api.entities.Order;
 import online.demo.api.entities.specs.OrderSpecification;
+import online.demo.api.enums.IdMatchMode;
 import online.demo.api.enums.OrderStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.jpa.domain.Specification;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.domain.Specification;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class OrderSpecificationTest {
@@ -29,11 +31,65 @@ class OrderSpecificationTest {
         CriteriaQuery<?> query = mock(CriteriaQuery.class);
         CriteriaBuilder cb = mock(CriteriaBuilder.class);
 
-        when(root.get("id")).thenReturn(mock(Path.class));
+        Path<String> searchCode = mock(Path.class);
+        when(root.<String>get("searchCode")).thenReturn(searchCode);
 
         spec.toPredicate(root, query, cb);
 
-        verify(cb).like(root.get("id").as(String.class), "%" + id + "%");
+        verify(cb).like(searchCode, "%" + id + "%");
+        verify(root, never()).get("id");
+    }
+
+    /**
+     * Tests the withId method of OrderSpecification in exact mode.
+     * Verifies that the predicate compares the primary key instead of matching text.
+     */
+    @Test
+    void withId_exact() {
+        Specification<Order> spec = OrderSpecification.withId("12345", IdMatchMode.EXACT);
+
+        Root<Order> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+
+        Path<Object> id = mock(Path.class);
+        when(root.get("id")).thenReturn(id);
+
+        spec.toPredicate(root, query, cb);
+
+        verify(cb).equal(id, 12345);
+    }
+
+    /**
+     * Tests the withId method of OrderSpecification in prefix mode.
+     * Verifies that the predicate only has a trailing wildcard on the search code.
+     */
+    @Test
+    void withId_prefix() {
+        Specification<Order> spec = OrderSpecification.withId("123", IdMatchMode.PREFIX);
+
+        Root<Order> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+
+        Path<String> searchCode = mock(Path.class);
+        when(root.<String>get("searchCode")).thenReturn(searchCode);
+
+        spec.toPredicate(root, query, cb);
+
+        verify(cb).like(searchCode, "123%");
+    }
+
+    /**
+     * Tests the withId method of OrderSpecification with a value that is not a number.
+     * Ensures that an IllegalArgumentException is thrown instead of passing wildcards on.
+     */
+    @Test
+    void withId_invalid() {
+        Specification<Order> spec = OrderSpecification.withId("1%", IdMatchMode.PREFIX);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> spec.toPredicate(mock(Root.class), mock(CriteriaQuery.class), mock(CriteriaBuilder.class)));
     }
 
     /**
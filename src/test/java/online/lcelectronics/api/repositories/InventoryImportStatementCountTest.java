@@ -0,0 +1,101 @@
+package online.lcelectronics.api.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import online.demo.api.ApiApplication;
+import online.demo.api.config.InventoryProperties;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.InventoryImportResultDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.enums.ApplianceCategory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.repositories.InventoryRepository;
+import online.demo.api.services.InventoryImportService;
+import online.demo.api.services.InventoryIndexService;
+import online.demo.api.services.InventoryService;
+import online.demo.api.services.ReferenceValidationService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = ApiApplication.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({InventoryImportService.class, InventoryService.class, InventoryIndexService.class, ReferenceValidationService.class, InventoryProperties.class, PagingProperties.class})
+class InventoryImportStatementCountTest {
+
+    private static final int ROWS = 250;
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Integer modelId;
+
+    @BeforeEach
+    void setUp() {
+        ApplianceModel model = new ApplianceModel();
+        model.setModel("UN55TU7000");
+        model.setApplianceCategory(ApplianceCategory.values()[0]);
+        model.setBrand(Brand.SAMSUNG);
+        model.setManufactureYear(Year.of(2020));
+        entityManager.persistAndFlush(model);
+        modelId = model.getId();
+        inventoryProperties.setImportChunkSize(100);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService.
+     * Verifies that references are checked once per chunk and the rows and their model links are inserted in JDBC batches.
+     */
+    @Test
+    void testImportInventory_BatchedPerChunk() throws IOException {
+        StringBuilder csv = new StringBuilder("serial,name,quantityNew,quantityUsed,component,brand,compatibleApplianceModelIds\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("BN44-").append(i).append(",Power board,1,0,POWER_BOARD,SAMSUNG,").append(modelId).append('\n');
+        }
+
+        InventoryImportResultDTO result = inventoryImportService.importInventory(ExportFormat.CSV,
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+        entityManager.flush();
+
+        assertEquals(ROWS, result.getImported());
+        assertEquals(ROWS, inventoryRepository.count());
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // One reference query per chunk, a few sequence calls and one batch per table and chunk, far fewer than one per row
+        assertTrue(statistics.getPrepareStatementCount() < 30, "Statements: " + statistics.getPrepareStatementCount());
+    }
+}
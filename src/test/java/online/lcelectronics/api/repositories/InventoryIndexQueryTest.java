@@ -0,0 +1,153 @@
+package online.lcelectronics.api.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import online.demo.api.ApiApplication;
+import online.demo.api.config.InventoryProperties;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.InventoryFacetsDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Inventory;
+import online.demo.api.enums.ApplianceCategory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.services.InventoryIndexService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = ApiApplication.class)
+@Import({InventoryIndexService.class, InventoryProperties.class, PagingProperties.class})
+class InventoryIndexQueryTest {
+
+    private static final int ITEMS = 6;
+
+    @Autowired
+    private InventoryIndexService inventoryIndexService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ApplianceModel un55 = applianceModel("UN55TU7000");
+        ApplianceModel un65 = applianceModel("UN65TU7000");
+
+        for (int i = 0; i < ITEMS; i++) {
+            Inventory inventory = new Inventory();
+            inventory.setSerial("BN44-0" + i);
+            inventory.setName("Power board " + i);
+            inventory.setQuantityNew(1);
+            inventory.setQuantityUsed(0);
+            inventory.setComponent(i < 4 ? Component.POWER_BOARD : Component.MAIN_BOARD);
+            inventory.setBrand(Brand.SAMSUNG);
+            inventory.setLocation(i % 2 == 0 ? "A1" : "B2");
+            inventory.setLastPrice(BigDecimal.valueOf(20 + 20 * i));
+            // Even items fit both models, odd items only the first one
+            inventory.setCompatibleApplianceModels(i % 2 == 0 ? List.of(un55, un65) : List.of(un55));
+            entityManager.persist(inventory);
+            ids.add(inventory.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Tests the rebuild method of InventoryIndexService.
+     * Verifies that the index is loaded with one statement for the items, one for the join table and one for the models.
+     */
+    @Test
+    void testRebuild_StatementsPerTable() {
+        inventoryIndexService.rebuild();
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(ids, inventoryIndexService.findCompatibleIds(List.of("un55"), ModelMatchMode.ALL));
+        assertEquals(List.of(ids.get(0), ids.get(2), ids.get(4)),
+                inventoryIndexService.findCompatibleIds(List.of("UN55", "UN65"), ModelMatchMode.ALL));
+    }
+
+    /**
+     * Tests the getCompatibleInventory method of InventoryIndexService.
+     * Verifies that a page takes a single statement loading only the items on it.
+     */
+    @Test
+    void testGetCompatibleInventory_LoadsOnlyThePage() {
+        inventoryIndexService.rebuild();
+        statistics.clear();
+
+        Page<Inventory> page = inventoryIndexService.getCompatibleInventory(List.of("UN55"), ModelMatchMode.ALL, 1, 2);
+
+        assertEquals(List.of(ids.get(2), ids.get(3)), page.getContent().stream().map(Inventory::getId).toList());
+        assertEquals(ITEMS, page.getTotalElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService.
+     * Verifies that the facets are counted in memory and only the items on the page are loaded, with a single statement.
+     */
+    @Test
+    void testGetInventoryFacets_LoadsOnlyThePage() {
+        inventoryIndexService.rebuild();
+        statistics.clear();
+
+        InventoryFacetsDTO facets = inventoryIndexService.getInventoryFacets(
+                List.of(Component.POWER_BOARD), null, List.of("A1"), null, null, 0, 20);
+
+        assertEquals(List.of(ids.get(0), ids.get(2)), facets.getItems().getContent().stream().map(Inventory::getId).toList());
+        assertEquals(Map.of(Component.POWER_BOARD, 2L, Component.MAIN_BOARD, 1L), facets.getComponents());
+        assertEquals(Map.of("A1", 2L, "B2", 2L), facets.getLocations());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the findIdsBySerial and findIdsByName methods of InventoryIndexService.
+     * Verifies that partial serials and names are resolved in memory, without any statement.
+     */
+    @Test
+    void testFindIdsBySerialAndName_NoStatements() {
+        inventoryIndexService.rebuild();
+        statistics.clear();
+
+        assertEquals(List.of(ids.get(3)), inventoryIndexService.findIdsBySerial("n44-03"));
+        assertEquals(List.of(ids.get(5)), inventoryIndexService.findIdsByName("POWER BOARD 5"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private ApplianceModel applianceModel(String name) {
+        ApplianceModel model = new ApplianceModel();
+        model.setModel(name);
+        model.setApplianceCategory(ApplianceCategory.values()[0]);
+        model.setBrand(Brand.values()[0]);
+        model.setManufactureYear(Year.of(2020));
+        entityManager.persist(model);
+        return model;
+    }
+}
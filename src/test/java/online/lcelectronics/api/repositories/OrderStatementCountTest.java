@@ -0,0 +1,387 @@
+package online.lcelectronics.api.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import online.demo.api.ApiApplication;
+import online.demo.api.dto.CursorPageDTO;
+import online.demo.api.config.OrderProperties;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.OrderFullDTO;
+import online.demo.api.dto.OrderStatusChangeDTO;
+import online.demo.api.dto.OrderStatusChangeResultDTO;
+import online.demo.api.dto.OrderStatusCountDTO;
+import online.demo.api.dto.OrderSummaryDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Client;
+import online.demo.api.entities.ClientPayment;
+import online.demo.api.entities.HistoricAppliance;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.Order;
+import online.demo.api.entities.OrderHistory;
+import online.demo.api.entities.RepairCost;
+import online.demo.api.enums.ApplianceCategory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.IdMatchMode;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.enums.StatusChangeOutcome;
+import online.demo.api.repositories.OrderHistoryRepository;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.services.OrderAggregateService;
+import online.demo.api.services.OrderService;
+import online.demo.api.services.OrderStatusBatchService;
+import online.demo.api.services.ReferenceValidationService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = ApiApplication.class)
+@Import({OrderService.class, ReferenceValidationService.class, OrderAggregateService.class, OrderStatusBatchService.class, OrderProperties.class, PagingProperties.class})
+class OrderStatementCountTest {
+
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderAggregateService orderAggregateService;
+
+    @Autowired
+    private OrderStatusBatchService orderStatusBatchService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private String referenceCode;
+
+    private Integer orderId;
+
+    private final List<Integer> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ApplianceModel model = new ApplianceModel();
+        model.setModel("Test model");
+        model.setApplianceCategory(ApplianceCategory.values()[0]);
+        model.setBrand(Brand.values()[0]);
+        model.setManufactureYear(Year.of(2020));
+        entityManager.persist(model);
+
+        for (int i = 0; i < ORDERS; i++) {
+            Client client = new Client();
+            client.setIdentityCard(1000L + i);
+            client.setName("Client " + i);
+            client.setPhone(3000000000L + i);
+            client.setAddress("Address " + i);
+            entityManager.persist(client);
+
+            HistoricAppliance historicAppliance = new HistoricAppliance();
+            historicAppliance.setSerial("SERIAL-" + i);
+            historicAppliance.setModel(model);
+            historicAppliance.setManufactureDate(new Date(0));
+            entityManager.persist(historicAppliance);
+
+            List<Image> images = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                Image image = new Image();
+                image.setMime("image/png");
+                image.setName("Image " + i + "-" + j);
+                image.setSize(1L);
+                entityManager.persist(image);
+                images.add(image);
+            }
+
+            Order order = new Order();
+            order.setClient(client);
+            order.setIssue("Issue " + i);
+            order.setProductReceivedNotes("Notes " + i);
+            order.setHistoricAppliance(historicAppliance);
+            order.setImages(images);
+            order.setStatus(OrderStatus.values()[0]);
+            order.setWarranty(false);
+            order.setReferenceCode("reference-code-" + i);
+            entityManager.persist(order);
+            referenceCode = order.getReferenceCode();
+            orderId = order.getId();
+            orderIds.add(orderId);
+
+            for (int j = 0; j < 2; j++) {
+                ClientPayment payment = new ClientPayment();
+                payment.setOrder(order);
+                payment.setAmount(new BigDecimal("10.00"));
+                entityManager.persist(payment);
+
+                RepairCost repairCost = new RepairCost();
+                repairCost.setOrder(order);
+                repairCost.setDescription("Cost " + i + "-" + j);
+                repairCost.setAmount(new BigDecimal("15.00"));
+                entityManager.persist(repairCost);
+
+                OrderHistory history = new OrderHistory();
+                history.setOrder(order);
+                history.setText("Event " + i + "-" + j);
+                entityManager.persist(history);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Tests the getAllOrders method of OrderService.
+     * Verifies that the summaries, with the client and appliance fields, are selected in a single statement
+     * without loading any entity.
+     */
+    @Test
+    void testGetAllOrders_SingleStatement() {
+        List<OrderSummaryDTO> orders = orderService.getAllOrders();
+
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(order -> assertNotNull(order.getClientName()));
+        orders.forEach(order -> assertEquals("Test model", order.getApplianceModel()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests the getOrdersByPageable method of OrderService.
+     * Verifies that a page takes the page query and the count query, whatever its size.
+     */
+    @Test
+    void testGetOrdersByPageable_StatementsPerPage() {
+        List<OrderSummaryDTO> orders = orderService.getOrdersByPageable(0, 3, "createdDate", "desc").getContent();
+
+        assertEquals(3, orders.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests the getLastFiveOrders method of OrderService.
+     * Verifies that the summaries are selected in a single statement, without a count.
+     */
+    @Test
+    void testGetLastFiveOrders_SingleStatement() {
+        List<OrderSummaryDTO> orders = orderService.getLastFiveOrders();
+
+        assertEquals(ORDERS, orders.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the getOrdersByCursor method of OrderService.
+     * Verifies that every page, however deep, takes a single seek query and no count,
+     * and that following the cursors visits every order once.
+     */
+    @Test
+    void testGetOrdersByCursor_StatementsPerPage() {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            // Each page is read in a request of its own
+            entityManager.clear();
+            statistics.clear();
+            CursorPageDTO<OrderSummaryDTO> page = orderService.getOrdersByCursor(cursor, 2, "desc");
+            page.getContent().forEach(order -> ids.add(order.getId()));
+            assertEquals(1, statistics.getPrepareStatementCount());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(ORDERS, ids.size());
+        assertEquals(ORDERS, ids.stream().distinct().count());
+    }
+
+    /**
+     * Tests the streamAllSummaries method of OrderRepository used by the export.
+     * Verifies that every order is streamed in ID order from a single statement without loading any entity.
+     */
+    @Test
+    void testStreamAllSummaries_SingleStatement() {
+        List<Integer> ids;
+        try (Stream<OrderSummaryDTO> orders = orderRepository.streamAllSummaries()) {
+            ids = orders.map(OrderSummaryDTO::getId).toList();
+        }
+
+        assertEquals(ORDERS, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Tests the countByStatus method of OrderRepository used to rebuild the status counters.
+     * Verifies that the orders are counted per status in a single statement.
+     */
+    @Test
+    void testCountByStatus_SingleStatement() {
+        List<OrderStatusCountDTO> counts = orderRepository.countByStatus();
+
+        assertEquals(1, counts.size());
+        assertEquals(OrderStatus.values()[0], counts.get(0).getStatus());
+        assertEquals(ORDERS, counts.get(0).getCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the getOrdersByCriteria method of OrderService.
+     * Verifies that the matching orders are loaded with their associations in a single statement.
+     */
+    @Test
+    void testGetOrdersByCriteria_SingleStatement() {
+        Order criteria = new Order();
+        criteria.setStatus(OrderStatus.values()[0]);
+
+        List<Order> orders = orderService.getOrdersByCriteria(criteria);
+
+        assertEquals(ORDERS, orders.size());
+        orders.forEach(this::touchAssociations);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the getOrdersByCriteria method of OrderService with each ID match mode.
+     * Verifies that the search code is filled when an order is saved, so partial ID searches find it.
+     */
+    @Test
+    void testGetOrdersByCriteria_IdMatchModes() {
+        Integer id = orderService.getOrderByReferenceCode(referenceCode).getId();
+        Order criteria = new Order();
+        criteria.setId(id);
+
+        assertEquals(List.of(id), orderService.getOrdersByCriteria(criteria, IdMatchMode.EXACT).stream().map(Order::getId).toList());
+        assertEquals(List.of(id), orderService.getOrdersByCriteria(criteria, IdMatchMode.PREFIX).stream().map(Order::getId).toList());
+        assertEquals(List.of(id), orderService.getOrdersByCriteria(criteria, IdMatchMode.CONTAINS).stream().map(Order::getId).toList());
+    }
+
+    /**
+     * Tests the fillMissingSearchCodes method of OrderService.
+     * Verifies that orders saved before the search code existed get theirs filled.
+     */
+    @Test
+    void testFillMissingSearchCodes() {
+        entityManager.getEntityManager().createQuery("UPDATE Order o SET o.searchCode = NULL").executeUpdate();
+
+        assertEquals(ORDERS, orderService.fillMissingSearchCodes());
+        assertEquals(0, orderService.fillMissingSearchCodes());
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderService.
+     * Verifies that the order is loaded with its associations in a single statement.
+     */
+    @Test
+    void testGetOrderByReferenceCode_SingleStatement() {
+        Order order = orderService.getOrderByReferenceCode(referenceCode);
+
+        touchAssociations(order);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the getOrderFull method of OrderAggregateService.
+     * Verifies that the order and each kind of related row take one statement each, and the balance is computed
+     * from the rows of that order only.
+     */
+    @Test
+    void testGetOrderFull_StatementPerKind() {
+        OrderFullDTO order = orderAggregateService.getOrderFull(orderId);
+
+        touchAssociations(order.getOrder());
+        assertEquals(2, order.getPayments().size());
+        assertEquals(2, order.getRepairCosts().size());
+        assertEquals(2, order.getHistory().size());
+        assertEquals(0, new BigDecimal("10.00").compareTo(order.getBalanceDue()));
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the updateOrderStatuses method of OrderStatusBatchService.
+     * Verifies that the orders are read and moved with one statement each, whatever their number,
+     * and that the history entries of the orders moved are written in a single batch.
+     */
+    @Test
+    void testUpdateOrderStatuses_StatementsPerChunk() {
+        List<OrderStatusChangeDTO> changes = new ArrayList<>();
+        orderIds.subList(0, 4).forEach(id -> changes.add(new OrderStatusChangeDTO(id, OrderStatus.DIAGNOSED)));
+        changes.add(new OrderStatusChangeDTO(orderIds.get(4), OrderStatus.JOINED));
+        long historyBefore = orderHistoryCount();
+        statistics.clear();
+
+        List<OrderStatusChangeResultDTO> results = orderStatusBatchService.updateOrderStatuses(changes);
+        entityManager.flush();
+
+        // The status select and update and the batched history insert, the IDs come from the block taken in setUp
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(4, results.stream().filter(result -> result.getOutcome() == StatusChangeOutcome.UPDATED).count());
+        assertEquals(StatusChangeOutcome.UNCHANGED, results.get(4).getOutcome());
+        assertEquals(historyBefore + 4, orderHistoryCount());
+        entityManager.clear();
+        assertEquals(OrderStatus.DIAGNOSED, orderRepository.findById(orderIds.get(0)).orElseThrow().getStatus());
+        assertEquals(OrderStatus.JOINED, orderRepository.findById(orderIds.get(4)).orElseThrow().getStatus());
+    }
+
+    /**
+     * Tests the saveAll method of OrderHistoryRepository with more entries than fit in one ID block.
+     * Verifies that IDs are taken from the sequence once per block and the inserts are sent in batches.
+     */
+    @Test
+    void testSaveAll_BatchedInserts() {
+        List<OrderHistory> entries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            OrderHistory entry = new OrderHistory();
+            entry.setOrder(orderRepository.getReferenceById(orderId));
+            entry.setText("Entry " + i);
+            entries.add(entry);
+        }
+
+        orderHistoryRepository.saveAll(entries);
+        entityManager.flush();
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        // Two more blocks of 50 IDs after the one taken in setUp and two batches of at most 100 inserts
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(120, entries.stream().map(OrderHistory::getId).distinct().count());
+    }
+
+    // Count the order history entries through the database, so entries written over JDBC are included
+    private long orderHistoryCount() {
+        return entityManager.getEntityManager().createQuery("SELECT COUNT(h) FROM OrderHistory h", Long.class).getSingleResult();
+    }
+
+    // Read the associations the way JSON serialization of the order does
+    private void touchAssociations(Order order) {
+        order.getClient().getName();
+        order.getHistoricAppliance().getModel().getModel();
+        order.getImages().forEach(Image::getName);
+    }
+}
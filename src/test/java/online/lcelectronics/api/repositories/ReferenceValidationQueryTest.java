@@ -0,0 +1,118 @@
+package online.lcelectronics.api.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import online.demo.api.ApiApplication;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Client;
+import online.demo.api.enums.ApplianceCategory;
+import online.demo.api.enums.Brand;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.services.ReferenceValidationService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = ApiApplication.class)
+@Import(ReferenceValidationService.class)
+class ReferenceValidationQueryTest {
+
+    @Autowired
+    private ReferenceValidationService referenceValidationService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Integer> modelIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("UN55TU7000", "UN65TU7000")) {
+            ApplianceModel model = new ApplianceModel();
+            model.setModel(name);
+            model.setApplianceCategory(ApplianceCategory.values()[0]);
+            model.setBrand(Brand.SAMSUNG);
+            model.setManufactureYear(Year.of(2020));
+            entityManager.persist(model);
+            modelIds.add(model.getId());
+        }
+        Client client = new Client();
+        client.setIdentityCard(1001L);
+        client.setName("Client");
+        client.setPhone(3001234567L);
+        client.setAddress("Street 1");
+        entityManager.persist(client);
+        entityManager.flush();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Tests the findMissingIds method of ReferenceValidationService.
+     * Verifies that every missing ID is returned once, in the order given, after a single statement.
+     */
+    @Test
+    void testFindMissingIds_SingleStatement() {
+        Set<Integer> missing = referenceValidationService.findMissingIds(ApplianceModel.class,
+                Arrays.asList(modelIds.get(0), 9999, null, modelIds.get(1), 9999, 8888));
+
+        assertEquals(Arrays.asList(9999, null, 8888), new ArrayList<>(missing));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the findMissingIds method of ReferenceValidationService with an entity whose ID is assigned.
+     * Verifies that the ID attribute is found from the mapping whatever its name.
+     */
+    @Test
+    void testFindMissingIds_AssignedId() {
+        assertEquals(Set.of(2002L), referenceValidationService.findMissingIds(Client.class, List.of(1001L, 2002L)));
+    }
+
+    /**
+     * Tests the findMissingIds method of ReferenceValidationService with more IDs than fit in a single query.
+     * Verifies that the IDs are checked in batches, one statement each.
+     */
+    @Test
+    void testFindMissingIds_Batches() {
+        List<Integer> ids = IntStream.range(100_000, 102_500).boxed().toList();
+
+        assertEquals(2500, referenceValidationService.findMissingIds(ApplianceModel.class, ids).size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests the requireExisting method of ReferenceValidationService.
+     * Verifies that the NotFoundException names every missing ID.
+     */
+    @Test
+    void testRequireExisting_NamesMissingIds() {
+        referenceValidationService.requireExisting(ApplianceModel.class, modelIds, "Appliance model");
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> referenceValidationService
+                .requireExisting(ApplianceModel.class, List.of(modelIds.get(0), 9999, 8888), "Appliance model"));
+        assertEquals("Appliance model not found with IDs: 9999, 8888", exception.getMessage());
+    }
+}
@@ -0,0 +1,132 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.ImageProperties;
+import online.demo.api.repositories.ImageBlobRepository;
+import online.demo.api.services.FileSystemImageContentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileSystemImageContentStoreTest {
+
+    private static final String CHECKSUM = "039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81";
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @TempDir
+    Path storeDir;
+
+    private FileSystemImageContentStore imageContentStore;
+
+    @BeforeEach
+    void setUp() {
+        ImageProperties imageProperties = new ImageProperties();
+        imageProperties.setStoreDir(storeDir);
+        imageContentStore = new FileSystemImageContentStore(imageProperties, imageBlobRepository);
+    }
+
+    /**
+     * Tests the put method of FileSystemImageContentStore.
+     * Verifies that the content is written to a file sharded by the checksum prefix.
+     */
+    @Test
+    void put() throws Exception {
+        imageContentStore.put(CHECKSUM, 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+
+        Path file = storeDir.resolve("03").resolve("90").resolve(CHECKSUM);
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(file));
+        try (var files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * Tests the put method of FileSystemImageContentStore with an invalid checksum.
+     * Ensures that an IllegalArgumentException is thrown instead of resolving a path outside the store.
+     */
+    @Test
+    void put_invalidChecksum() {
+        assertThrows(IllegalArgumentException.class,
+                () -> imageContentStore.put("../../etc/passwd", 3, new ByteArrayResource(new byte[]{1, 2, 3})));
+    }
+
+    /**
+     * Tests the copyTo method of FileSystemImageContentStore with stored content.
+     * Verifies that the file content is copied to the stream.
+     */
+    @Test
+    void copyTo_storedContent() {
+        imageContentStore.put(CHECKSUM, 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertTrue(imageContentStore.copyTo(CHECKSUM, outputStream));
+        assertArrayEquals(new byte[]{1, 2, 3}, outputStream.toByteArray());
+        verify(imageBlobRepository, never()).copyContentTo(CHECKSUM, outputStream);
+    }
+
+    /**
+     * Tests the copyRangeTo method of FileSystemImageContentStore with stored content.
+     * Verifies that only the requested window of the file is copied.
+     */
+    @Test
+    void copyRangeTo_storedContent() {
+        imageContentStore.put(CHECKSUM, 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertTrue(imageContentStore.copyRangeTo(CHECKSUM, 1, 5, outputStream));
+        assertArrayEquals(new byte[]{2, 3}, outputStream.toByteArray());
+    }
+
+    /**
+     * Tests the copyTo method of FileSystemImageContentStore with content not migrated yet.
+     * Verifies that the content is read from the database.
+     */
+    @Test
+    void copyTo_contentInDatabase() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageBlobRepository.copyContentTo(CHECKSUM, outputStream)).thenReturn(true);
+
+        assertTrue(imageContentStore.copyTo(CHECKSUM, outputStream));
+    }
+
+    /**
+     * Tests the delete method of FileSystemImageContentStore with unreferenced content.
+     * Verifies that the file is deleted.
+     */
+    @Test
+    void delete_unreferencedContent() {
+        imageContentStore.put(CHECKSUM, 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+        when(imageBlobRepository.existsById(CHECKSUM)).thenReturn(false);
+
+        imageContentStore.delete(CHECKSUM);
+
+        assertFalse(Files.exists(storeDir.resolve("03").resolve("90").resolve(CHECKSUM)));
+    }
+
+    /**
+     * Tests the delete method of FileSystemImageContentStore with content referenced again.
+     * Verifies that the file is kept.
+     */
+    @Test
+    void delete_referencedAgain() {
+        imageContentStore.put(CHECKSUM, 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+        when(imageBlobRepository.existsById(CHECKSUM)).thenReturn(true);
+
+        imageContentStore.delete(CHECKSUM);
+
+        assertTrue(Files.exists(storeDir.resolve("03").resolve("90").resolve(CHECKSUM)));
+    }
+}
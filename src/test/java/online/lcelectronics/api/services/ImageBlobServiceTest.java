@@ -0,0 +1,145 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.entities.ImageVariant;
+import online.demo.api.repositories.ImageBlobRepository;
+import online.demo.api.repositories.ImageVariantRepository;
+import online.demo.api.services.ImageBlobService;
+import online.demo.api.services.ImageContentStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageBlobServiceTest {
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ImageContentStore imageContentStore;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    @InjectMocks
+    private ImageBlobService imageBlobService;
+
+    /**
+     * Tests the acquire method of ImageBlobService with content that is already stored.
+     * Verifies that only the reference count is incremented and the content is never read.
+     */
+    @Test
+    void acquire_storedContent() throws Exception {
+        InputStreamSource content = mock(InputStreamSource.class);
+        when(imageBlobRepository.incrementReferenceCount("abc")).thenReturn(1);
+
+        imageBlobService.acquire("abc", 3, content);
+
+        verify(content, never()).getInputStream();
+        verify(imageBlobRepository, never()).insertBlob(any(), anyLong());
+        verify(imageContentStore, never()).put(any(), anyLong(), any());
+    }
+
+    /**
+     * Tests the acquire method of ImageBlobService with new content.
+     * Verifies that the blob is inserted and its content put in the store.
+     */
+    @Test
+    void acquire_newContent() {
+        ByteArrayResource content = new ByteArrayResource(new byte[]{1, 2, 3});
+        when(imageBlobRepository.incrementReferenceCount("abc")).thenReturn(0);
+
+        imageBlobService.acquire("abc", 3, content);
+
+        verify(imageBlobRepository, times(1)).insertBlob("abc", 3L);
+        verify(imageContentStore, times(1)).put("abc", 3L, content);
+    }
+
+    /**
+     * Tests the acquire method of ImageBlobService when the same content is stored concurrently.
+     * Verifies that the reference count is incremented after the duplicate insert.
+     */
+    @Test
+    void acquire_concurrentlyStoredContent() {
+        when(imageBlobRepository.incrementReferenceCount("abc")).thenReturn(0, 1);
+        doThrow(new DuplicateKeyException("duplicate")).when(imageBlobRepository).insertBlob("abc", 3L);
+
+        imageBlobService.acquire("abc", 3, new ByteArrayResource(new byte[]{1, 2, 3}));
+
+        verify(imageBlobRepository, times(2)).incrementReferenceCount("abc");
+        verify(imageContentStore, never()).put(any(), anyLong(), any());
+    }
+
+    /**
+     * Tests the release method of ImageBlobService.
+     * Verifies that the reference count is decremented and unreferenced content deleted from the store.
+     */
+    @Test
+    void release() {
+        when(imageBlobRepository.deleteUnreferenced("abc")).thenReturn(1);
+
+        imageBlobService.release("abc");
+
+        verify(imageBlobRepository, times(1)).decrementReferenceCount("abc");
+        verify(imageContentStore, times(1)).delete("abc");
+    }
+
+    /**
+     * Tests the release method of ImageBlobService with content that has thumbnails.
+     * Verifies that the thumbnails are deleted and their content released along with the source.
+     */
+    @Test
+    void release_withVariants() {
+        ImageVariant variant = new ImageVariant();
+        variant.setSourceChecksum("abc");
+        variant.setWidth(200);
+        variant.setChecksum("def");
+        when(imageBlobRepository.deleteUnreferenced("abc")).thenReturn(1);
+        when(imageBlobRepository.deleteUnreferenced("def")).thenReturn(1);
+        when(imageVariantRepository.findBySourceChecksum("abc")).thenReturn(List.of(variant));
+
+        imageBlobService.release("abc");
+
+        verify(imageVariantRepository, times(1)).delete(variant);
+        verify(imageBlobRepository, times(1)).decrementReferenceCount("def");
+        verify(imageContentStore, times(1)).delete("def");
+    }
+
+    /**
+     * Tests the release method of ImageBlobService with content still referenced by other images.
+     * Verifies that the content is kept in the store.
+     */
+    @Test
+    void release_stillReferenced() {
+        when(imageBlobRepository.deleteUnreferenced("abc")).thenReturn(0);
+
+        imageBlobService.release("abc");
+
+        verify(imageContentStore, never()).delete("abc");
+    }
+
+    /**
+     * Tests the writeContent method of ImageBlobService.
+     * Verifies that the content is copied from the store.
+     */
+    @Test
+    void writeContent() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageContentStore.copyTo("abc", outputStream)).thenReturn(true);
+
+        assertTrue(imageBlobService.writeContent("abc", outputStream));
+    }
+}
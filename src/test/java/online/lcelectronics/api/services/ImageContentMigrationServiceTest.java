@@ -0,0 +1,112 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.ImageProperties;
+import online.demo.api.repositories.ImageBlobRepository;
+import online.demo.api.repositories.ImageRepository;
+import online.demo.api.services.ImageBlobService;
+import online.demo.api.services.ImageContentMigrationService;
+import online.demo.api.services.ImageContentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageContentMigrationServiceTest {
+
+    private static final String CHECKSUM = "039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81";
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ImageBlobService imageBlobService;
+
+    @Mock
+    private ImageContentStore imageContentStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ImageProperties imageProperties;
+
+    private ImageContentMigrationService imageContentMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        imageProperties = new ImageProperties();
+        imageProperties.setMigrationBatchSize(2);
+        imageContentMigrationService = new ImageContentMigrationService(imageRepository, imageBlobRepository,
+                imageBlobService, imageContentStore, imageProperties, transactionTemplate);
+    }
+
+    /**
+     * Tests the migrateLegacyContent method of ImageContentMigrationService.
+     * Verifies that images are walked in batches and each is pointed at content stored by its checksum.
+     */
+    @Test
+    void migrateLegacyContent() {
+        runTransactions();
+        when(imageRepository.findIdsWithLegacyContent(0, PageRequest.of(0, 2))).thenReturn(List.of(1, 2));
+        when(imageRepository.findIdsWithLegacyContent(2, PageRequest.of(0, 2))).thenReturn(List.of(3));
+        when(imageRepository.copyContentTo(any(Integer.class), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write(new byte[]{1, 2, 3});
+            return true;
+        });
+
+        assertEquals(3, imageContentMigrationService.migrateLegacyContent());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(imageBlobService, times(3)).acquire(eq(CHECKSUM), eq(3L), any());
+        verify(imageRepository, times(1)).moveContentToBlob(3, CHECKSUM, 3L);
+    }
+
+    /**
+     * Tests the migrateBlobContent method of ImageContentMigrationService with the database store.
+     * Verifies that nothing is moved.
+     */
+    @Test
+    void migrateBlobContent_databaseStore() {
+        assertEquals(0, imageContentMigrationService.migrateBlobContent());
+        verifyNoInteractions(imageBlobRepository, imageContentStore);
+    }
+
+    /**
+     * Tests the migrateBlobContent method of ImageContentMigrationService with the filesystem store.
+     * Verifies that shared content is put in the store and dropped from the database.
+     */
+    @Test
+    void migrateBlobContent_fileSystemStore() {
+        runTransactions();
+        imageProperties.setStore(ImageProperties.Store.FILESYSTEM);
+        when(imageBlobRepository.findChecksumsWithContent("", PageRequest.of(0, 2))).thenReturn(List.of(CHECKSUM));
+        when(imageBlobRepository.copyContentTo(eq(CHECKSUM), any(OutputStream.class))).thenReturn(true);
+
+        assertEquals(1, imageContentMigrationService.migrateBlobContent());
+        verify(imageContentStore, times(1)).put(eq(CHECKSUM), anyLong(), any());
+        verify(imageBlobRepository, times(1)).clearContent(CHECKSUM);
+    }
+
+    // Run transaction callbacks directly
+    @SuppressWarnings("unchecked")
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+}
@@ -0,0 +1,246 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.ImageProperties;
+import online.demo.api.dto.ImageSummaryDTO;
+import online.demo.api.events.ImageContentChangedEvent;
+import online.demo.api.repositories.ImageRepository;
+import online.demo.api.services.ImageBlobService;
+import online.demo.api.services.ImageOptimizationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageOptimizationServiceTest {
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageBlobService imageBlobService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ImageProperties imageProperties;
+
+    private ImageOptimizationService imageOptimizationService;
+
+    @BeforeEach
+    void setUp() {
+        imageProperties = new ImageProperties();
+        imageProperties.setOptimizeMaxDimension(20);
+        imageOptimizationService = new ImageOptimizationService(imageRepository, imageBlobService, imageProperties, transactionTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageOptimizationService.shutdown();
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with a large JPEG.
+     * Verifies that it is scaled down, the optimized content swapped in and the original released.
+     */
+    @Test
+    void optimizeImage_largeJpeg() throws Exception {
+        byte[] original = noise(400, 200, "jpg");
+        stubImage("image/jpeg", original);
+        runTransactions();
+        when(imageRepository.replaceContent(eq(1), eq("abc"), anyString(), anyLong(), isNull(), any())).thenReturn(1);
+        ArgumentCaptor<InputStreamSource> optimized = ArgumentCaptor.forClass(InputStreamSource.class);
+
+        assertTrue(imageOptimizationService.optimizeImage(1, "abc"));
+
+        verify(imageBlobService).acquire(anyString(), anyLong(), optimized.capture());
+        BufferedImage optimizedImage = ImageIO.read(optimized.getValue().getInputStream());
+        assertEquals(20, optimizedImage.getWidth());
+        assertEquals(10, optimizedImage.getHeight());
+        verify(imageBlobService, times(1)).release("abc");
+        assertEquals(1, imageOptimizationService.getStats().getOptimizedImages());
+        assertTrue(imageOptimizationService.getStats().getBytesSaved() > 0);
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with a photo taken with a rotated camera.
+     * Verifies that the image is turned upright before its metadata is dropped.
+     */
+    @Test
+    void optimizeImage_exifOrientation() throws Exception {
+        byte[] original = withExifOrientation(noise(400, 200, "jpg"), 6);
+        stubImage("image/jpeg", original);
+        runTransactions();
+        when(imageRepository.replaceContent(eq(1), eq("abc"), anyString(), anyLong(), isNull(), any())).thenReturn(1);
+        ArgumentCaptor<InputStreamSource> optimized = ArgumentCaptor.forClass(InputStreamSource.class);
+
+        assertTrue(imageOptimizationService.optimizeImage(1, "abc"));
+
+        verify(imageBlobService).acquire(anyString(), anyLong(), optimized.capture());
+        BufferedImage optimizedImage = ImageIO.read(optimized.getValue().getInputStream());
+        assertEquals(10, optimizedImage.getWidth());
+        assertEquals(20, optimizedImage.getHeight());
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with originals kept.
+     * Verifies that the original is recorded and not released.
+     */
+    @Test
+    void optimizeImage_keepOriginal() throws Exception {
+        imageProperties.setKeepOriginals(true);
+        stubImage("image/jpeg", noise(400, 200, "jpg"));
+        runTransactions();
+        when(imageRepository.replaceContent(eq(1), eq("abc"), anyString(), anyLong(), eq("abc"), any())).thenReturn(1);
+
+        assertTrue(imageOptimizationService.optimizeImage(1, "abc"));
+        verify(imageBlobService, never()).release(any());
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with an image changed while it was re-encoded.
+     * Verifies that the optimized content is not stored.
+     */
+    @Test
+    void optimizeImage_changedMeanwhile() throws Exception {
+        stubImage("image/jpeg", noise(400, 200, "jpg"));
+        runTransactions();
+        when(imageRepository.replaceContent(eq(1), eq("abc"), anyString(), anyLong(), isNull(), any())).thenReturn(0);
+
+        assertFalse(imageOptimizationService.optimizeImage(1, "abc"));
+        verify(imageBlobService, never()).acquire(any(), anyLong(), any());
+        assertEquals(1, imageOptimizationService.getStats().getSkippedImages());
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with an image that no longer has that content.
+     * Verifies that it is skipped without reading any content.
+     */
+    @Test
+    void optimizeImage_staleChecksum() {
+        when(imageRepository.findSummaryById(1)).thenReturn(Optional.of(new ImageSummaryDTO(1, "Photo", "image/jpeg", 3L, "def", null)));
+
+        assertFalse(imageOptimizationService.optimizeImage(1, "abc"));
+        verifyNoInteractions(imageBlobService);
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with an unsupported format.
+     * Verifies that it is skipped without reading any content.
+     */
+    @Test
+    void optimizeImage_unsupportedFormat() {
+        when(imageRepository.findSummaryById(1)).thenReturn(Optional.of(new ImageSummaryDTO(1, "Animation", "image/gif", 3L, "abc", null)));
+
+        assertFalse(imageOptimizationService.optimizeImage(1, "abc"));
+        verifyNoInteractions(imageBlobService);
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with a small PNG.
+     * Verifies that it is kept as uploaded when re-encoding does not make it smaller.
+     */
+    @Test
+    void optimizeImage_noSaving() throws Exception {
+        imageProperties.setOptimizeMaxDimension(2560);
+        stubImage("image/png", encode(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png"));
+
+        assertFalse(imageOptimizationService.optimizeImage(1, "abc"));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    /**
+     * Tests the optimizeImage method of ImageOptimizationService with an image larger than the pixel limit.
+     * Verifies that it is kept as uploaded without being decoded.
+     */
+    @Test
+    void optimizeImage_tooManyPixels() throws Exception {
+        imageProperties.setMaxPixels(400 * 200 - 1);
+        stubImage("image/jpeg", noise(400, 200, "jpg"));
+
+        assertFalse(imageOptimizationService.optimizeImage(1, "abc"));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    /**
+     * Tests the onImageContentChanged method of ImageOptimizationService with optimization disabled.
+     * Verifies that the image is not queued.
+     */
+    @Test
+    void onImageContentChanged_disabled() {
+        imageOptimizationService.onImageContentChanged(new ImageContentChangedEvent(1, "abc"));
+
+        verifyNoInteractions(imageRepository);
+    }
+
+    // Stub an image pointing at the given content
+    private void stubImage(String mime, byte[] content) {
+        when(imageRepository.findSummaryById(1)).thenReturn(Optional.of(new ImageSummaryDTO(1, "Photo", mime, (long) content.length, "abc", null)));
+        when(imageBlobService.writeContent(eq("abc"), any(OutputStream.class))).thenAnswer(invocation -> {
+            ((OutputStream) invocation.getArgument(1)).write(content);
+            return true;
+        });
+    }
+
+    // Run transaction callbacks directly
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    // Encode an image of random pixels, which compresses poorly like a photo
+    private byte[] noise(int width, int height, String format) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        return encode(image, format);
+    }
+
+    // Encode an image in the given format
+    private byte[] encode(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    // Insert an EXIF segment holding only the given orientation right after the start of a JPEG
+    private byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                (byte) 0xFF, (byte) 0xE1, 0x00, 0x22,
+                'E', 'x', 'i', 'f', 0x00, 0x00,
+                'M', 'M', 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08,
+                0x00, 0x01,
+                0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, (byte) orientation, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00
+        };
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(jpeg, 0, 2);
+        outputStream.write(exif, 0, exif.length);
+        outputStream.write(jpeg, 2, jpeg.length - 2);
+        return outputStream.toByteArray();
+    }
+}
@@ -1,22 +1,39 @@
 package online.lcelectronics.api.services;
 
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.ImageSummaryDTO;
 import online.demo.api.entities.Image;
+import online.demo.api.events.ImageContentChangedEvent;
 import online.demo.api.exceptions.NotFoundException;
 import online.demo.api.repositories.ImageRepository;
+import online.demo.api.services.ImageBlobService;
 import online.demo.api.services.ImageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
-import java.util.ArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +42,15 @@ class ImageServiceTest {
     @Mock
     private ImageRepository imageRepository;
 
+    @Mock
+    private ImageBlobService imageBlobService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private PagingProperties pagingProperties = new PagingProperties();
+
     @InjectMocks
     private ImageService imageService;
 
@@ -41,17 +67,44 @@ class ImageServiceTest {
 
     /**
      * Tests the getAllImages method of ImageService.
-     * Verifies that all images are returned.
+     * Verifies that the metadata of all images is returned without loading any content.
      */
     @Test
     void getAllImages() {
-        List<Image> images = new ArrayList<>();
-        images.add(image);
-        when(imageRepository.findAll()).thenReturn(images);
+        ImageSummaryDTO summary = new ImageSummaryDTO(1, "Test Image", "image/jpeg", 3L, "abc", null);
+        when(imageRepository.findAllSummaries()).thenReturn(List.of(summary));
 
-        List<Image> result = imageService.getAllImages();
-        assertEquals(1, result.size());
-        assertEquals(image, result.get(0));
+        List<ImageSummaryDTO> result = imageService.getAllImages();
+        assertEquals(List.of(summary), result);
+        verify(imageRepository, never()).findAll();
+    }
+
+    /**
+     * Tests the getImageCatalog method of ImageService.
+     * Verifies that the metadata page from the repository is returned.
+     */
+    @Test
+    void getImageCatalog() {
+        ImageSummaryDTO summary = new ImageSummaryDTO(1, "Test Image", "image/jpeg", 3L, "abc", null);
+        Page<ImageSummaryDTO> page = new PageImpl<>(List.of(summary));
+        when(imageRepository.findAllSummaries(any(Pageable.class))).thenReturn(page);
+
+        Page<ImageSummaryDTO> result = imageService.getImageCatalog(0, 10, null, null);
+        assertEquals(page, result);
+    }
+
+    /**
+     * Tests the getImageCatalog method of ImageService with a page size above the maximum.
+     * Verifies that the page is reduced to the configured maximum size.
+     */
+    @Test
+    void getImageCatalog_sizeAboveMaximum() {
+        pagingProperties.setMaxPageSize(50);
+        when(imageRepository.findAllSummaries(any(Pageable.class))).thenReturn(Page.empty());
+
+        imageService.getImageCatalog(0, Integer.MAX_VALUE, null, null);
+
+        verify(imageRepository).findAllSummaries(PageRequest.of(0, 50, Sort.by(Sort.Direction.ASC, "id")));
     }
 
     /**
@@ -66,6 +119,25 @@ class ImageServiceTest {
         assertEquals(image, result);
     }
 
+    /**
+     * Tests the getImageById method of ImageService with an image whose content is shared.
+     * Verifies that the content is read from the blob store.
+     */
+    @Test
+    void getImageById_sharedContent() {
+        image.setContent(null);
+        image.setChecksum("abc");
+        when(imageRepository.findById(1)).thenReturn(Optional.of(image));
+        when(imageBlobService.writeContent(eq("abc"), any(ByteArrayOutputStream.class))).thenAnswer(invocation -> {
+            ByteArrayOutputStream outputStream = invocation.getArgument(1);
+            outputStream.write(new byte[]{1, 2, 3});
+            return true;
+        });
+
+        Image result = imageService.getImageById(1);
+        assertArrayEquals(new byte[]{1, 2, 3}, result.getContent());
+    }
+
     /**
      * Tests the getImageById method of ImageService with a non-existing ID.
      * Verifies that a NotFoundException is thrown.
@@ -77,6 +149,96 @@ class ImageServiceTest {
         assertThrows(NotFoundException.class, () -> imageService.getImageById(1));
     }
 
+    /**
+     * Tests the getImageSummary method of ImageService with an existing ID.
+     * Verifies that the image metadata is returned.
+     */
+    @Test
+    void getImageSummary_existingId() {
+        ImageSummaryDTO summary = new ImageSummaryDTO(1, "Test Image", "image/jpeg", 3L, "abc", null);
+        when(imageRepository.findSummaryById(1)).thenReturn(Optional.of(summary));
+
+        assertEquals(summary, imageService.getImageSummary(1));
+    }
+
+    /**
+     * Tests the getImageSummary method of ImageService with a non-existing ID.
+     * Verifies that a NotFoundException is thrown.
+     */
+    @Test
+    void getImageSummary_nonExistingId() {
+        when(imageRepository.findSummaryById(1)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> imageService.getImageSummary(1));
+    }
+
+    /**
+     * Tests the writeImageContent method of ImageService with an image holding legacy content.
+     * Verifies that the content is copied by the repository to the given stream.
+     */
+    @Test
+    void writeImageContent_existingId() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageRepository.copyContentTo(1, outputStream)).thenReturn(true);
+
+        imageService.writeImageContent(1, outputStream);
+        verify(imageRepository, times(1)).copyContentTo(1, outputStream);
+    }
+
+    /**
+     * Tests the writeImageContent method of ImageService with an image whose content is shared.
+     * Verifies that the content is copied from the blob store.
+     */
+    @Test
+    void writeImageContent_sharedContent() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageBlobService.writeContent("abc", outputStream)).thenReturn(true);
+
+        imageService.writeImageContent(1, outputStream);
+        verify(imageRepository, never()).copyContentTo(1, outputStream);
+    }
+
+    /**
+     * Tests the writeImageContent method of ImageService with a byte range of shared content.
+     * Verifies that only the window is copied from the blob store.
+     */
+    @Test
+    void writeImageContent_sharedContentRange() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageBlobService.writeContent("abc", 1L, 2L, outputStream)).thenReturn(true);
+
+        imageService.writeImageContent(1, 1L, 2L, outputStream);
+        verify(imageBlobService, never()).writeContent("abc", outputStream);
+    }
+
+    /**
+     * Tests the writeImageContent method of ImageService with a byte range of legacy content.
+     * Verifies that only the window is copied by the repository.
+     */
+    @Test
+    void writeImageContent_legacyContentRange() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.empty());
+        when(imageRepository.copyContentRangeTo(1, 1L, 2L, outputStream)).thenReturn(true);
+
+        imageService.writeImageContent(1, 1L, 2L, outputStream);
+        verify(imageRepository, never()).copyContentTo(1, outputStream);
+    }
+
+    /**
+     * Tests the writeImageContent method of ImageService with a non-existing ID.
+     * Verifies that a NotFoundException is thrown.
+     */
+    @Test
+    void writeImageContent_nonExistingId() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(imageRepository.copyContentTo(1, outputStream)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> imageService.writeImageContent(1, outputStream));
+    }
+
     /**
      * Tests the saveImage method of ImageService with a valid image.
      * Verifies that the image is saved successfully.
@@ -87,6 +249,44 @@ class ImageServiceTest {
 
         Image result = imageService.saveImage(image);
         assertEquals(image, result);
+        assertEquals(3L, image.getSize());
+        assertEquals("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81", image.getChecksum());
+        assertNull(image.getContent());
+        verify(imageBlobService, times(1)).acquire(eq(image.getChecksum()), eq(3L), any());
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ImageContentChangedEvent.class));
+    }
+
+    /**
+     * Tests the saveImage method of ImageService without content.
+     * Verifies that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void saveImage_withoutContent() {
+        image.setContent(null);
+        image.setSize(3L);
+
+        assertThrows(IllegalArgumentException.class, () -> imageService.saveImage(image));
+        verify(imageRepository, never()).save(any(Image.class));
+    }
+
+    /**
+     * Tests the saveImageContent method of ImageService with a staged file.
+     * Verifies that the staged content is stored by checksum and the metadata saved.
+     */
+    @Test
+    void saveImageContent(@TempDir Path directory) throws IOException {
+        Path content = Files.write(directory.resolve("image.part"), new byte[]{1, 2, 3});
+        when(imageRepository.saveAndFlush(any(Image.class))).thenAnswer(invocation -> {
+            Image saved = invocation.getArgument(0);
+            saved.setId(1);
+            return saved;
+        });
+
+        Image result = imageService.saveImageContent("Test Image", "image/jpeg", content);
+
+        assertEquals(3L, result.getSize());
+        assertEquals("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81", result.getChecksum());
+        verify(imageBlobService, times(1)).acquire(eq(result.getChecksum()), eq(3L), any());
     }
 
     /**
@@ -95,11 +295,38 @@ class ImageServiceTest {
      */
     @Test
     void updateImage_existingImage() {
-        when(imageRepository.existsById(1)).thenReturn(true);
-        when(imageRepository.saveAndFlush(any(Image.class))).thenReturn(image);
+        Image existingImage = new Image();
+        existingImage.setId(1);
+        existingImage.setChecksum("abc");
+        existingImage.setSize(2L);
+        when(imageRepository.findById(1)).thenReturn(Optional.of(existingImage));
+        when(imageRepository.saveAndFlush(any(Image.class))).thenReturn(existingImage);
 
         Image result = imageService.updateImage(image);
-        assertEquals(image, result);
+        assertEquals(existingImage, result);
+        assertEquals("Test Image", result.getName());
+        assertEquals(3L, result.getSize());
+        verify(imageBlobService, times(1)).acquire(eq(result.getChecksum()), eq(3L), any());
+        verify(imageBlobService, times(1)).release("abc");
+    }
+
+    /**
+     * Tests the updateImage method of ImageService without new content.
+     * Verifies that the image keeps pointing at its stored content.
+     */
+    @Test
+    void updateImage_withoutContent() {
+        Image existingImage = new Image();
+        existingImage.setId(1);
+        existingImage.setChecksum("abc");
+        image.setContent(null);
+        when(imageRepository.findById(1)).thenReturn(Optional.of(existingImage));
+        when(imageRepository.saveAndFlush(existingImage)).thenReturn(existingImage);
+
+        Image result = imageService.updateImage(image);
+        assertEquals("abc", result.getChecksum());
+        verify(imageBlobService, never()).acquire(any(), anyLong(), any());
+        verify(imageBlobService, never()).release(any());
     }
 
     /**
@@ -108,7 +335,7 @@ class ImageServiceTest {
      */
     @Test
     void updateImage_nonExistingImage() {
-        when(imageRepository.existsById(1)).thenReturn(false);
+        when(imageRepository.findById(1)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> imageService.updateImage(image));
     }
@@ -121,7 +348,24 @@ class ImageServiceTest {
     void deleteImageById_existingId() {
         doNothing().when(imageRepository).deleteById(1);
 
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+
         imageService.deleteImageById(1);
         verify(imageRepository, times(1)).deleteById(1);
+        verify(imageBlobService, times(1)).release("abc");
+    }
+
+    /**
+     * Tests the deleteImageById method of ImageService with an optimized image whose original was kept.
+     * Verifies that both the optimized content and the original are released.
+     */
+    @Test
+    void deleteImageById_keptOriginal() {
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageRepository.findOriginalChecksumById(1)).thenReturn(Optional.of("def"));
+
+        imageService.deleteImageById(1);
+        verify(imageBlobService, times(1)).release("abc");
+        verify(imageBlobService, times(1)).release("def");
     }
 }
@@ -0,0 +1,246 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.ImageProperties;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.ImageUpload;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.repositories.ImageUploadRepository;
+import online.demo.api.services.ImageService;
+import online.demo.api.services.ImageUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageUploadServiceTest {
+
+    @Mock
+    private ImageUploadRepository imageUploadRepository;
+
+    @Mock
+    private ImageService imageService;
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageUploadService imageUploadService;
+
+    private ImageUpload upload;
+
+    @BeforeEach
+    void setUp() {
+        ImageProperties imageProperties = new ImageProperties();
+        imageProperties.setUploadDir(uploadDir);
+        imageProperties.setMaxSize(DataSize.ofBytes(8));
+        imageUploadService = new ImageUploadService(imageUploadRepository, imageService, imageProperties);
+
+        upload = new ImageUpload();
+        upload.setName("Test Image");
+        upload.setMime("image/png");
+    }
+
+    /**
+     * Tests the startUpload method of ImageUploadService.
+     * Verifies that an ID is assigned and an empty staging file is created.
+     */
+    @Test
+    void startUpload() {
+        when(imageUploadRepository.save(upload)).thenReturn(upload);
+
+        ImageUpload result = imageUploadService.startUpload(upload);
+
+        assertNotNull(result.getId());
+        assertEquals(0L, result.getReceivedBytes());
+        assertTrue(Files.exists(uploadDir.resolve(result.getId() + ".part")));
+    }
+
+    /**
+     * Tests the getUpload method of ImageUploadService with a non-existing ID.
+     * Verifies that a NotFoundException is thrown.
+     */
+    @Test
+    void getUpload_nonExistingId() {
+        when(imageUploadRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> imageUploadService.getUpload("missing"));
+    }
+
+    /**
+     * Tests the appendChunk method of ImageUploadService with consecutive chunks.
+     * Verifies that the chunks are appended holding the lock of the upload row and the received bytes are reported.
+     */
+    @Test
+    void appendChunk_consecutiveChunks() {
+        startStagedUpload();
+
+        imageUploadService.appendChunk(upload.getId(), 0, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        ImageUpload result = imageUploadService.appendChunk(upload.getId(), 3, new ByteArrayInputStream(new byte[]{4, 5}));
+
+        assertEquals(5L, result.getReceivedBytes());
+        verify(imageUploadRepository, times(2)).findByIdForUpdate(upload.getId());
+    }
+
+    /**
+     * Tests the appendChunk method of ImageUploadService with an upload that was committed or discarded.
+     * Verifies that a NotFoundException is thrown and no staging file is created.
+     */
+    @Test
+    void appendChunk_nonExistingUpload() {
+        when(imageUploadRepository.findByIdForUpdate("committed")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> imageUploadService.appendChunk("committed", 0, new ByteArrayInputStream(new byte[]{1})));
+        assertFalse(Files.exists(uploadDir.resolve("committed.part")));
+    }
+
+    /**
+     * Tests the appendChunk method of ImageUploadService with an offset that was already received.
+     * Verifies that an IllegalArgumentException is thrown and nothing is written twice.
+     */
+    @Test
+    void appendChunk_wrongOffset() {
+        startStagedUpload();
+        imageUploadService.appendChunk(upload.getId(), 0, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> imageUploadService.appendChunk(upload.getId(), 0, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        assertEquals(3L, imageUploadService.getUpload(upload.getId()).getReceivedBytes());
+    }
+
+    /**
+     * Tests the appendChunk method of ImageUploadService with a chunk that exceeds the maximum size.
+     * Verifies that an IllegalArgumentException is thrown and the chunk is discarded.
+     */
+    @Test
+    void appendChunk_exceedsMaxSize() {
+        startStagedUpload();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> imageUploadService.appendChunk(upload.getId(), 0, new ByteArrayInputStream(new byte[9])));
+        assertEquals(0L, imageUploadService.getUpload(upload.getId()).getReceivedBytes());
+    }
+
+    /**
+     * Tests the commitUpload method of ImageUploadService.
+     * Verifies that the staged content is saved as an image and the upload is discarded.
+     */
+    @Test
+    void commitUpload() {
+        startStagedUpload();
+        imageUploadService.appendChunk(upload.getId(), 0, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        Path stagingFile = uploadDir.resolve(upload.getId() + ".part");
+        Image image = new Image();
+        when(imageUploadRepository.findByIdForUpdate(upload.getId())).thenReturn(Optional.of(upload));
+        when(imageService.saveImageContent("Test Image", "image/png", stagingFile)).thenReturn(image);
+
+        Image result = imageUploadService.commitUpload(upload.getId());
+
+        assertEquals(image, result);
+        verify(imageUploadRepository, times(1)).delete(upload);
+        assertFalse(Files.exists(stagingFile));
+    }
+
+    /**
+     * Tests the commitUpload method of ImageUploadService with an upload that was already committed.
+     * Verifies that a NotFoundException is thrown and the content is not saved again.
+     */
+    @Test
+    void commitUpload_alreadyCommitted() {
+        when(imageUploadRepository.findByIdForUpdate("committed")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> imageUploadService.commitUpload("committed"));
+        verify(imageService, never()).saveImageContent(any(), any(), any());
+    }
+
+    /**
+     * Tests the commitUpload method of ImageUploadService without any chunk received.
+     * Verifies that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void commitUpload_empty() {
+        startStagedUpload();
+        when(imageUploadRepository.findByIdForUpdate(upload.getId())).thenReturn(Optional.of(upload));
+
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.commitUpload(upload.getId()));
+        verify(imageService, never()).saveImageContent(any(), any(), any());
+    }
+
+    /**
+     * Tests the expireUploads method of ImageUploadService.
+     * Verifies that expired uploads are discarded with their staged content, old staging files without an upload
+     * are deleted, and recent staging files are kept.
+     */
+    @Test
+    void expireUploads() throws IOException {
+        startStagedUpload();
+        Path stagingFile = uploadDir.resolve(upload.getId() + ".part");
+        Files.setLastModifiedTime(stagingFile, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        Path orphan = Files.write(uploadDir.resolve("orphan.part"), new byte[]{1});
+        Files.setLastModifiedTime(orphan, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        Path recent = Files.write(uploadDir.resolve("recent.part"), new byte[]{1});
+        when(imageUploadRepository.findByCreatedAtBefore(any())).thenReturn(List.of(upload));
+        when(imageUploadRepository.existsById("orphan")).thenReturn(false);
+
+        imageUploadService.expireUploads();
+
+        verify(imageUploadRepository, times(1)).deleteById(upload.getId());
+        assertFalse(Files.exists(stagingFile));
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(recent));
+    }
+
+    /**
+     * Tests the saveMultipartImage method of ImageUploadService.
+     * Verifies that the file is saved under its original name and its staging file removed.
+     */
+    @Test
+    void saveMultipartImage() {
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", new byte[]{1, 2, 3});
+        Image image = new Image();
+        when(imageService.saveImageContent(eq("photo.png"), eq("image/png"), any(Path.class))).thenReturn(image);
+
+        Image result = imageUploadService.saveMultipartImage(file, null);
+
+        assertEquals(image, result);
+        assertEquals(0, uploadDir.toFile().list().length);
+    }
+
+    /**
+     * Tests the saveMultipartImage method of ImageUploadService with an empty file.
+     * Verifies that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void saveMultipartImage_empty() {
+        MockMultipartFile file = new MockMultipartFile("file", "photo.png", "image/png", new byte[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.saveMultipartImage(file, null));
+    }
+
+    // Starts an upload through the service so that its staging file exists
+    private void startStagedUpload() {
+        when(imageUploadRepository.save(upload)).thenReturn(upload);
+        imageUploadService.startUpload(upload);
+        lenient().when(imageUploadRepository.findById(upload.getId())).thenReturn(Optional.of(upload));
+        lenient().when(imageUploadRepository.findByIdForUpdate(upload.getId())).thenReturn(Optional.of(upload));
+    }
+}
@@ -0,0 +1,256 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.ImageProperties;
+import online.demo.api.dto.ImageThumbnailDTO;
+import online.demo.api.entities.ImageVariant;
+import online.demo.api.repositories.ImageRepository;
+import online.demo.api.repositories.ImageVariantRepository;
+import online.demo.api.services.ImageBlobService;
+import online.demo.api.services.ImageVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceTest {
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    @Mock
+    private ImageBlobService imageBlobService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ImageProperties imageProperties;
+
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        imageProperties = new ImageProperties();
+        imageVariantService = new ImageVariantService(imageRepository, imageVariantRepository, imageBlobService,
+                imageProperties, transactionTemplate);
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService with an image wider than the requested width.
+     * Verifies that a scaled copy is generated at the nearest configured width, stored and then served from memory.
+     */
+    @Test
+    void getThumbnail_generatesVariant() throws Exception {
+        byte[] source = encode(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "png");
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageVariantRepository.findBySourceChecksumAndWidth("abc", 200)).thenReturn(Optional.empty());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(imageVariantRepository.saveAndFlush(any(ImageVariant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<String> variantChecksum = ArgumentCaptor.forClass(String.class);
+        when(imageBlobService.writeContent(any(), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            if ("abc".equals(invocation.getArgument(0))) {
+                outputStream.write(source);
+            } else {
+                outputStream.write(new byte[]{9, 9});
+            }
+            return true;
+        });
+
+        Optional<ImageThumbnailDTO> thumbnail = imageVariantService.getThumbnail(1, 150);
+
+        assertTrue(thumbnail.isPresent());
+        assertEquals("image/jpeg", thumbnail.get().getMime());
+        verify(imageBlobService, times(1)).acquire(variantChecksum.capture(), anyLong(), any());
+        ArgumentCaptor<ImageVariant> variant = ArgumentCaptor.forClass(ImageVariant.class);
+        verify(imageVariantRepository).saveAndFlush(variant.capture());
+        assertEquals(200, variant.getValue().getWidth());
+        assertEquals(variantChecksum.getValue(), variant.getValue().getChecksum());
+
+        imageVariantService.getThumbnail(1, 200);
+        verify(imageBlobService, times(1)).writeContent(eq(variantChecksum.getValue()), any(OutputStream.class));
+    }
+
+    /**
+     * Tests the scaling done by the getThumbnail method of ImageVariantService.
+     * Verifies that the aspect ratio is kept.
+     */
+    @Test
+    void getThumbnail_keepsAspectRatio() throws Exception {
+        byte[] source = encode(new BufferedImage(800, 400, BufferedImage.TYPE_INT_ARGB), "png");
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageVariantRepository.findBySourceChecksumAndWidth("abc", 100)).thenReturn(Optional.empty());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(imageVariantRepository.saveAndFlush(any(ImageVariant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            stored.write(((InputStreamSource) invocation.getArgument(2)).getInputStream().readAllBytes());
+            return null;
+        }).when(imageBlobService).acquire(any(), anyLong(), any());
+        when(imageBlobService.writeContent(any(), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("abc".equals(invocation.getArgument(0)) ? source : stored.toByteArray());
+            return true;
+        });
+
+        ImageThumbnailDTO thumbnail = imageVariantService.getThumbnail(1, 100).orElseThrow();
+
+        assertEquals("image/png", thumbnail.getMime());
+        BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(thumbnail.getContent()));
+        assertEquals(100, scaled.getWidth());
+        assertEquals(50, scaled.getHeight());
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService with an image already narrower than the requested width.
+     * Verifies that no thumbnail is stored and the original should be served.
+     */
+    @Test
+    void getThumbnail_narrowImage() throws Exception {
+        byte[] source = encode(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB), "png");
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageVariantRepository.findBySourceChecksumAndWidth("abc", 100)).thenReturn(Optional.empty());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(imageVariantRepository.saveAndFlush(any(ImageVariant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(imageBlobService.writeContent(eq("abc"), any(OutputStream.class))).thenAnswer(invocation -> {
+            ((OutputStream) invocation.getArgument(1)).write(source);
+            return true;
+        });
+
+        assertTrue(imageVariantService.getThumbnail(1, 100).isEmpty());
+        verify(imageBlobService, never()).acquire(any(), anyLong(), any());
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService with an image larger than the pixel limit.
+     * Verifies that it is never decoded, no thumbnail is stored and the original should be served.
+     */
+    @Test
+    void getThumbnail_tooManyPixels() throws Exception {
+        imageProperties.setMaxPixels(100_000);
+        byte[] source = encode(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "png");
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageVariantRepository.findBySourceChecksumAndWidth("abc", 100)).thenReturn(Optional.empty());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(imageVariantRepository.saveAndFlush(any(ImageVariant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(imageBlobService.writeContent(eq("abc"), any(OutputStream.class))).thenAnswer(invocation -> {
+            ((OutputStream) invocation.getArgument(1)).write(source);
+            return true;
+        });
+
+        assertTrue(imageVariantService.getThumbnail(1, 100).isEmpty());
+        verify(imageBlobService, never()).acquire(any(), anyLong(), any());
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService when the source content cannot be read.
+     * Verifies that the original should be served and no variant is stored, so it is generated on a later request.
+     */
+    @Test
+    void getThumbnail_sourceNotStored() {
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.of("abc"));
+        when(imageVariantRepository.findBySourceChecksumAndWidth("abc", 100)).thenReturn(Optional.empty());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(imageBlobService.writeContent(eq("abc"), any(OutputStream.class))).thenReturn(false);
+
+        assertTrue(imageVariantService.getThumbnail(1, 100).isEmpty());
+        assertTrue(imageVariantService.getThumbnail(1, 100).isEmpty());
+        verify(imageVariantRepository, never()).saveAndFlush(any());
+        verify(imageBlobService, times(2)).writeContent(eq("abc"), any(OutputStream.class));
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService while as many thumbnails as allowed are being generated.
+     * Verifies that a request that does not get its turn in time is told to serve the original without decoding anything.
+     */
+    @Test
+    void getThumbnail_tooManyGenerations() throws Exception {
+        imageProperties.setThumbnailThreads(1);
+        imageProperties.setThumbnailWait(Duration.ZERO);
+        imageVariantService = new ImageVariantService(imageRepository, imageVariantRepository, imageBlobService,
+                imageProperties, transactionTemplate);
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(imageRepository.findBlobChecksumById(anyInt())).thenReturn(Optional.of("abc"));
+        when(imageVariantRepository.findBySourceChecksumAndWidth("abc", 100)).thenReturn(Optional.empty());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            generating.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return null;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<ImageThumbnailDTO>> first = executor.submit(() -> imageVariantService.getThumbnail(1, 100));
+            assertTrue(generating.await(5, TimeUnit.SECONDS));
+
+            assertTrue(imageVariantService.getThumbnail(2, 100).isEmpty());
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService with an image still holding its own content.
+     * Verifies that the original should be served.
+     */
+    @Test
+    void getThumbnail_legacyImage() {
+        when(imageRepository.findBlobChecksumById(1)).thenReturn(Optional.empty());
+
+        assertTrue(imageVariantService.getThumbnail(1, 100).isEmpty());
+        verifyNoInteractions(imageVariantRepository);
+    }
+
+    /**
+     * Tests the getThumbnail method of ImageVariantService with an invalid width.
+     * Ensures that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void getThumbnail_invalidWidth() {
+        assertThrows(IllegalArgumentException.class, () -> imageVariantService.getThumbnail(1, 0));
+    }
+
+    // Encode a blank image in the given format
+    private byte[] encode(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        return outputStream.toByteArray();
+    }
+}
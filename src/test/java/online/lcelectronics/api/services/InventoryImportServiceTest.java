@@ -0,0 +1,247 @@
+package online.lcelectronics.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import online.demo.api.config.InventoryProperties;
+import online.demo.api.dto.InventoryImportErrorDTO;
+import online.demo.api.dto.InventoryImportResultDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.Inventory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.repositories.InventoryRepository;
+import online.demo.api.services.InventoryImportService;
+import online.demo.api.services.InventoryService;
+import online.demo.api.services.ReferenceValidationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryImportServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ReferenceValidationService referenceValidationService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private InventoryProperties inventoryProperties;
+
+    private InventoryImportService inventoryImportService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryProperties = new InventoryProperties();
+        inventoryImportService = new InventoryImportService(inventoryRepository, referenceValidationService, inventoryService, inventoryProperties, transactionTemplate, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService with a CSV file.
+     * Verifies that columns are matched by header, quoted values are read, and rows failing validation are reported.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importInventory_Csv() throws IOException {
+        stubTransactions();
+        when(inventoryRepository.saveAll(any())).thenAnswer(invocation -> List.copyOf((Collection<Inventory>) invocation.getArgument(0)));
+        when(referenceValidationService.findMissingIds(ApplianceModel.class, List.of(1, 2))).thenReturn(Set.of());
+        when(referenceValidationService.findMissingIds(Image.class, List.of())).thenReturn(Set.of());
+        doCallRealMethod().when(inventoryService).validateInventoryValues(any());
+
+        InventoryImportResultDTO result = importCsv("""
+                brand,component,serial,name,quantityNew,quantityUsed,lastPrice,compatibleApplianceModelIds
+                samsung,MAIN_BOARD,BN94-1,"Main board, 55""\",1,0,45.50,1;2
+
+                LG,POWER_BOARD,EAY-1,Power board,abc,0,,
+                LG,POWER_BOARD,,Power board,1,0,,
+                LG,TUNER,EAY-2,Tuner,1,0,-3,
+                """);
+
+        assertEquals(4, result.getRows());
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(
+                new InventoryImportErrorDTO(4L, "EAY-1", "Invalid value: abc"),
+                new InventoryImportErrorDTO(5L, null, "Serial cannot be null"),
+                new InventoryImportErrorDTO(6L, "EAY-2", "Last price must be greater than 0")), result.getErrors());
+
+        ArgumentCaptor<Collection<Inventory>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryRepository).saveAll(saved.capture());
+        Inventory inventory = saved.getValue().iterator().next();
+        assertEquals("Main board, 55\"", inventory.getName());
+        assertEquals(Brand.SAMSUNG, inventory.getBrand());
+        assertEquals(new BigDecimal("45.50"), inventory.getLastPrice());
+        assertEquals(List.of(1, 2), inventory.getCompatibleApplianceModels().stream().map(model -> model.getId()).toList());
+        verify(inventoryService).publishChange(inventory);
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService with an NDJSON file split into several chunks.
+     * Verifies that references are checked with one query per chunk and rows with missing references are reported.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importInventory_NdjsonChunks() throws IOException {
+        inventoryProperties.setImportChunkSize(2);
+        stubTransactions();
+        when(inventoryRepository.saveAll(any())).thenAnswer(invocation -> List.copyOf((Collection<Inventory>) invocation.getArgument(0)));
+        when(referenceValidationService.findMissingIds(ApplianceModel.class, List.of(1, 9))).thenReturn(Set.of(9));
+        when(referenceValidationService.findMissingIds(Image.class, List.of(7))).thenReturn(Set.of(7));
+        when(referenceValidationService.findMissingIds(ApplianceModel.class, List.of(1))).thenReturn(Set.of());
+        when(referenceValidationService.findMissingIds(Image.class, List.of())).thenReturn(Set.of());
+
+        InventoryImportResultDTO result = importNdjson("""
+                {"serial":"A-1","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG","compatibleApplianceModelIds":[1]}
+                {"serial":"A-2","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG","compatibleApplianceModelIds":[9]}
+                {"serial":"A-3","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG","compatibleApplianceModelIds":[1],"imageIds":[7]}
+                {"serial":"A-4","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                {"serial":
+                """);
+
+        assertEquals(5, result.getRows());
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(2L, 3L, 5L), result.getErrors().stream().map(InventoryImportErrorDTO::getRow).toList());
+        assertEquals("Appliance model not found with ID: 9", result.getErrors().get(0).getMessage());
+        assertEquals("Image not found with ID: 7", result.getErrors().get(1).getMessage());
+        assertTrue(result.getErrors().get(2).getMessage().startsWith("Invalid JSON"));
+        verify(inventoryRepository, times(2)).saveAll(any());
+        verify(referenceValidationService, times(2)).findMissingIds(eq(ApplianceModel.class), any());
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService when a chunk cannot be saved.
+     * Verifies that every row the database rejects is reported on its own and only the first errors are listed.
+     */
+    @Test
+    void importInventory_ChunkNotSaved() throws IOException {
+        inventoryProperties.setImportMaxErrors(2);
+        stubTransactions();
+        when(inventoryRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("Duplicate serial"));
+
+        InventoryImportResultDTO result = importNdjson("""
+                {"serial":"A-1","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                {"serial":"A-2","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                {"serial":"A-3","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                """);
+
+        assertEquals(0, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().size());
+        assertEquals("A-1", result.getErrors().get(0).getSerial());
+        assertEquals("Could not be saved: Duplicate serial", result.getErrors().get(0).getMessage());
+        verify(referenceValidationService, times(2)).findMissingIds(any(), eq(List.of()));
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService when one row of a chunk is rejected by the database.
+     * Verifies that the chunk is saved again in halves until the rejected row is isolated, so the others are imported.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importInventory_ChunkRowNotSaved() throws IOException {
+        stubTransactions();
+        when(inventoryRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Inventory> items = List.copyOf((Collection<Inventory>) invocation.getArgument(0));
+            if (items.stream().anyMatch(item -> item.getSerial().equals("A-3"))) {
+                items.forEach(item -> item.setId(1L));
+                throw new DataIntegrityViolationException("Duplicate serial");
+            }
+            assertTrue(items.stream().allMatch(item -> item.getId() == null));
+            return items;
+        });
+
+        InventoryImportResultDTO result = importNdjson("""
+                {"serial":"A-1","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                {"serial":"A-2","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                {"serial":"A-3","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                {"serial":"A-4","quantityNew":1,"quantityUsed":0,"component":"TUNER","brand":"LG"}
+                """);
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3L, result.getErrors().get(0).getRow());
+        assertEquals("A-3", result.getErrors().get(0).getSerial());
+        // The chunk, its second half and the rejected row fail, while the first half and the fourth row are saved
+        verify(inventoryRepository, times(5)).saveAll(any());
+        verify(inventoryService, times(3)).publishChange(any());
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService with rows longer than allowed.
+     * Verifies that an unterminated quote and a line without a break are reported as row errors and the rows after
+     * them are still read.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void importInventory_RowTooLong() throws IOException {
+        inventoryProperties.setImportMaxRowLength(60);
+        stubTransactions();
+        when(inventoryRepository.saveAll(any())).thenAnswer(invocation -> List.copyOf((Collection<Inventory>) invocation.getArgument(0)));
+
+        InventoryImportResultDTO csv = importCsv("serial,name,quantityNew,quantityUsed,component,brand\n"
+                + "A-1,\"Unterminated" + " x".repeat(40) + "\nA-2,Tuner,1,0,TUNER,LG\n");
+        InventoryImportResultDTO ndjson = importNdjson("{\"serial\":\"A-1\",\"name\":\"" + "x".repeat(100) + "\"}");
+
+        assertEquals(2, csv.getRows());
+        assertEquals(1, csv.getImported());
+        assertEquals(2L, csv.getErrors().get(0).getRow());
+        assertEquals("Row is longer than 60 characters", csv.getErrors().get(0).getMessage());
+        assertEquals(1, ndjson.getRows());
+        assertEquals(0, ndjson.getImported());
+        assertEquals("Row is longer than 60 characters", ndjson.getErrors().get(0).getMessage());
+    }
+
+    /**
+     * Tests the importInventory method of InventoryImportService with an unknown CSV column.
+     * Verifies that an IllegalArgumentException is thrown before any row is read.
+     */
+    @Test
+    void importInventory_UnknownCsvColumn() {
+        assertThrows(IllegalArgumentException.class, () -> importCsv("serial,colour\nA-1,red\n"));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    private void stubTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private InventoryImportResultDTO importCsv(String content) throws IOException {
+        return inventoryImportService.importInventory(ExportFormat.CSV, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private InventoryImportResultDTO importNdjson(String content) throws IOException {
+        return inventoryImportService.importInventory(ExportFormat.NDJSON, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,339 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.InventoryProperties;
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.InventoryIndexEntryDTO;
+import online.demo.api.dto.InventoryFacetsDTO;
+import online.demo.api.dto.InventoryModelLinkDTO;
+import online.demo.api.dto.PriceBucketCountDTO;
+import online.demo.api.entities.ApplianceModel;
+import online.demo.api.entities.Inventory;
+import online.demo.api.enums.Brand;
+import online.demo.api.enums.Component;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.events.ApplianceModelChangedEvent;
+import online.demo.api.events.InventoryChangedEvent;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.repositories.ApplianceModelRepository;
+import online.demo.api.repositories.InventoryRepository;
+import online.demo.api.services.InventoryIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryIndexServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ApplianceModelRepository applianceModelRepository;
+
+    private InventoryIndexService inventoryIndexService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryIndexService = new InventoryIndexService(inventoryRepository, applianceModelRepository, new InventoryProperties(), new PagingProperties());
+        when(inventoryRepository.findAllIndexEntries()).thenReturn(List.of(
+                new InventoryIndexEntryDTO(10L, "BN44-00932A", "Main board UN55", Component.MAIN_BOARD, Brand.SAMSUNG, "A1", BigDecimal.valueOf(30)),
+                new InventoryIndexEntryDTO(20L, "BN44-00851C", "Power supply board", Component.POWER_BOARD, Brand.SAMSUNG, "B2", BigDecimal.valueOf(120)),
+                new InventoryIndexEntryDTO(30L, "EBR85443601", "Main board OLED", Component.MAIN_BOARD, Brand.LG, "A1", BigDecimal.valueOf(10)),
+                new InventoryIndexEntryDTO(40L, "BN96-45913A", "LED strip", Component.MAIN_BOARD, Brand.SAMSUNG, null, null)));
+        when(inventoryRepository.findAllModelLinks()).thenReturn(List.of(
+                new InventoryModelLinkDTO(10L, 1),
+                new InventoryModelLinkDTO(10L, 2),
+                new InventoryModelLinkDTO(20L, 1),
+                new InventoryModelLinkDTO(30L, 2),
+                new InventoryModelLinkDTO(30L, 3)));
+        when(applianceModelRepository.findAll()).thenReturn(List.of(
+                applianceModel(1, "UN55TU7000"),
+                applianceModel(2, "UN65TU7000"),
+                applianceModel(3, "OLED55C1")));
+        inventoryIndexService.rebuild();
+    }
+
+    /**
+     * Tests the findCompatibleIds method of InventoryIndexService.
+     * Verifies that a name matches every model containing it, ignoring case, and the items of all of them are returned.
+     */
+    @Test
+    void findCompatibleIds_SingleName() {
+        assertEquals(List.of(10L, 20L, 30L), inventoryIndexService.findCompatibleIds(List.of("tu7000"), ModelMatchMode.ALL));
+        assertEquals(List.of(30L), inventoryIndexService.findCompatibleIds(List.of("OLED"), ModelMatchMode.ALL));
+        assertEquals(List.of(), inventoryIndexService.findCompatibleIds(List.of("QN90"), ModelMatchMode.ALL));
+    }
+
+    /**
+     * Tests the findCompatibleIds method of InventoryIndexService with several names.
+     * Verifies that ALL keeps the items fitting a model matching each name and ANY the items fitting any of them.
+     */
+    @Test
+    void findCompatibleIds_SeveralNames() {
+        assertEquals(List.of(10L), inventoryIndexService.findCompatibleIds(List.of("UN55", "UN65"), ModelMatchMode.ALL));
+        assertEquals(List.of(10L, 20L, 30L), inventoryIndexService.findCompatibleIds(List.of("UN55", "OLED"), ModelMatchMode.ANY));
+    }
+
+    /**
+     * Tests the onInventoryChanged method of InventoryIndexService.
+     * Verifies that a changed item is moved to its new models and a new item is added.
+     */
+    @Test
+    void onInventoryChanged() {
+        inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(10L, List.of(3), "BN44-00932A", "Main board UN55", Component.MAIN_BOARD, Brand.SAMSUNG, "A1", null));
+        inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(50L, List.of(1), "BN44-01000A", "Tuner", Component.MAIN_BOARD, Brand.SAMSUNG, "A1", null));
+
+        assertEquals(List.of(20L, 50L), inventoryIndexService.findCompatibleIds(List.of("UN55"), ModelMatchMode.ALL));
+        assertEquals(List.of(10L, 30L), inventoryIndexService.findCompatibleIds(List.of("OLED"), ModelMatchMode.ALL));
+    }
+
+    /**
+     * Tests the rebuild method of InventoryIndexService when items are saved while it reads the database.
+     * Verifies that the changes committed during the read are applied on top of the snapshot instead of being lost.
+     */
+    @Test
+    void rebuild_replaysChangesDuringRead() {
+        when(inventoryRepository.findAllIndexEntries()).thenAnswer(invocation -> {
+            inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(50L, List.of(1), "BN44-01000A", "Tuner", Component.MAIN_BOARD, Brand.SAMSUNG, "A1", null));
+            return List.of(new InventoryIndexEntryDTO(10L, "BN44-00932A", "Main board UN55", Component.MAIN_BOARD, Brand.SAMSUNG, "A1", BigDecimal.valueOf(30)));
+        });
+
+        inventoryIndexService.rebuild();
+
+        assertEquals(List.of(50L), inventoryIndexService.findIdsByName("tuner"));
+        assertEquals(List.of(10L, 20L, 50L), inventoryIndexService.findCompatibleIds(List.of("UN55"), ModelMatchMode.ALL));
+
+        inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(60L, List.of(), "BN44-02000A", "Speaker", Component.MAIN_BOARD, Brand.SAMSUNG, "A1", null));
+        inventoryIndexService.rebuild();
+        // Changes made outside a rebuild are not replayed, the snapshot is the source of truth
+        assertEquals(List.of(), inventoryIndexService.findIdsByName("speaker"));
+    }
+
+    /**
+     * Tests the onApplianceModelChanged method of InventoryIndexService.
+     * Verifies that lookups use the new name of a renamed model.
+     */
+    @Test
+    void onApplianceModelChanged() {
+        inventoryIndexService.onApplianceModelChanged(new ApplianceModelChangedEvent(3, "OLED55C2"));
+
+        assertEquals(List.of(30L), inventoryIndexService.findCompatibleIds(List.of("C2"), ModelMatchMode.ALL));
+        assertEquals(List.of(), inventoryIndexService.findCompatibleIds(List.of("C1"), ModelMatchMode.ALL));
+    }
+
+    /**
+     * Tests the findCompatibleIds method of InventoryIndexService without a usable name.
+     * Verifies that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void findCompatibleIds_InvalidNames() {
+        assertThrows(IllegalArgumentException.class, () -> inventoryIndexService.findCompatibleIds(List.of(), ModelMatchMode.ALL));
+        assertThrows(IllegalArgumentException.class, () -> inventoryIndexService.findCompatibleIds(List.of(" "), ModelMatchMode.ALL));
+    }
+
+    /**
+     * Tests the getCompatibleInventory method of InventoryIndexService.
+     * Verifies that only the items on the requested page are loaded, in ID order, and the total counts every match.
+     */
+    @Test
+    void getCompatibleInventory() {
+        when(inventoryRepository.findAllById(List.of(30L))).thenReturn(List.of(inventory(30L)));
+
+        Page<Inventory> page = inventoryIndexService.getCompatibleInventory(List.of("TU7000"), ModelMatchMode.ALL, 1, 2);
+
+        assertEquals(List.of(30L), page.getContent().stream().map(Inventory::getId).toList());
+        assertEquals(3, page.getTotalElements());
+        verify(inventoryRepository).findAllById(List.of(30L));
+    }
+
+    /**
+     * Tests the getCompatibleInventory method of InventoryIndexService past the last match.
+     * Verifies that a NotFoundException is thrown without loading any item.
+     */
+    @Test
+    void getCompatibleInventory_NotFound() {
+        assertThrows(NotFoundException.class, () -> inventoryIndexService.getCompatibleInventory(List.of("OLED"), ModelMatchMode.ALL, 1, 2));
+        verify(inventoryRepository, never()).findAllById(any());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService without filters.
+     * Verifies that every item is on the page and counted once per facet, leaving out values without items.
+     */
+    @Test
+    void getInventoryFacets_NoFilters() {
+        stubFindAllById();
+
+        InventoryFacetsDTO facets = inventoryIndexService.getInventoryFacets(null, null, null, null, null, 0, 20);
+
+        assertEquals(List.of(10L, 20L, 30L, 40L), facets.getItems().getContent().stream().map(Inventory::getId).toList());
+        assertEquals(Map.of(Component.MAIN_BOARD, 3L, Component.POWER_BOARD, 1L), facets.getComponents());
+        assertEquals(Map.of(Brand.SAMSUNG, 3L, Brand.LG, 1L), facets.getBrands());
+        assertEquals(Map.of("A1", 2L, "B2", 1L), facets.getLocations());
+        assertEquals(List.of(1L, 1L, 0L, 1L, 0L, 0L), facets.getPriceBuckets().stream().map(PriceBucketCountDTO::getCount).toList());
+        assertEquals(BigDecimal.valueOf(100), facets.getPriceBuckets().get(3).getFrom());
+        assertEquals(BigDecimal.valueOf(250), facets.getPriceBuckets().get(3).getTo());
+        assertNull(facets.getPriceBuckets().get(5).getTo());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService with filters on several facets.
+     * Verifies that the page holds the items matching every filter and each facet is counted without its own filter.
+     */
+    @Test
+    void getInventoryFacets_Filters() {
+        stubFindAllById();
+
+        InventoryFacetsDTO facets = inventoryIndexService.getInventoryFacets(
+                List.of(Component.MAIN_BOARD), List.of(Brand.SAMSUNG), null, null, null, 0, 20);
+
+        assertEquals(List.of(10L, 40L), facets.getItems().getContent().stream().map(Inventory::getId).toList());
+        assertEquals(2, facets.getItems().getTotalElements());
+        assertEquals(Map.of(Component.MAIN_BOARD, 2L, Component.POWER_BOARD, 1L), facets.getComponents());
+        assertEquals(Map.of(Brand.SAMSUNG, 2L, Brand.LG, 1L), facets.getBrands());
+        assertEquals(Map.of("A1", 1L), facets.getLocations());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService with location, price bucket and model filters.
+     * Verifies that values within a facet are combined with OR and an unknown location matches nothing.
+     */
+    @Test
+    void getInventoryFacets_LocationPriceAndModel() {
+        stubFindAllById();
+
+        InventoryFacetsDTO byLocation = inventoryIndexService.getInventoryFacets(null, null, List.of("B2", "Z9"), null, null, 0, 20);
+        InventoryFacetsDTO byPrice = inventoryIndexService.getInventoryFacets(null, null, null, List.of(0, 3), null, 0, 20);
+        InventoryFacetsDTO byModel = inventoryIndexService.getInventoryFacets(null, null, null, null, List.of("OLED"), 0, 20);
+
+        assertEquals(List.of(20L), byLocation.getItems().getContent().stream().map(Inventory::getId).toList());
+        assertEquals(List.of(20L, 30L), byPrice.getItems().getContent().stream().map(Inventory::getId).toList());
+        assertEquals(List.of(30L), byModel.getItems().getContent().stream().map(Inventory::getId).toList());
+        assertEquals(Map.of(Brand.LG, 1L), byModel.getBrands());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService after an item changed.
+     * Verifies that the counts follow the new values of the item without reloading the index.
+     */
+    @Test
+    void getInventoryFacets_AfterChange() {
+        stubFindAllById();
+        inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(30L, List.of(2, 3), "EBR85443601", "Main board OLED", Component.POWER_BOARD, Brand.LG, "B2", BigDecimal.valueOf(600)));
+
+        InventoryFacetsDTO facets = inventoryIndexService.getInventoryFacets(null, null, null, null, null, 0, 20);
+
+        assertEquals(Map.of(Component.MAIN_BOARD, 2L, Component.POWER_BOARD, 2L), facets.getComponents());
+        assertEquals(Map.of("A1", 1L, "B2", 2L), facets.getLocations());
+        assertEquals(List.of(0L, 1L, 0L, 1L, 0L, 1L), facets.getPriceBuckets().stream().map(PriceBucketCountDTO::getCount).toList());
+        verify(inventoryRepository, times(1)).findAllIndexEntries();
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService past the last match.
+     * Verifies that an empty page is returned along with the counts, without loading any item.
+     */
+    @Test
+    void getInventoryFacets_EmptyPage() {
+        InventoryFacetsDTO facets = inventoryIndexService.getInventoryFacets(List.of(Component.TUNER), null, null, null, null, 0, 20);
+
+        assertTrue(facets.getItems().getContent().isEmpty());
+        assertEquals(Map.of(Component.MAIN_BOARD, 3L, Component.POWER_BOARD, 1L), facets.getComponents());
+        assertTrue(facets.getBrands().isEmpty());
+        verify(inventoryRepository).findAllById(List.of());
+    }
+
+    /**
+     * Tests the getInventoryFacets method of InventoryIndexService with an unknown price bucket.
+     * Verifies that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void getInventoryFacets_InvalidPriceBucket() {
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryIndexService.getInventoryFacets(null, null, null, List.of(6), null, 0, 20));
+    }
+
+    /**
+     * Tests the findIdsBySerial method of InventoryIndexService.
+     * Verifies that serials containing the text are found ignoring case, including texts shorter than a trigram.
+     */
+    @Test
+    void findIdsBySerial() {
+        assertEquals(List.of(10L, 20L), inventoryIndexService.findIdsBySerial("bn44-00"));
+        assertEquals(List.of(40L), inventoryIndexService.findIdsBySerial("3A"));
+        assertEquals(List.of(), inventoryIndexService.findIdsBySerial("BN44-9"));
+    }
+
+    /**
+     * Tests the findIdsByName method of InventoryIndexService after an item changed.
+     * Verifies that the item is found by its new name only.
+     */
+    @Test
+    void findIdsByName_AfterChange() {
+        assertEquals(List.of(10L, 30L), inventoryIndexService.findIdsByName("MAIN BOARD"));
+
+        inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(30L, List.of(2, 3), "EBR85443601", "T-con board", Component.T_COM_BOARD, Brand.LG, "A1", null));
+
+        assertEquals(List.of(10L), inventoryIndexService.findIdsByName("main board"));
+        assertEquals(List.of(10L, 20L, 30L), inventoryIndexService.findIdsByName("board"));
+        assertEquals(List.of(30L), inventoryIndexService.findIdsByName("t-con"));
+    }
+
+    /**
+     * Tests the searchInventory method of InventoryIndexService.
+     * Verifies that serial matches come before name matches.
+     */
+    @Test
+    void searchInventory() {
+        stubFindAllById();
+        inventoryIndexService.onInventoryChanged(new InventoryChangedEvent(50L, List.of(), "LED-200", "Remote", Component.ACCESSORIES, Brand.LG, null, null));
+
+        Page<Inventory> page = inventoryIndexService.searchInventory("led", false, 0, 20);
+
+        assertEquals(List.of(50L, 30L, 40L), page.getContent().stream().map(Inventory::getId).toList());
+    }
+
+    /**
+     * Tests the searchInventory method of InventoryIndexService with fuzzy matching.
+     * Verifies that a serial with a typo is found after the exact matches, and only when fuzzy matching is asked for.
+     */
+    @Test
+    void searchInventory_Fuzzy() {
+        stubFindAllById();
+
+        Page<Inventory> page = inventoryIndexService.searchInventory("BN44-00392A", true, 0, 20);
+
+        assertEquals(List.of(10L), page.getContent().stream().map(Inventory::getId).toList());
+        assertThrows(NotFoundException.class, () -> inventoryIndexService.searchInventory("BN44-00392A", false, 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> inventoryIndexService.searchInventory(" ", true, 0, 20));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubFindAllById() {
+        when(inventoryRepository.findAllById(any())).thenAnswer(invocation ->
+                ((List<Long>) invocation.getArgument(0)).stream().map(this::inventory).toList());
+    }
+
+    private ApplianceModel applianceModel(Integer id, String model) {
+        ApplianceModel applianceModel = new ApplianceModel();
+        applianceModel.setId(id);
+        applianceModel.setModel(model);
+        return applianceModel;
+    }
+
+    private Inventory inventory(Long id) {
+        Inventory inventory = new Inventory();
+        inventory.setId(id);
+        return inventory;
+    }
+}
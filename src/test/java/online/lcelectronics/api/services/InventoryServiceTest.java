@@ -1,18 +1,25 @@
 package online.lcelectronics.api.services;
 
+import online.demo.api.config.InventoryProperties;
 import online.demo.api.entities.ApplianceModel;
 import online.demo.api.entities.Image;
 import online.demo.api.entities.Inventory;
+import online.demo.api.enums.ModelMatchMode;
+import online.demo.api.events.InventoryChangedEvent;
 import online.demo.api.exceptions.NotFoundException;
-import online.demo.api.repositories.ApplianceModelRepository;
-import online.demo.api.repositories.ImageRepository;
 import online.demo.api.repositories.InventoryRepository;
+import online.demo.api.services.InventoryIndexService;
 import online.demo.api.services.InventoryService;
+import online.demo.api.services.ReferenceValidationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -32,10 +39,16 @@ class InventoryServiceTest {
     private InventoryRepository inventoryRepository;
 
     @Mock
-    private ApplianceModelRepository applianceModelRepository;
+    private ReferenceValidationService referenceValidationService;
 
     @Mock
-    private ImageRepository imageRepository;
+    private InventoryIndexService inventoryIndexService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private InventoryProperties inventoryProperties = new InventoryProperties();
 
     @InjectMocks
     private InventoryService inventoryService;
@@ -133,8 +146,6 @@ class InventoryServiceTest {
      */
     @Test
     void saveInventoryItem_validItem() {
-        when(applianceModelRepository.existsById(any(Integer.class))).thenReturn(true);
-        when(imageRepository.existsById(any(Integer.class))).thenReturn(true);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
         Inventory result = inventoryService.saveInventoryItem(inventory);
@@ -159,8 +170,6 @@ class InventoryServiceTest {
     @Test
     void updateInventoryItem_existingItem() {
         when(inventoryRepository.existsById(1L)).thenReturn(true);
-        when(applianceModelRepository.existsById(any(Integer.class))).thenReturn(true);
-        when(imageRepository.existsById(any(Integer.class))).thenReturn(true);
         when(inventoryRepository.saveAndFlush(any(Inventory.class))).thenReturn(inventory);
 
         Inventory result = inventoryService.updateInventoryItem(inventory);
@@ -184,9 +193,11 @@ class InventoryServiceTest {
      */
     @Test
     void validateInventoryItem_invalidApplianceModel() {
-        when(applianceModelRepository.existsById(1)).thenReturn(false);
+        doThrow(new NotFoundException("Appliance model not found with ID: 1"))
+                .when(referenceValidationService).requireExisting(ApplianceModel.class, List.of(1), "Appliance model");
 
         assertThrows(NotFoundException.class, () -> inventoryService.saveInventoryItem(inventory));
+        verify(inventoryRepository, never()).save(any());
     }
 
     /**
@@ -195,9 +206,133 @@ class InventoryServiceTest {
      */
     @Test
     void validateInventoryItem_invalidImage() {
-        when(applianceModelRepository.existsById(1)).thenReturn(true);
-        when(imageRepository.existsById(1)).thenReturn(false);
+        lenient().doThrow(new NotFoundException("Image not found with ID: 1"))
+                .when(referenceValidationService).requireExisting(Image.class, List.of(1), "Image");
 
         assertThrows(NotFoundException.class, () -> inventoryService.saveInventoryItem(inventory));
+        verify(referenceValidationService).requireExisting(ApplianceModel.class, List.of(1), "Appliance model");
+        verify(inventoryRepository, never()).save(any());
+    }
+
+    /**
+     * Tests the saveInventoryItem method of InventoryService.
+     * Verifies that the compatible models of the saved item are published for the in-memory index.
+     */
+    @Test
+    void saveInventoryItem_publishesChange() {
+        when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
+
+        inventoryService.saveInventoryItem(inventory);
+
+        ArgumentCaptor<InventoryChangedEvent> event = ArgumentCaptor.forClass(InventoryChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getInventoryId());
+        assertEquals(List.of(1), event.getValue().getModelIds());
+    }
+
+    /**
+     * Tests the getInventoryByCriteria method of InventoryService with several compatible models.
+     * Verifies that every model is looked up in the in-memory index, not only the first one.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInventoryByCriteria_severalModels() {
+        Inventory criteria = new Inventory();
+        criteria.setCompatibleApplianceModels(List.of(applianceModel("UN55"), applianceModel("UN65")));
+        when(inventoryIndexService.findCompatibleIds(List.of("UN55", "UN65"), ModelMatchMode.ALL)).thenReturn(List.of(1L));
+        when(inventoryRepository.findAll(any(Specification.class))).thenReturn(List.of(inventory));
+
+        assertEquals(List.of(inventory), inventoryService.getInventoryByCriteria(criteria));
+    }
+
+    /**
+     * Tests the getInventoryByCriteria method of InventoryService when no item fits the compatible models.
+     * Verifies that a NotFoundException is thrown without searching the database.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInventoryByCriteria_noCompatibleItems() {
+        Inventory criteria = new Inventory();
+        criteria.setCompatibleApplianceModels(List.of(applianceModel("QN90")));
+        when(inventoryIndexService.findCompatibleIds(List.of("QN90"), ModelMatchMode.ALL)).thenReturn(List.of());
+
+        assertThrows(NotFoundException.class, () -> inventoryService.getInventoryByCriteria(criteria));
+        verify(inventoryRepository, never()).findAll(any(Specification.class));
+    }
+
+    /**
+     * Tests the getInventoryByCriteria method of InventoryService with an item the index has not seen yet.
+     * Verifies that the item found by searching the database directly is returned when the fallback is enabled.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInventoryByCriteria_databaseFallback() {
+        inventoryProperties.setCriteriaSearchDatabaseFallback(true);
+        Inventory criteria = new Inventory();
+        criteria.setSerial("bn44");
+        when(inventoryIndexService.findIdsBySerial("bn44")).thenReturn(List.of());
+        when(inventoryRepository.findAll(any(Specification.class))).thenReturn(List.of(inventory));
+
+        assertEquals(List.of(inventory), inventoryService.getInventoryByCriteria(criteria));
+    }
+
+    /**
+     * Tests the getInventoryByCriteria method of InventoryService with serial, name and model criteria.
+     * Verifies that only the IDs found by the in-memory index for every criterion are queried.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInventoryByCriteria_serialAndName() {
+        Inventory criteria = new Inventory();
+        criteria.setSerial("bn44");
+        criteria.setName("board");
+        criteria.setCompatibleApplianceModels(List.of(applianceModel("UN55")));
+        when(inventoryIndexService.findIdsBySerial("bn44")).thenReturn(List.of(1L, 2L, 3L));
+        when(inventoryIndexService.findCompatibleIds(List.of("UN55"), ModelMatchMode.ALL)).thenReturn(List.of(2L, 3L, 4L));
+        when(inventoryIndexService.findIdsByName("board")).thenReturn(List.of(1L, 3L));
+        when(inventoryRepository.findAll(any(Specification.class))).thenReturn(List.of(inventory));
+
+        assertEquals(List.of(inventory), inventoryService.getInventoryByCriteria(criteria));
+    }
+
+    /**
+     * Tests the getInventoryByCriteria method of InventoryService when no item matches both serial and name.
+     * Verifies that no query is run and a NotFoundException is thrown.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInventoryByCriteria_noSerialAndNameMatch() {
+        Inventory criteria = new Inventory();
+        criteria.setSerial("bn44");
+        criteria.setName("tuner");
+        when(inventoryIndexService.findIdsBySerial("bn44")).thenReturn(List.of(1L));
+        when(inventoryIndexService.findIdsByName("tuner")).thenReturn(List.of(2L));
+
+        assertThrows(NotFoundException.class, () -> inventoryService.getInventoryByCriteria(criteria));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    /**
+     * Tests the getInventoryByCriteria method of InventoryService with more matching IDs than a search returns.
+     * Verifies that the IDs are queried in batches of the maximum and the results stop at the maximum.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getInventoryByCriteria_maxResults() {
+        inventoryProperties.setCriteriaSearchMaxResults(2);
+        Inventory criteria = new Inventory();
+        criteria.setName("board");
+        Inventory other = new Inventory();
+        when(inventoryIndexService.findIdsByName("board")).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        when(inventoryRepository.findAll(any(Specification.class))).thenReturn(List.of(inventory)).thenReturn(List.of(other, inventory));
+
+        assertEquals(List.of(inventory, other), inventoryService.getInventoryByCriteria(criteria));
+        verify(inventoryRepository, times(2)).findAll(any(Specification.class));
+    }
+
+    private ApplianceModel applianceModel(String model) {
+        ApplianceModel applianceModel = new ApplianceModel();
+        applianceModel.setModel(model);
+        return applianceModel;
     }
 }
@@ -0,0 +1,109 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.dto.ClientPaymentSummaryDTO;
+import online.demo.api.dto.OrderFullDTO;
+import online.demo.api.dto.OrderHistorySummaryDTO;
+import online.demo.api.dto.RepairCostSummaryDTO;
+import online.demo.api.entities.Order;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.repositories.ClientPaymentRepository;
+import online.demo.api.repositories.OrderHistoryRepository;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.repositories.RepairCostRepository;
+import online.demo.api.services.OrderAggregateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderAggregateServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ClientPaymentRepository clientPaymentRepository;
+
+    @Mock
+    private RepairCostRepository repairCostRepository;
+
+    @Mock
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @InjectMocks
+    private OrderAggregateService orderAggregateService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests the getOrderFull method of OrderAggregateService.
+     * Verifies that the related rows are returned with the order and the balance due is the costs minus the payments.
+     */
+    @Test
+    void testGetOrderFull() {
+        Order order = new Order();
+        order.setId(1);
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        List<ClientPaymentSummaryDTO> payments = List.of(new ClientPaymentSummaryDTO(1, LocalDate.now(), new BigDecimal("40.00")));
+        List<RepairCostSummaryDTO> repairCosts = List.of(
+                new RepairCostSummaryDTO(1, "Compressor", new BigDecimal("100.00")),
+                new RepairCostSummaryDTO(2, "Labor", new BigDecimal("25.50")),
+                new RepairCostSummaryDTO(3, "Inspection", null));
+        List<OrderHistorySummaryDTO> history = List.of(new OrderHistorySummaryDTO(1, LocalDate.now(), "Received"));
+        when(clientPaymentRepository.findSummariesByOrderId(1)).thenReturn(payments);
+        when(repairCostRepository.findSummariesByOrderId(1)).thenReturn(repairCosts);
+        when(orderHistoryRepository.findSummariesByOrderId(1)).thenReturn(history);
+
+        OrderFullDTO result = orderAggregateService.getOrderFull(1);
+
+        assertEquals(order, result.getOrder());
+        assertEquals(payments, result.getPayments());
+        assertEquals(repairCosts, result.getRepairCosts());
+        assertEquals(history, result.getHistory());
+        assertEquals(new BigDecimal("125.50"), result.getTotalCost());
+        assertEquals(new BigDecimal("40.00"), result.getTotalPaid());
+        assertEquals(new BigDecimal("85.50"), result.getBalanceDue());
+    }
+
+    /**
+     * Tests the getOrderFull method of OrderAggregateService for an order without payments or costs.
+     * Verifies that the totals and the balance due are zero.
+     */
+    @Test
+    void testGetOrderFull_NoPaymentsOrCosts() {
+        when(orderRepository.findById(1)).thenReturn(Optional.of(new Order()));
+        when(clientPaymentRepository.findSummariesByOrderId(1)).thenReturn(List.of());
+        when(repairCostRepository.findSummariesByOrderId(1)).thenReturn(List.of());
+        when(orderHistoryRepository.findSummariesByOrderId(1)).thenReturn(List.of());
+
+        OrderFullDTO result = orderAggregateService.getOrderFull(1);
+
+        assertEquals(BigDecimal.ZERO, result.getTotalCost());
+        assertEquals(BigDecimal.ZERO, result.getTotalPaid());
+        assertEquals(BigDecimal.ZERO, result.getBalanceDue());
+    }
+
+    /**
+     * Tests the getOrderFull method of OrderAggregateService for an order that does not exist.
+     * Verifies that a NotFoundException is thrown without looking up any related rows.
+     */
+    @Test
+    void testGetOrderFull_NotFound() {
+        when(orderRepository.findById(1)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> orderAggregateService.getOrderFull(1));
+        verifyNoInteractions(clientPaymentRepository, repairCostRepository, orderHistoryRepository);
+    }
+}
@@ -0,0 +1,231 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.OrderProperties;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.exceptions.TooManyRequestsException;
+import online.demo.api.services.OrderEventHubService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventHubServiceTest {
+
+    private OrderProperties orderProperties;
+
+    private OrderEventHubService orderEventHubService;
+
+    private boolean failSends;
+
+    private SseEmitter nextEmitter;
+
+    @BeforeEach
+    void setUp() {
+        orderProperties = new OrderProperties();
+        orderEventHubService = new OrderEventHubService(orderProperties) {
+            @Override
+            protected SseEmitter createEmitter(long timeout) {
+                SseEmitter emitter = nextEmitter != null ? nextEmitter : new RecordingEmitter(failSends);
+                nextEmitter = null;
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderEventHubService.shutdown();
+    }
+
+    /**
+     * Tests the subscribe method of OrderEventHubService.
+     * Verifies that the current status is sent first, followed by the changes of that order only.
+     */
+    @Test
+    void subscribe_receivesCurrentStatusAndOwnChanges() throws InterruptedException {
+        RecordingEmitter emitter = (RecordingEmitter) orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED));
+
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(2, "ref-2", null, OrderStatus.DELIVERED));
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.DIAGNOSED));
+
+        assertEquals(OrderStatus.JOINED, emitter.next().getStatus());
+        OrderStatusEventDTO change = emitter.next();
+        assertEquals("ref-1", change.getReferenceCode());
+        assertEquals(OrderStatus.DIAGNOSED, change.getStatus());
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests the subscribeAll method of OrderEventHubService.
+     * Verifies that the staff feed receives the changes of every order.
+     */
+    @Test
+    void subscribeAll_receivesEveryChange() throws InterruptedException {
+        RecordingEmitter emitter = (RecordingEmitter) orderEventHubService.subscribeAll();
+
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.DIAGNOSED));
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(2, "ref-2", null, OrderStatus.DELIVERED));
+
+        assertEquals("ref-1", emitter.next().getReferenceCode());
+        assertEquals("ref-2", emitter.next().getReferenceCode());
+        assertEquals(1, orderEventHubService.getSubscriberCount());
+    }
+
+    /**
+     * Tests the onOrderChanged method of OrderEventHubService with a client that has gone away.
+     * Verifies that subscribers whose sends fail are dropped.
+     */
+    @Test
+    void onOrderChanged_dropsFailedSubscribers() throws InterruptedException {
+        failSends = true;
+        orderEventHubService.subscribeAll();
+        orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED));
+        failSends = false;
+        RecordingEmitter emitter = (RecordingEmitter) orderEventHubService.subscribeAll();
+
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.DIAGNOSED));
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.REPAIRED));
+
+        assertEquals(OrderStatus.DIAGNOSED, emitter.next().getStatus());
+        assertEquals(OrderStatus.REPAIRED, emitter.next().getStatus());
+        awaitSubscriberCount(1);
+    }
+
+    /**
+     * Tests the onOrderChanged method of OrderEventHubService with a client that stopped reading.
+     * Verifies that the other subscribers keep receiving changes and the stalled one is closed once its queue is full.
+     */
+    @Test
+    void onOrderChanged_closesStalledSubscribers() throws InterruptedException {
+        orderProperties.setEventsQueueCapacity(3);
+        StalledEmitter stalled = new StalledEmitter();
+        nextEmitter = stalled;
+        orderEventHubService.subscribeAll();
+        RecordingEmitter emitter = (RecordingEmitter) orderEventHubService.subscribeAll();
+
+        // The first change is stuck in its send, the next three are queued and the fifth one does not fit
+        for (int i = 1; i <= 5; i++) {
+            orderEventHubService.onOrderChanged(new OrderChangedEvent(i, "ref-" + i, null, OrderStatus.DIAGNOSED));
+            assertEquals("ref-" + i, emitter.next().getReferenceCode());
+            assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        }
+        awaitSubscriberCount(1);
+        assertFalse(stalled.completed.await(100, TimeUnit.MILLISECONDS));
+        stalled.release.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests the subscribe method of OrderEventHubService with an order that has as many subscribers as allowed.
+     * Verifies that a TooManyRequestsException is thrown while other orders can still be subscribed to.
+     */
+    @Test
+    void subscribe_tooManySubscribers() {
+        orderProperties.setEventsMaxSubscribersPerOrder(2);
+        orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED));
+        orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED));
+
+        assertThrows(TooManyRequestsException.class,
+                () -> orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED)));
+        orderEventHubService.subscribe(new OrderStatusEventDTO(2, "ref-2", OrderStatus.JOINED));
+        assertEquals(3, orderEventHubService.getSubscriberCount());
+    }
+
+    /**
+     * Tests the subscribeAll method of OrderEventHubService with as many subscriptions open as allowed.
+     * Verifies that a TooManyRequestsException is thrown for every kind of subscription until one of them is dropped.
+     */
+    @Test
+    void subscribeAll_tooManySubscribers() throws InterruptedException {
+        orderProperties.setEventsMaxSubscribers(2);
+        orderProperties.setEventsMaxSubscribersPerOrder(1);
+        failSends = true;
+        orderEventHubService.subscribeAll();
+        failSends = false;
+        orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED));
+
+        assertThrows(TooManyRequestsException.class, () -> orderEventHubService.subscribeAll());
+        assertThrows(TooManyRequestsException.class,
+                () -> orderEventHubService.subscribe(new OrderStatusEventDTO(2, "ref-2", OrderStatus.JOINED)));
+
+        orderEventHubService.onOrderChanged(new OrderChangedEvent(3, "ref-3", null, OrderStatus.DIAGNOSED));
+        awaitSubscriberCount(1);
+        // Refused by the limit of the order, which must not hold on to the subscription it reserved
+        assertThrows(TooManyRequestsException.class,
+                () -> orderEventHubService.subscribe(new OrderStatusEventDTO(1, "ref-1", OrderStatus.JOINED)));
+        orderEventHubService.subscribeAll();
+        assertEquals(2, orderEventHubService.getSubscriberCount());
+    }
+
+    // Wait for the subscribers that are being dropped to be gone
+    private void awaitSubscriberCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (orderEventHubService.getSubscriberCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, orderEventHubService.getSubscriberCount());
+    }
+
+    // Emitter whose sends block until released, like a client that stopped reading
+    private static class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    // Emitter recording the status events sent to it, or failing every send like a closed connection
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<OrderStatusEventDTO> events = new LinkedBlockingQueue<>();
+        private final boolean fail;
+
+        RecordingEmitter(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                throw new IOException("Connection closed");
+            }
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof OrderStatusEventDTO event) {
+                    events.add(event);
+                }
+            }
+        }
+
+        // Wait for the next status event sent to this emitter
+        OrderStatusEventDTO next() throws InterruptedException {
+            OrderStatusEventDTO event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            return event;
+        }
+    }
+}
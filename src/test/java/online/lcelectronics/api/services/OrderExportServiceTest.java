@@ -0,0 +1,80 @@
+package online.lcelectronics.api.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import online.demo.api.dto.OrderSummaryDTO;
+import online.demo.api.enums.ExportFormat;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.services.OrderExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderExportService orderExportService;
+
+    private OrderSummaryDTO order;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderExportService = new OrderExportService(orderRepository, objectMapper);
+        order = new OrderSummaryDTO(1, "ref-1", OrderStatus.JOINED, LocalDate.of(2024, 5, 1), false,
+                "Screen, \"flickers\"", 123L, "John", "SERIAL-1", "Model X");
+    }
+
+    /**
+     * Tests the exportOrders method of OrderExportService in NDJSON format.
+     * Verifies that every order is written as a JSON object on a line of its own and the stream is closed.
+     */
+    @Test
+    void exportOrders_ndjson() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(orderRepository.streamAllSummaries()).thenReturn(Stream.of(order, order).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(ExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"referenceCode\":\"ref-1\""));
+        assertTrue(lines[0].contains("\"createdDate\":\"2024-05-01\""));
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Tests the exportOrders method of OrderExportService in CSV format.
+     * Verifies that a header row is written and values holding separators or quotes are quoted.
+     */
+    @Test
+    void exportOrders_csv() throws IOException {
+        when(orderRepository.streamAllSummaries()).thenReturn(Stream.of(order));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(ExportFormat.CSV, outputStream);
+
+        assertEquals("id,referenceCode,status,createdDate,warranty,issue,clientIdentityCard,clientName,historicApplianceSerial,applianceModel\r\n"
+                        + "1,ref-1,JOINED,2024-05-01,false,\"Screen, \"\"flickers\"\"\",123,John,SERIAL-1,Model X\r\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,220 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.OrderProperties;
+import online.demo.api.converters.ClientConverter;
+import online.demo.api.converters.OrderConverter;
+import online.demo.api.dto.ClientDTO;
+import online.demo.api.dto.OrderDTO;
+import online.demo.api.entities.Client;
+import online.demo.api.entities.Image;
+import online.demo.api.entities.Order;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.exceptions.NotFoundException;
+import online.demo.api.services.OrderReferenceCacheService;
+import online.demo.api.services.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderReferenceCacheServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderConverter orderConverter;
+
+    @Mock
+    private ClientConverter clientConverter;
+
+    private OrderProperties orderProperties;
+
+    private OrderReferenceCacheService orderReferenceCacheService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orderProperties = new OrderProperties();
+        orderReferenceCacheService = new OrderReferenceCacheService(orderService, orderConverter, clientConverter, orderProperties);
+        order = new Order();
+        order.setId(1);
+        order.setReferenceCode("ref-1");
+        order.setClient(new Client());
+        Image image = new Image();
+        image.setId(7);
+        image.setContent(new byte[]{1, 2, 3});
+        order.setImages(List.of(image));
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderReferenceCacheService.
+     * Verifies that the order is rendered with its client and images without their content, and loaded only once
+     * for repeated lookups.
+     */
+    @Test
+    void getOrderByReferenceCode_cached() {
+        stubLoad();
+
+        OrderDTO first = orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+        OrderDTO second = orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+
+        assertSame(first, second);
+        assertNotNull(first.getClient());
+        assertEquals(7, first.getImages().get(0).getId());
+        assertNull(first.getImages().get(0).getContent());
+        verify(orderService, times(1)).getOrderByReferenceCode("ref-1");
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderReferenceCacheService once the entry expired.
+     * Verifies that an expired order is loaded again.
+     */
+    @Test
+    void getOrderByReferenceCode_expired() {
+        orderProperties.setReferenceCacheTtl(Duration.ZERO);
+        stubLoad();
+
+        orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+        orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+
+        verify(orderService, times(2)).getOrderByReferenceCode("ref-1");
+    }
+
+    /**
+     * Tests the onOrderChanged method of OrderReferenceCacheService.
+     * Verifies that a changed order is loaded again on the next lookup.
+     */
+    @Test
+    void onOrderChanged_invalidates() {
+        stubLoad();
+
+        orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+        orderReferenceCacheService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.DELIVERED));
+        orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+
+        verify(orderService, times(2)).getOrderByReferenceCode("ref-1");
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderReferenceCacheService with a bounded size.
+     * Verifies that the least recently used order is evicted.
+     */
+    @Test
+    void getOrderByReferenceCode_evictsLeastRecentlyUsed() {
+        orderProperties.setReferenceCacheSize(1);
+        when(orderService.getOrderByReferenceCode(anyString())).thenReturn(order);
+        when(orderConverter.toDto(order)).thenAnswer(invocation -> new OrderDTO());
+
+        orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+        orderReferenceCacheService.getOrderByReferenceCode("ref-2");
+        orderReferenceCacheService.getOrderByReferenceCode("ref-1");
+
+        verify(orderService, times(2)).getOrderByReferenceCode("ref-1");
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderReferenceCacheService for an unknown reference code.
+     * Ensures that the NotFoundException is passed on and nothing is cached.
+     */
+    @Test
+    void getOrderByReferenceCode_notFound() {
+        when(orderService.getOrderByReferenceCode("missing")).thenThrow(new NotFoundException("Order not found"));
+
+        assertThrows(NotFoundException.class, () -> orderReferenceCacheService.getOrderByReferenceCode("missing"));
+        assertThrows(NotFoundException.class, () -> orderReferenceCacheService.getOrderByReferenceCode("missing"));
+        verify(orderService, times(2)).getOrderByReferenceCode("missing");
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderReferenceCacheService under concurrent lookups.
+     * Verifies that lookups arriving while the order is being loaded wait for that load instead of starting their own.
+     */
+    @Test
+    void getOrderByReferenceCode_coalescesConcurrentMisses() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.getOrderByReferenceCode("ref-1")).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return order;
+        });
+        when(orderConverter.toDto(order)).thenReturn(new OrderDTO());
+        when(clientConverter.toDto(order.getClient())).thenReturn(new ClientDTO());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<OrderDTO>> lookups = new ArrayList<>();
+            lookups.add(executor.submit(() -> orderReferenceCacheService.getOrderByReferenceCode("ref-1")));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                lookups.add(executor.submit(() -> orderReferenceCacheService.getOrderByReferenceCode("ref-1")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            OrderDTO first = lookups.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<OrderDTO> lookup : lookups) {
+                assertSame(first, lookup.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(orderService, times(1)).getOrderByReferenceCode("ref-1");
+    }
+
+    /**
+     * Tests the getOrderByReferenceCode method of OrderReferenceCacheService when loading fails with an Error.
+     * Verifies that a lookup waiting for that load receives the Error instead of waiting forever.
+     */
+    @Test
+    void getOrderByReferenceCode_loadFailsWithError() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.getOrderByReferenceCode("ref-1")).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new OutOfMemoryError("Java heap space");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderDTO> first = executor.submit(() -> orderReferenceCacheService.getOrderByReferenceCode("ref-1"));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<OrderDTO> second = executor.submit(() -> orderReferenceCacheService.getOrderByReferenceCode("ref-1"));
+            Thread.sleep(100);
+            release.countDown();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, failure.getCause());
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(orderService, times(1)).getOrderByReferenceCode("ref-1");
+    }
+
+    // Private method to make the order with reference code ref-1 loadable
+    private void stubLoad() {
+        when(orderService.getOrderByReferenceCode("ref-1")).thenReturn(order);
+        when(orderConverter.toDto(order)).thenAnswer(invocation -> new OrderDTO());
+        when(clientConverter.toDto(order.getClient())).thenReturn(new ClientDTO());
+    }
+}
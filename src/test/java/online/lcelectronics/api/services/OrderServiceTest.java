@@ -1,24 +1,33 @@
 package online.lcelectronics.api.services;
 
+import online.demo.api.config.PagingProperties;
+import online.demo.api.dto.CursorPageDTO;
+import online.demo.api.dto.OrderSummaryDTO;
 import online.demo.api.entities.Client;
 import online.demo.api.entities.HistoricAppliance;
 import online.demo.api.entities.Image;
 import online.demo.api.entities.Order;
 import online.demo.api.enums.OrderStatus;
+import online.demo.api.events.OrderChangedEvent;
 import online.demo.api.exceptions.NotFoundException;
 import online.demo.api.repositories.ClientRepository;
 import online.demo.api.repositories.HistoricApplianceRepository;
-import online.demo.api.repositories.ImageRepository;
 import online.demo.api.repositories.OrderRepository;
 import online.demo.api.services.OrderService;
+import online.demo.api.services.ReferenceValidationService;
+import online.demo.api.util.CursorUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -38,7 +47,13 @@ class OrderServiceTest {
     private HistoricApplianceRepository historicApplianceRepository;
 
     @Mock
-    private ImageRepository imageRepository;
+    private ReferenceValidationService referenceValidationService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private PagingProperties pagingProperties = new PagingProperties();
 
     @InjectMocks
     private OrderService orderService;
@@ -54,10 +69,10 @@ class OrderServiceTest {
      */
     @Test
     void getAllOrders() {
-        List<Order> orders = new ArrayList<>();
-        when(orderRepository.findAll()).thenReturn(orders);
+        List<OrderSummaryDTO> orders = new ArrayList<>();
+        when(orderRepository.findAllSummaries()).thenReturn(orders);
 
-        List<Order> result = orderService.getAllOrders();
+        List<OrderSummaryDTO> result = orderService.getAllOrders();
         assertEquals(orders, result);
     }
 
@@ -109,6 +124,28 @@ class OrderServiceTest {
         assertThrows(NotFoundException.class, () -> orderService.getOrderByReferenceCode("non-existent-code"));
     }
 
+    /**
+     * Tests the verifyOrderImage method of OrderService with an image attached to the order.
+     * Verifies that no exception is thrown.
+     */
+    @Test
+    void verifyOrderImage_attachedImage() {
+        when(orderRepository.existsByReferenceCodeAndImagesId("unique-reference-code", 1)).thenReturn(true);
+
+        assertDoesNotThrow(() -> orderService.verifyOrderImage("unique-reference-code", 1));
+    }
+
+    /**
+     * Tests the verifyOrderImage method of OrderService with an image not attached to the order.
+     * Ensures that a NotFoundException is thrown.
+     */
+    @Test
+    void verifyOrderImage_unattachedImage() {
+        when(orderRepository.existsByReferenceCodeAndImagesId("unique-reference-code", 2)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> orderService.verifyOrderImage("unique-reference-code", 2));
+    }
+
     /**
      * Tests the getOrdersByCriteria method of OrderService.
      * Verifies that orders matching the criteria are returned.
@@ -126,6 +163,17 @@ class OrderServiceTest {
         assertEquals(orders, result);
     }
 
+    /**
+     * Tests the fillMissingSearchCodes method of OrderService.
+     * Verifies that the number of orders updated by the repository is returned.
+     */
+    @Test
+    void fillMissingSearchCodes() {
+        when(orderRepository.fillMissingSearchCodes()).thenReturn(3);
+
+        assertEquals(3, orderService.fillMissingSearchCodes());
+    }
+
     /**
      * Tests the saveOrder method of OrderService with a valid order.
      * Verifies that the order is successfully saved.
@@ -174,6 +222,8 @@ class OrderServiceTest {
         List<Image> images = new ArrayList<>();
         images.add(new Image()); // Invalid image
         order.setImages(images);
+        doThrow(new NotFoundException("Image not found with ID: null"))
+                .when(referenceValidationService).requireExisting(eq(Image.class), any(), eq("Image"));
 
         assertThrows(NotFoundException.class, () -> orderService.saveOrder(order));
     }
@@ -199,6 +249,10 @@ class OrderServiceTest {
         assertNotNull(updatedOrder);
         assertEquals(newStatus, updatedOrder.getStatus());
         verify(orderRepository).saveAndFlush(order);
+        ArgumentCaptor<OrderChangedEvent> event = ArgumentCaptor.forClass(OrderChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertEquals(OrderStatus.DIAGNOSED, event.getValue().getPreviousStatus());
+        assertEquals(newStatus, event.getValue().getStatus());
     }
 
     /**
@@ -226,20 +280,19 @@ class OrderServiceTest {
     void getLastFiveOrders() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 5, Sort.by("createdDate").descending());
-        List<Order> orders = new ArrayList<>();
+        List<OrderSummaryDTO> orders = new ArrayList<>();
         for (int i = 0; i < 5; i++) {
-            orders.add(new Order());
+            orders.add(new OrderSummaryDTO());
         }
-        Page<Order> orderPage = new PageImpl<>(orders, pageable, 5);
 
-        when(orderRepository.findAll(pageable)).thenReturn(orderPage);
+        when(orderRepository.findSummaries(pageable)).thenReturn(orders);
 
         // Act
-        List<Order> result = orderService.getLastFiveOrders();
+        List<OrderSummaryDTO> result = orderService.getLastFiveOrders();
 
         // Assert
         assertEquals(5, result.size()); // Ensure that 5 orders are returned
-        verify(orderRepository).findAll(pageable); // Verify that the repository method is called
+        verify(orderRepository).findSummaries(pageable); // Verify that the repository method is called
     }
 
     /**
@@ -250,21 +303,106 @@ class OrderServiceTest {
     void getOrdersByPageable_existingOrders() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10, Sort.by("createdDate").ascending());
-        List<Order> orders = new ArrayList<>();
+        List<OrderSummaryDTO> orders = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
-            orders.add(new Order());
+            orders.add(new OrderSummaryDTO());
         }
-        Page<Order> orderPage = new PageImpl<>(orders, pageable, 10);
+        Page<OrderSummaryDTO> orderPage = new PageImpl<>(orders, pageable, 10);
 
-        when(orderRepository.findAll(pageable)).thenReturn(orderPage);
+        when(orderRepository.findAllSummaries(pageable)).thenReturn(orderPage);
 
         // Act
-        Page<Order> result = orderService.getOrdersByPageable(0, 10, "createdDate", "asc");
+        Page<OrderSummaryDTO> result = orderService.getOrdersByPageable(0, 10, "createdDate", "asc");
 
         // Assert
         assertEquals(10, result.getTotalElements()); // Ensure 10 orders are returned
         assertEquals(orders, result.getContent()); // Ensure the content matches
-        verify(orderRepository).findAll(pageable); // Verify that the repository method is called
+        verify(orderRepository).findAllSummaries(pageable); // Verify that the repository method is called
+    }
+
+    /**
+     * Tests the getOrdersByCursor method of OrderService without a cursor.
+     * Verifies that the first page is read without a count and carries the cursor of its last order.
+     */
+    @Test
+    void getOrdersByCursor_firstPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "createdDate", "id"));
+        List<OrderSummaryDTO> orders = new ArrayList<>();
+        for (int i = 3; i > 0; i--) {
+            OrderSummaryDTO order = new OrderSummaryDTO();
+            order.setId(i);
+            order.setCreatedDate(LocalDate.of(2024, 5, i));
+            orders.add(order);
+        }
+        when(orderRepository.findSummaries(pageable)).thenReturn(orders);
+
+        // Act
+        CursorPageDTO<OrderSummaryDTO> result = orderService.getOrdersByCursor(null, 2, "desc");
+
+        // Assert
+        assertEquals(orders.subList(0, 2), result.getContent());
+        assertTrue(result.isHasNext());
+        assertArrayEquals(new String[]{"2024-05-02", "2"}, CursorUtil.decode(result.getNextCursor(), 2));
+        verify(orderRepository, never()).findAllSummaries(any(Pageable.class));
+    }
+
+    /**
+     * Tests the getOrdersByCursor method of OrderService with a cursor.
+     * Verifies that the page seeks past the key in the cursor and that the last page has no next cursor.
+     */
+    @Test
+    void getOrdersByCursor_lastPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "createdDate", "id"));
+        OrderSummaryDTO order = new OrderSummaryDTO();
+        order.setId(7);
+        order.setCreatedDate(LocalDate.of(2024, 5, 3));
+        when(orderRepository.findSummariesAfter(LocalDate.of(2024, 5, 2), 5, pageable)).thenReturn(List.of(order));
+
+        // Act
+        CursorPageDTO<OrderSummaryDTO> result = orderService.getOrdersByCursor(CursorUtil.encode(LocalDate.of(2024, 5, 2), 5), 2, null);
+
+        // Assert
+        assertEquals(List.of(order), result.getContent());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    /**
+     * Tests the getOrdersByCursor method of OrderService with the largest page size that can be sent.
+     * Verifies that the page is reduced to the configured maximum size instead of overflowing.
+     */
+    @Test
+    void getOrdersByCursor_sizeAboveMaximum() {
+        pagingProperties.setMaxPageSize(50);
+        Pageable pageable = PageRequest.of(0, 51, Sort.by(Sort.Direction.ASC, "createdDate", "id"));
+        when(orderRepository.findSummaries(pageable)).thenReturn(List.of());
+
+        CursorPageDTO<OrderSummaryDTO> result = orderService.getOrdersByCursor(null, Integer.MAX_VALUE, null);
+
+        assertEquals(50, result.getSize());
+        assertFalse(result.isHasNext());
+    }
+
+    /**
+     * Tests the getOrdersByCursor method of OrderService with a page size that is not positive.
+     * Ensures that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void getOrdersByCursor_invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersByCursor(null, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersByCursor(null, null, null));
+    }
+
+    /**
+     * Tests the getOrdersByCursor method of OrderService with a cursor it did not issue.
+     * Ensures that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void getOrdersByCursor_invalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersByCursor("not-a-cursor", 2, null));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersByCursor(CursorUtil.encode("x", "y"), 2, null));
     }
 
     /**
@@ -275,12 +413,12 @@ class OrderServiceTest {
     void getOrdersByPageable_noOrdersFound() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10, Sort.by("createdDate").ascending());
-        Page<Order> emptyPage = Page.empty(pageable);
+        Page<OrderSummaryDTO> emptyPage = Page.empty(pageable);
 
-        when(orderRepository.findAll(pageable)).thenReturn(emptyPage);
+        when(orderRepository.findAllSummaries(pageable)).thenReturn(emptyPage);
 
         // Act & Assert
         assertThrows(NotFoundException.class, () -> orderService.getOrdersByPageable(0, 10, "createdDate", "asc"));
-        verify(orderRepository).findAll(pageable); // Verify that the repository method is called
+        verify(orderRepository).findAllSummaries(pageable); // Verify that the repository method is called
     }
 }
@@ -0,0 +1,188 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.OrderProperties;
+import online.demo.api.dto.OrderStatusChangeDTO;
+import online.demo.api.dto.OrderStatusChangeResultDTO;
+import online.demo.api.dto.OrderStatusEventDTO;
+import online.demo.api.entities.Order;
+import online.demo.api.entities.OrderHistory;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.enums.StatusChangeOutcome;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.repositories.OrderHistoryRepository;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.services.OrderStatusBatchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderStatusBatchServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private OrderProperties orderProperties;
+
+    private OrderStatusBatchService orderStatusBatchService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        orderProperties = new OrderProperties();
+        orderStatusBatchService = new OrderStatusBatchService(orderRepository, orderHistoryRepository, orderProperties,
+                transactionTemplate, applicationEventPublisher);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(orderRepository.getReferenceById(anyInt())).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setId(invocation.getArgument(0));
+            return order;
+        });
+    }
+
+    /**
+     * Tests the updateOrderStatuses method of OrderStatusBatchService.
+     * Verifies that each change gets its own result, only allowed transitions are applied with one update per target status,
+     * and a history entry and an event are produced for each order moved.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateOrderStatuses() {
+        when(orderRepository.findStatusesForUpdate(List.of(1, 2, 3, 4, 5))).thenReturn(List.of(
+                new OrderStatusEventDTO(1, "ref-1", OrderStatus.REPAIRED),
+                new OrderStatusEventDTO(2, "ref-2", OrderStatus.QUALITY_CONTROL_TEST),
+                new OrderStatusEventDTO(3, "ref-3", OrderStatus.JOINED),
+                new OrderStatusEventDTO(4, "ref-4", OrderStatus.DELIVERED)));
+
+        List<OrderStatusChangeResultDTO> results = orderStatusBatchService.updateOrderStatuses(List.of(
+                new OrderStatusChangeDTO(1, OrderStatus.DELIVERED),
+                new OrderStatusChangeDTO(2, OrderStatus.DELIVERED),
+                new OrderStatusChangeDTO(3, OrderStatus.DELIVERED),
+                new OrderStatusChangeDTO(4, OrderStatus.DELIVERED),
+                new OrderStatusChangeDTO(5, OrderStatus.DELIVERED)));
+
+        assertEquals(List.of(
+                new OrderStatusChangeResultDTO(1, OrderStatus.REPAIRED, OrderStatus.DELIVERED, StatusChangeOutcome.UPDATED),
+                new OrderStatusChangeResultDTO(2, OrderStatus.QUALITY_CONTROL_TEST, OrderStatus.DELIVERED, StatusChangeOutcome.UPDATED),
+                new OrderStatusChangeResultDTO(3, OrderStatus.JOINED, OrderStatus.DELIVERED, StatusChangeOutcome.UPDATED),
+                new OrderStatusChangeResultDTO(4, OrderStatus.DELIVERED, OrderStatus.DELIVERED, StatusChangeOutcome.UNCHANGED),
+                new OrderStatusChangeResultDTO(5, null, OrderStatus.DELIVERED, StatusChangeOutcome.NOT_FOUND)), results);
+        verify(orderRepository, times(1)).updateStatuses(List.of(1, 2, 3), OrderStatus.DELIVERED);
+        verify(orderRepository, times(1)).updateStatuses(any(), any());
+
+        ArgumentCaptor<List<OrderHistory>> history = ArgumentCaptor.forClass(List.class);
+        verify(orderHistoryRepository).saveAll(history.capture());
+        assertEquals(List.of(1, 2, 3), history.getValue().stream().map(entry -> entry.getOrder().getId()).toList());
+        assertEquals("Status changed from REPAIRED to DELIVERED", history.getValue().get(0).getText());
+        verify(applicationEventPublisher, times(3)).publishEvent(any(OrderChangedEvent.class));
+    }
+
+    /**
+     * Tests the updateOrderStatuses method of OrderStatusBatchService with more changes than fit in one chunk.
+     * Verifies that each chunk is applied in its own transaction and the results keep the requested order.
+     */
+    @Test
+    void testUpdateOrderStatuses_Chunks() {
+        orderProperties.setStatusBatchChunkSize(2);
+        when(orderRepository.findStatusesForUpdate(anyCollection())).thenAnswer(invocation ->
+                ((List<Integer>) invocation.getArgument(0)).stream()
+                        .map(id -> new OrderStatusEventDTO(id, "ref-" + id, OrderStatus.JOINED))
+                        .toList());
+
+        List<OrderStatusChangeResultDTO> results = orderStatusBatchService.updateOrderStatuses(List.of(
+                new OrderStatusChangeDTO(1, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(2, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(3, OrderStatus.COMPLETED_NOT_REPAIRED)));
+
+        assertEquals(List.of(1, 2, 3), results.stream().map(OrderStatusChangeResultDTO::getId).toList());
+        results.forEach(result -> assertEquals(StatusChangeOutcome.UPDATED, result.getOutcome()));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(orderRepository).updateStatuses(List.of(1, 2), OrderStatus.DIAGNOSED);
+        verify(orderRepository).updateStatuses(List.of(3), OrderStatus.COMPLETED_NOT_REPAIRED);
+    }
+
+    /**
+     * Tests the updateOrderStatuses method of OrderStatusBatchService when a chunk cannot be saved.
+     * Verifies that the results of the committed chunks are returned and the failed chunk and the ones after it are marked failed.
+     */
+    @Test
+    void testUpdateOrderStatuses_ChunkFails() {
+        orderProperties.setStatusBatchChunkSize(1);
+        when(orderRepository.findStatusesForUpdate(anyCollection())).thenAnswer(invocation ->
+                ((List<Integer>) invocation.getArgument(0)).stream()
+                        .map(id -> new OrderStatusEventDTO(id, "ref-" + id, OrderStatus.JOINED))
+                        .toList());
+        when(orderRepository.updateStatuses(anyCollection(), any()))
+                .thenReturn(1)
+                .thenThrow(new PessimisticLockingFailureException("Lock wait timeout"));
+
+        List<OrderStatusChangeResultDTO> results = orderStatusBatchService.updateOrderStatuses(List.of(
+                new OrderStatusChangeDTO(1, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(2, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(3, OrderStatus.DIAGNOSED)));
+
+        assertEquals(List.of(
+                new OrderStatusChangeResultDTO(1, OrderStatus.JOINED, OrderStatus.DIAGNOSED, StatusChangeOutcome.UPDATED),
+                new OrderStatusChangeResultDTO(2, null, OrderStatus.DIAGNOSED, StatusChangeOutcome.FAILED),
+                new OrderStatusChangeResultDTO(3, null, OrderStatus.DIAGNOSED, StatusChangeOutcome.FAILED)), results);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    /**
+     * Tests the updateOrderStatuses method of OrderStatusBatchService when nothing can be moved.
+     * Verifies that no update, history entry or event is written.
+     */
+    @Test
+    void testUpdateOrderStatuses_NothingToUpdate() {
+        when(orderRepository.findStatusesForUpdate(List.of(1))).thenReturn(List.of(new OrderStatusEventDTO(1, "ref-1", OrderStatus.COMPLETED)));
+
+        List<OrderStatusChangeResultDTO> results = orderStatusBatchService.updateOrderStatuses(List.of(new OrderStatusChangeDTO(1, OrderStatus.COMPLETED)));
+
+        assertEquals(StatusChangeOutcome.UNCHANGED, results.get(0).getOutcome());
+        verify(orderRepository, never()).updateStatuses(any(), any());
+        verifyNoInteractions(orderHistoryRepository, applicationEventPublisher);
+    }
+
+    /**
+     * Tests the updateOrderStatuses method of OrderStatusBatchService with invalid requests.
+     * Verifies that empty, too large, incomplete and duplicated requests are rejected before any order is read.
+     */
+    @Test
+    void testUpdateOrderStatuses_InvalidRequest() {
+        orderProperties.setStatusBatchMaxSize(2);
+
+        assertThrows(IllegalArgumentException.class, () -> orderStatusBatchService.updateOrderStatuses(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> orderStatusBatchService.updateOrderStatuses(List.of(
+                new OrderStatusChangeDTO(1, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(2, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(3, OrderStatus.DIAGNOSED))));
+        assertThrows(IllegalArgumentException.class, () -> orderStatusBatchService.updateOrderStatuses(List.of(
+                new OrderStatusChangeDTO(1, null))));
+        assertThrows(IllegalArgumentException.class, () -> orderStatusBatchService.updateOrderStatuses(List.of(
+                new OrderStatusChangeDTO(1, OrderStatus.DIAGNOSED),
+                new OrderStatusChangeDTO(1, OrderStatus.REPAIRED))));
+        verifyNoInteractions(orderRepository);
+    }
+}
@@ -0,0 +1,184 @@
+package online.lcelectronics.api.services;
+
+import online.demo.api.config.OrderProperties;
+import online.demo.api.dto.OrderStatusCountDTO;
+import online.demo.api.enums.OrderStatus;
+import online.demo.api.events.OrderChangedEvent;
+import online.demo.api.repositories.OrderRepository;
+import online.demo.api.services.OrderStatusCounterService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusCounterServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Spy
+    private OrderProperties orderProperties = new OrderProperties();
+
+    @InjectMocks
+    private OrderStatusCounterService orderStatusCounterService;
+
+    /**
+     * Tests the rebuild method of OrderStatusCounterService.
+     * Verifies that the counts come from the database and statuses without orders are counted as zero.
+     */
+    @Test
+    void rebuild() {
+        when(orderRepository.countByStatus()).thenReturn(List.of(
+                new OrderStatusCountDTO(OrderStatus.JOINED, 3L),
+                new OrderStatusCountDTO(OrderStatus.DELIVERED, 2L)));
+
+        orderStatusCounterService.rebuild();
+
+        Map<OrderStatus, Long> counts = orderStatusCounterService.getCounts();
+        assertEquals(OrderStatus.values().length, counts.size());
+        assertEquals(3L, counts.get(OrderStatus.JOINED));
+        assertEquals(2L, counts.get(OrderStatus.DELIVERED));
+        assertEquals(0L, counts.get(OrderStatus.REPAIRED));
+    }
+
+    /**
+     * Tests the rebuild method of OrderStatusCounterService when it runs again.
+     * Verifies that the previous counts are replaced instead of added to.
+     */
+    @Test
+    void rebuild_replacesCounts() {
+        when(orderRepository.countByStatus()).thenReturn(List.of(new OrderStatusCountDTO(OrderStatus.JOINED, 3L)));
+
+        orderStatusCounterService.rebuild();
+        orderStatusCounterService.rebuild();
+
+        assertEquals(3L, orderStatusCounterService.getCounts().get(OrderStatus.JOINED));
+    }
+
+    /**
+     * Tests the start method of OrderStatusCounterService.
+     * Verifies that the orders are counted right away and then recounted at the configured interval, past a failed recount.
+     */
+    @Test
+    void start() {
+        orderProperties.setStatusCountRefreshInterval(Duration.ofMillis(20));
+        OrderStatusCounterService service = new OrderStatusCounterService(orderRepository, orderProperties);
+        when(orderRepository.countByStatus())
+                .thenReturn(List.of(new OrderStatusCountDTO(OrderStatus.JOINED, 3L)))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(List.of(new OrderStatusCountDTO(OrderStatus.JOINED, 5L)));
+
+        try {
+            service.start();
+            assertEquals(3L, service.getCounts().get(OrderStatus.JOINED));
+
+            verify(orderRepository, timeout(5000).atLeast(3)).countByStatus();
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Tests the start method of OrderStatusCounterService with the recounts disabled.
+     * Verifies that the orders are counted only once.
+     */
+    @Test
+    void start_refreshDisabled() {
+        orderProperties.setStatusCountRefreshInterval(Duration.ZERO);
+        OrderStatusCounterService service = new OrderStatusCounterService(orderRepository, orderProperties);
+        when(orderRepository.countByStatus()).thenReturn(List.of(new OrderStatusCountDTO(OrderStatus.JOINED, 3L)));
+
+        service.start();
+        service.shutdown();
+
+        verify(orderRepository, times(1)).countByStatus();
+        assertEquals(3L, service.getCounts().get(OrderStatus.JOINED));
+    }
+
+    /**
+     * Tests the onOrderChanged method of OrderStatusCounterService.
+     * Verifies that a new order is added to its status and a status change moves the order between counters.
+     */
+    @Test
+    void onOrderChanged() {
+        orderStatusCounterService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.JOINED));
+        orderStatusCounterService.onOrderChanged(new OrderChangedEvent(2, "ref-2", null, OrderStatus.JOINED));
+        orderStatusCounterService.onOrderChanged(new OrderChangedEvent(1, "ref-1", OrderStatus.JOINED, OrderStatus.DIAGNOSED));
+        orderStatusCounterService.onOrderChanged(new OrderChangedEvent(2, "ref-2", OrderStatus.JOINED, OrderStatus.JOINED));
+
+        Map<OrderStatus, Long> counts = orderStatusCounterService.getCounts();
+        assertEquals(1L, counts.get(OrderStatus.JOINED));
+        assertEquals(1L, counts.get(OrderStatus.DIAGNOSED));
+        verifyNoInteractions(orderRepository);
+    }
+
+    /**
+     * Tests the onOrderChanged method of OrderStatusCounterService within a transaction that rolls back.
+     * Verifies that the change is only applied once the transaction commits, so a rolled back one leaves the counts alone.
+     */
+    @Test
+    void onOrderChanged_rolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderStatusCounterService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.JOINED));
+            assertEquals(0L, orderStatusCounterService.getCounts().get(OrderStatus.JOINED));
+
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0L, orderStatusCounterService.getCounts().get(OrderStatus.JOINED));
+    }
+
+    /**
+     * Tests the rebuild method of OrderStatusCounterService while a transaction changing a status is committing.
+     * Verifies that the rebuild waits for the transaction, so the change it counts is not applied a second time.
+     */
+    @Test
+    void rebuild_waitsForCommittingTransactions() throws Exception {
+        when(orderRepository.countByStatus()).thenReturn(List.of(new OrderStatusCountDTO(OrderStatus.JOINED, 1L)));
+        ExecutorService transaction = Executors.newSingleThreadExecutor();
+        try {
+            transaction.submit(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                orderStatusCounterService.onOrderChanged(new OrderChangedEvent(1, "ref-1", null, OrderStatus.JOINED));
+            }).get();
+            CompletableFuture<Void> rebuild = CompletableFuture.runAsync(orderStatusCounterService::rebuild);
+            Thread.sleep(100);
+            assertFalse(rebuild.isDone());
+
+            transaction.submit(() -> {
+                completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+                TransactionSynchronizationManager.clearSynchronization();
+            }).get();
+            rebuild.get(5, TimeUnit.SECONDS);
+        } finally {
+            transaction.shutdownNow();
+        }
+
+        assertEquals(1L, orderStatusCounterService.getCounts().get(OrderStatus.JOINED));
+    }
+
+    // Run the completion callbacks registered on the current thread's transaction
+    private void completeTransaction(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
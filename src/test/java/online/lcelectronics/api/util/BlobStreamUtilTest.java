@@ -0,0 +1,86 @@
+package online.lcelectronics.api.util;
+
+import online.demo.api.util.BlobStreamUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlobStreamUtilTest {
+
+    /**
+     * Tests the copy method of BlobStreamUtil with a row holding content.
+     * Verifies that the content is streamed whole from the single row read.
+     */
+    @Test
+    void copy() throws SQLException {
+        byte[] content = new byte[3 * 1024 * 1024];
+        content[content.length - 1] = 7;
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(content));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertTrue(BlobStreamUtil.copy(resultSet, outputStream));
+
+        assertArrayEquals(content, outputStream.toByteArray());
+        verify(resultSet, times(1)).getBinaryStream(1);
+    }
+
+    /**
+     * Tests the copy method of BlobStreamUtil with a null column.
+     * Verifies that true is returned and nothing is copied.
+     */
+    @Test
+    void copy_nullContent() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertTrue(BlobStreamUtil.copy(resultSet, outputStream));
+
+        assertEquals(0, outputStream.size());
+    }
+
+    /**
+     * Tests the copy method of BlobStreamUtil with no such row.
+     * Verifies that false is returned and nothing is copied.
+     */
+    @Test
+    void copy_missingRow() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertFalse(BlobStreamUtil.copy(resultSet, outputStream));
+
+        assertEquals(0, outputStream.size());
+        verify(resultSet, never()).getBinaryStream(anyInt());
+    }
+
+    /**
+     * Tests the copy method of BlobStreamUtil when the client goes away.
+     * Verifies that the failure is thrown as an UncheckedIOException rather than a data access error.
+     */
+    @Test
+    void copy_clientGone() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        OutputStream outputStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> BlobStreamUtil.copy(resultSet, outputStream));
+    }
+}